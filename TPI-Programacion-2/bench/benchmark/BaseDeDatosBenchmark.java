@@ -0,0 +1,145 @@
+package benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import config.TransactionContext;
+import dao.EnvioDAO;
+import dao.PedidoDAO;
+import entities.EmpresaDeEnvio;
+import entities.Envio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import entities.Pedido;
+import entities.TipoDeEnvio;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import migraciones.MigradorEsquema;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import service.EnvioService;
+import service.PedidoService;
+
+/**
+ * Base de datos embebida (H2 en modo de compatibilidad MySQL) sembrada con
+ * {@code filas} pedidos, cada uno con su envío, para los benchmarks de la
+ * capa DAO. <br>
+ *
+ * El esquema se crea con las mismas migraciones que usa la aplicación
+ * ({@link MigradorEsquema}); las que son sólo para MySQL (el procedimiento
+ * de la V3) se omiten, así que {@code crearPedidoConEnvio} usa la
+ * transacción de dos INSERT. <br>
+ *
+ * La siembra es determinística: el pedido y el envío {@code i} (de 1 a
+ * {@code filas}) tienen ese mismo ID, el tracking {@code SEED-i} y el
+ * cliente {@code cliente-(i % CLIENTES)}, por lo que las búsquedas al azar
+ * siempre apuntan a filas existentes. Cada benchmark corre en su propio
+ * fork, así que las escrituras de uno no cambian el tamaño de los datos
+ * de otro.
+ */
+@State(Scope.Benchmark)
+public class BaseDeDatosBenchmark {
+
+    /** Clientes distintos entre los que se reparten los pedidos sembrados. */
+    static final int CLIENTES = 1_000;
+
+    /** Pedidos por transacción durante la siembra. */
+    private static final int LOTE_SIEMBRA = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int filas;
+
+    HikariDataSource dataSource;
+    TransactionContext transacciones;
+    EnvioDAO envioDAO;
+    PedidoDAO pedidoDAO;
+    PedidoService pedidoService;
+    private EnvioService envioService;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName("bench-pool");
+        hikari.setJdbcUrl("jdbc:h2:mem:bench" + filas + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        hikari.setMaximumPoolSize(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        dataSource = new HikariDataSource(hikari);
+
+        transacciones = new TransactionContext(dataSource::getConnection);
+        new MigradorEsquema(transacciones).migrar();
+        envioDAO = new EnvioDAO(transacciones);
+        pedidoDAO = new PedidoDAO(transacciones);
+        envioService = new EnvioService(envioDAO, transacciones);
+        pedidoService = new PedidoService(pedidoDAO, envioService, transacciones);
+
+        sembrar();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        dataSource.close();
+    }
+
+    private void sembrar() throws Exception {
+        List<Pedido> lote = new ArrayList<>(LOTE_SIEMBRA);
+        for (int i = 1; i <= filas; i++) {
+            lote.add(pedido(i, "SEED-" + i));
+            if (lote.size() == LOTE_SIEMBRA || i == filas) {
+                pedidoService.crearPedidosConEnvio(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * @return envío nuevo (sin ID) con un tracking que no existe en la base
+     */
+    Envio nuevoEnvio() {
+        return envio(ThreadLocalRandom.current().nextInt(filas) + 1, envioService.generarTracking());
+    }
+
+    /**
+     * @return pedido nuevo (sin ID) con un envío nuevo
+     */
+    Pedido nuevoPedido() {
+        return pedido(ThreadLocalRandom.current().nextInt(filas) + 1, envioService.generarTracking());
+    }
+
+    /**
+     * @return ID de un pedido (y de un envío) sembrado
+     */
+    int idAlAzar() {
+        return ThreadLocalRandom.current().nextInt(filas) + 1;
+    }
+
+    /**
+     * @return tracking de un envío sembrado
+     */
+    String trackingAlAzar() {
+        return "SEED-" + idAlAzar();
+    }
+
+    /**
+     * @return nombre de un cliente con pedidos sembrados
+     */
+    String clienteAlAzar() {
+        return "cliente-" + ThreadLocalRandom.current().nextInt(Math.min(CLIENTES, filas));
+    }
+
+    private static Pedido pedido(int i, String tracking) {
+        return new Pedido(null, "P-" + i, LocalDate.of(2025, 1, 1).plusDays(i % 365), "cliente-" + (i % CLIENTES),
+                EstadoDePedido.values()[i % EstadoDePedido.values().length], envio(i, tracking), 100 + i % 900);
+    }
+
+    private static Envio envio(int i, String tracking) {
+        LocalDate despacho = LocalDate.of(2025, 1, 2).plusDays(i % 365);
+        return new Envio(null, tracking,
+                EmpresaDeEnvio.values()[i % EmpresaDeEnvio.values().length],
+                TipoDeEnvio.values()[i % TipoDeEnvio.values().length],
+                10 + i % 90, despacho, despacho.plusDays(3), EstadoDeEnvio.EN_PREPARACION);
+    }
+}
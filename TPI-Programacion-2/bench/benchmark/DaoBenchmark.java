@@ -0,0 +1,84 @@
+package benchmark;
+
+import entities.Envio;
+import entities.Pedido;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH de las operaciones principales de {@link dao.EnvioDAO},
+ * {@link dao.PedidoDAO} y {@link service.PedidoService} contra la base
+ * embebida de {@link BaseDeDatosBenchmark}, con 1k, 100k y 1M filas. <br>
+ *
+ * Las operaciones puntuales se miden en operaciones por segundo;
+ * {@code findAll}, que lee la tabla completa, en milisegundos por llamada.
+ * Cada método devuelve su resultado para que el JIT no lo elimine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DaoBenchmark {
+
+    @Benchmark
+    public Envio save(BaseDeDatosBenchmark bd) throws Exception {
+        Envio envio = bd.nuevoEnvio();
+        bd.envioDAO.save(envio);
+        return envio;
+    }
+
+    @Benchmark
+    public Pedido saveTx(BaseDeDatosBenchmark bd) throws Exception {
+        Pedido pedido = bd.nuevoPedido();
+        return bd.transacciones.inTransaction(() -> {
+            Connection conn = bd.transacciones.getConnection();
+            bd.envioDAO.saveTx(pedido.getEnvio(), conn);
+            bd.pedidoDAO.saveTx(pedido, conn);
+            return pedido;
+        });
+    }
+
+    @Benchmark
+    public Pedido findById(BaseDeDatosBenchmark bd) throws Exception {
+        return bd.pedidoDAO.findById(bd.idAlAzar());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Pedido> findAll(BaseDeDatosBenchmark bd) throws Exception {
+        return bd.pedidoDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Pedido> findByClient(BaseDeDatosBenchmark bd) throws Exception {
+        return bd.pedidoDAO.findByClient(bd.clienteAlAzar());
+    }
+
+    @Benchmark
+    public Envio findByTracking(BaseDeDatosBenchmark bd) throws Exception {
+        try (Connection conn = bd.transacciones.getConnection()) {
+            return bd.envioDAO.findByTracking(bd.trackingAlAzar(), conn);
+        }
+    }
+
+    /**
+     * Usa la variante asíncrona, que sin commit agrupado ejecuta el mismo
+     * camino en el hilo actual pero sin el mensaje por consola de la
+     * sincrónica.
+     */
+    @Benchmark
+    public Pedido crearPedidoConEnvio(BaseDeDatosBenchmark bd) throws Exception {
+        Pedido pedido = bd.nuevoPedido();
+        return bd.pedidoService.crearPedidoConEnvioAsync(pedido, pedido.getEnvio()).get();
+    }
+}
@@ -0,0 +1,41 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los benchmarks JMH con el profiler de GC (asignación por
+ * operación y colecciones) y guarda los resultados en JSON, con el commit
+ * en el nombre del archivo para poder comparar corridas entre commits. <br>
+ *
+ * Uso (lo invoca {@code ant bench}):
+ * {@code java -Dbench.etiqueta=<commit> [-Dbench.filas=1000] benchmark.EjecutarBenchmarks [filtro]}
+ * <ul>
+ *   <li>{@code filtro}: expresión regular de los benchmarks a correr; por defecto todos los de {@link DaoBenchmark}</li>
+ *   <li>{@code bench.filas}: tamaños de datos separados por coma; por defecto 1000, 100000 y 1000000</li>
+ *   <li>{@code bench.resultados}: carpeta de salida; por defecto {@code build/bench}</li>
+ * </ul>
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        String filtro = args.length > 0 && !args[0].isBlank() ? args[0] : DaoBenchmark.class.getSimpleName();
+        String etiqueta = System.getProperty("bench.etiqueta", "local");
+        String carpeta = System.getProperty("bench.resultados", "build/bench");
+        String filas = System.getProperty("bench.filas", "");
+
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .include(filtro)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(carpeta + "/jmh-" + etiqueta + ".json");
+        if (!filas.isBlank()) {
+            opciones.param("filas", filas.split(","));
+        }
+        new Runner(opciones.build()).run();
+        System.out.println("Resultados guardados en " + carpeta + "/jmh-" + etiqueta + ".json");
+    }
+}
@@ -0,0 +1,187 @@
+package cache;
+
+import entities.Pedido;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache de resultados para las búsquedas de pedidos por cliente y por
+ * número. <br>
+ *
+ * Cada resultado se guarda bajo la clave (consulta, parámetro) en una
+ * {@link LruCache} acotada por cantidad de entradas y TTL; además, los
+ * resultados con más de {@code maxFilasPorResultado} pedidos no se cachean,
+ * por lo que la memoria queda acotada. También se cachean las búsquedas sin
+ * resultados. <br>
+ *
+ * La invalidación es precisa: cuando se escribe un pedido se descartan las
+ * claves de su cliente y su número (los valores nuevos) y todas las claves
+ * cuyos resultados contenían ese pedido (lo que cubre los valores viejos en
+ * una actualización y los cambios de su envío). El índice inverso
+ * pedido → claves se mantiene sincronizado con el contenido de la cache
+ * mediante el callback de remoción de {@link LruCache}. Para no guardar un
+ * resultado leído antes de una escritura concurrente, cada lectura anota la
+ * "generación" de la cache al empezar y sólo guarda su resultado si no hubo
+ * invalidaciones en el medio. Esa garantía supone que el cargador lee
+ * datos al día: con réplicas de lectura, {@code PedidoService} carga desde
+ * el primario, porque una réplica atrasada podría devolver el resultado
+ * anterior a una escritura ya invalidada. <br>
+ *
+ * Como las entidades son mutables, se guardan y devuelven copias.
+ */
+public class CacheConsultasPedidos {
+
+    /** Tipo de consulta cacheada. */
+    public enum Consulta {
+        POR_CLIENTE, POR_NUMERO
+    }
+
+    /** Clave de un resultado: consulta más parámetro. */
+    private record Clave(Consulta consulta, String parametro) {
+    }
+
+    private final LruCache<Clave, List<Pedido>> resultados;
+    /** Índice inverso ID de pedido → claves cuyos resultados lo contienen (protegido por {@code this}). */
+    private final Map<Long, Set<Clave>> clavesPorPedido = new HashMap<>();
+    private final int maxFilasPorResultado;
+    private long generacion;
+
+    /**
+     * @param maxEntradas cantidad máxima de resultados cacheados
+     * @param ttlMillis tiempo de vida de cada resultado en milisegundos
+     * @param maxFilasPorResultado resultados más grandes no se cachean
+     */
+    public CacheConsultasPedidos(int maxEntradas, long ttlMillis, int maxFilasPorResultado) {
+        this.resultados = new LruCache<>(maxEntradas, ttlMillis, this::desindexar);
+        this.maxFilasPorResultado = maxFilasPorResultado;
+    }
+
+    /**
+     * Devuelve el resultado cacheado o lo obtiene con {@code cargador} y lo
+     * guarda. La consulta real se ejecuta fuera del lock de la cache.
+     *
+     * @param consulta tipo de consulta
+     * @param parametro valor buscado
+     * @param cargador ejecuta la consulta real contra la base
+     * @return copia del resultado
+     * @throws Exception si falla la consulta real
+     */
+    public List<Pedido> obtener(Consulta consulta, String parametro, Cargador cargador) throws Exception {
+        Clave clave = new Clave(consulta, parametro);
+        List<Pedido> cacheado;
+        long generacionInicial;
+        synchronized (this) {
+            cacheado = resultados.get(clave);
+            generacionInicial = generacion;
+        }
+        if (cacheado != null) {
+            return copiar(cacheado);
+        }
+
+        List<Pedido> leido = cargador.cargar();
+        if (leido.size() <= maxFilasPorResultado) {
+            guardar(clave, copiar(leido), generacionInicial);
+        }
+        return leido;
+    }
+
+    /**
+     * Descarta los resultados afectados por la escritura de un pedido: las
+     * búsquedas por su cliente y por su número, y las que lo contenían.
+     *
+     * @param pedido pedido escrito (con sus valores nuevos)
+     */
+    public synchronized void invalidar(Pedido pedido) {
+        generacion++;
+        if (pedido.getClienteNombre() != null) {
+            resultados.invalidar(new Clave(Consulta.POR_CLIENTE, pedido.getClienteNombre()));
+        }
+        if (pedido.getNumero() != null) {
+            resultados.invalidar(new Clave(Consulta.POR_NUMERO, pedido.getNumero()));
+        }
+        if (pedido.getId() != null) {
+            invalidarPorId(pedido.getId());
+        }
+    }
+
+    /**
+     * Descarta los resultados que contenían el pedido con el ID indicado.
+     *
+     * @param pedidoId ID del pedido escrito o eliminado
+     */
+    public synchronized void invalidarPorId(long pedidoId) {
+        generacion++;
+        Set<Clave> claves = clavesPorPedido.get(pedidoId);
+        if (claves != null) {
+            // Se copia porque cada invalidación modifica el índice a través de desindexar
+            for (Clave clave : new ArrayList<>(claves)) {
+                resultados.invalidar(clave);
+            }
+        }
+    }
+
+    /**
+     * @return contadores de aciertos, fallos, desalojos y expiraciones
+     */
+    public EstadisticasCache estadisticas() {
+        return resultados.estadisticas();
+    }
+
+    /**
+     * Guarda el resultado sólo si no hubo invalidaciones desde que se empezó
+     * a leer.
+     */
+    private synchronized void guardar(Clave clave, List<Pedido> resultado, long generacionInicial) {
+        if (generacion != generacionInicial) {
+            return;
+        }
+        resultados.put(clave, resultado);
+        for (Pedido pedido : resultado) {
+            if (pedido.getId() != null) {
+                clavesPorPedido.computeIfAbsent(pedido.getId(), id -> new HashSet<>()).add(clave);
+            }
+        }
+    }
+
+    /**
+     * Callback de remoción de la cache: quita la clave del índice inverso.
+     * Se ejecuta siempre con el lock de {@code this} tomado, porque todas las
+     * operaciones que pueden remover entradas son sincronizadas.
+     */
+    private void desindexar(Clave clave, List<Pedido> resultado) {
+        for (Pedido pedido : resultado) {
+            Set<Clave> claves = clavesPorPedido.get(pedido.getId());
+            if (claves != null) {
+                claves.remove(clave);
+                if (claves.isEmpty()) {
+                    clavesPorPedido.remove(pedido.getId());
+                }
+            }
+        }
+    }
+
+    private static List<Pedido> copiar(List<Pedido> pedidos) {
+        List<Pedido> copia = new ArrayList<>(pedidos.size());
+        for (Pedido pedido : pedidos) {
+            copia.add(new Pedido(pedido));
+        }
+        return copia;
+    }
+
+    /**
+     * Ejecuta la consulta real cuando el resultado no está en la cache.
+     */
+    @FunctionalInterface
+    public interface Cargador {
+
+        /**
+         * @return resultado leído de la base
+         * @throws Exception si falla la consulta
+         */
+        List<Pedido> cargar() throws Exception;
+    }
+}
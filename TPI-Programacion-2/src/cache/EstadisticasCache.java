@@ -0,0 +1,27 @@
+package cache;
+
+/**
+ * Foto de los contadores de un {@link LruCache}.
+ *
+ * @param aciertos lecturas resueltas desde la cache
+ * @param fallos lecturas que no encontraron una entrada válida
+ * @param desalojos entradas descartadas por superar el tamaño máximo (LRU)
+ * @param expiraciones entradas descartadas por superar el TTL
+ * @param tamanio cantidad de entradas actuales
+ */
+public record EstadisticasCache(long aciertos, long fallos, long desalojos, long expiraciones, int tamanio) {
+
+    /**
+     * @return proporción de aciertos sobre el total de lecturas (0 si no hubo lecturas)
+     */
+    public double tasaDeAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("aciertos=%d fallos=%d (%.1f%% aciertos) desalojos=%d expiraciones=%d tamaño=%d",
+                aciertos, fallos, tasaDeAciertos() * 100, desalojos, expiraciones, tamanio);
+    }
+}
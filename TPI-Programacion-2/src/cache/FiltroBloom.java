@@ -0,0 +1,95 @@
+package cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro para uso concurrente y sin locks. <br>
+ *
+ * Responde "seguro que no está" o "puede estar": nunca da falsos
+ * negativos, y la proporción de falsos positivos se mantiene cerca de la
+ * configurada mientras no se agreguen muchos más elementos que la capacidad
+ * indicada al crearlo. Los bits se guardan en un {@link AtomicLongArray} y
+ * se activan con CAS, por lo que {@link #agregar(String)} y
+ * {@link #puedeContener(String)} pueden llamarse desde varios hilos. Los
+ * elementos no pueden quitarse.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int cantidadHashes;
+
+    /**
+     * @param capacidad cantidad de elementos esperada
+     * @param probabilidadFalsoPositivo proporción de falsos positivos buscada (entre 0 y 1)
+     */
+    public FiltroBloom(long capacidad, double probabilidadFalsoPositivo) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a 0");
+        }
+        if (probabilidadFalsoPositivo <= 0 || probabilidadFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("La probabilidad de falso positivo debe estar entre 0 y 1");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidad * Math.log(probabilidadFalsoPositivo) / (ln2 * ln2));
+        int palabras = (int) Math.min(Integer.MAX_VALUE, (m + 63) / 64);
+        this.bits = new AtomicLongArray(palabras);
+        this.cantidadBits = (long) palabras * 64;
+        this.cantidadHashes = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * ln2));
+    }
+
+    /**
+     * @param valor elemento a agregar
+     */
+    public void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < cantidadHashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, cantidadBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << (bit & 63);
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    /**
+     * @param valor elemento a consultar
+     * @return {@code false} si el elemento seguro no fue agregado; {@code true} si puede haberlo sido
+     */
+    public boolean puedeContener(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < cantidadHashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, cantidadBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los bytes UTF-8 con una mezcla final, de la
+     * que se derivan las k posiciones por doble hashing.
+     */
+    private static long hash64(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,146 @@
+package cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache en memoria acotada por tamaño (desalojo LRU) y por tiempo de vida
+ * (TTL). <br>
+ *
+ * Se apoya en un {@link LinkedHashMap} en orden de acceso: cada lectura
+ * mueve la entrada al final y, al superar {@code tamanioMaximo}, se descarta
+ * la menos usada recientemente. Las entradas vencidas se descartan al ser
+ * leídas. Todas las operaciones están sincronizadas: son O(1) y muy cortas
+ * comparadas con la consulta SQL que evitan.
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor
+ */
+public class LruCache<K, V> {
+
+    private final int tamanioMaximo;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    private final BiConsumer<K, V> alRemover;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder expiraciones = new LongAdder();
+
+    /**
+     * @param tamanioMaximo cantidad máxima de entradas
+     * @param ttlMillis tiempo de vida de cada entrada en milisegundos (0 = sin vencimiento)
+     */
+    public LruCache(int tamanioMaximo, long ttlMillis) {
+        this(tamanioMaximo, ttlMillis, null);
+    }
+
+    /**
+     * @param tamanioMaximo cantidad máxima de entradas
+     * @param ttlMillis tiempo de vida de cada entrada en milisegundos (0 = sin vencimiento)
+     * @param alRemover callback invocado (con el lock de la cache tomado) cada vez que
+     *                  una entrada sale de la cache por desalojo, vencimiento,
+     *                  invalidación o reemplazo; puede ser {@code null}
+     */
+    public LruCache(int tamanioMaximo, long ttlMillis, BiConsumer<K, V> alRemover) {
+        if (tamanioMaximo <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la cache debe ser mayor a 0");
+        }
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("El TTL de la cache no puede ser negativo");
+        }
+        this.tamanioMaximo = tamanioMaximo;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.alRemover = alRemover;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() > LruCache.this.tamanioMaximo) {
+                    desalojos.increment();
+                    notificar(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el valor asociado a la clave si existe y no venció.
+     *
+     * @param clave clave a buscar
+     * @return valor cacheado o {@code null} si no hay una entrada válida
+     */
+    public synchronized V get(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            fallos.increment();
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entrada.creadaNanos >= ttlNanos) {
+            entradas.remove(clave);
+            expiraciones.increment();
+            notificar(clave, entrada);
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return entrada.valor;
+    }
+
+    /**
+     * Agrega o reemplaza una entrada.
+     *
+     * @param clave clave de la entrada
+     * @param valor valor a cachear (no puede ser {@code null})
+     */
+    public synchronized void put(K clave, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("No se pueden cachear valores null");
+        }
+        notificar(clave, entradas.put(clave, new Entrada<>(valor, System.nanoTime())));
+    }
+
+    /**
+     * Descarta la entrada asociada a la clave, si existe.
+     *
+     * @param clave clave a invalidar
+     */
+    public synchronized void invalidar(K clave) {
+        notificar(clave, entradas.remove(clave));
+    }
+
+    /**
+     * Descarta todas las entradas (los contadores se conservan).
+     */
+    public synchronized void limpiar() {
+        if (alRemover != null) {
+            entradas.forEach(this::notificar);
+        }
+        entradas.clear();
+    }
+
+    public synchronized int tamanio() {
+        return entradas.size();
+    }
+
+    /**
+     * @return foto de los contadores de aciertos, fallos, desalojos y expiraciones
+     */
+    public EstadisticasCache estadisticas() {
+        return new EstadisticasCache(aciertos.sum(), fallos.sum(), desalojos.sum(), expiraciones.sum(), tamanio());
+    }
+
+    private void notificar(K clave, Entrada<V> entrada) {
+        if (alRemover != null && entrada != null) {
+            alRemover.accept(clave, entrada.valor);
+        }
+    }
+
+    /** Valor cacheado junto con su instante de creación. */
+    private record Entrada<V>(V valor, long creadaNanos) {
+    }
+}
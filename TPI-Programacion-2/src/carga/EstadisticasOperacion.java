@@ -0,0 +1,85 @@
+package carga;
+
+import config.TransactionExecutor;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import metricas.HistogramaLatencias;
+
+/**
+ * Latencias y errores de una operación durante una corrida del generador
+ * de carga. Los errores se agrupan por causa: la clase de la excepción
+ * original y, si es un error SQL, su código y SQLState (por ejemplo, un
+ * deadlock de MySQL aparece como {@code MySQLTransactionRollbackException
+ * [1213/40001]}).
+ */
+public class EstadisticasOperacion {
+
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private final Map<String, LongAdder> errores = new ConcurrentHashMap<>();
+
+    /**
+     * Registra una ejecución exitosa.
+     *
+     * @param nanos duración en nanosegundos
+     */
+    public void registrarExito(long nanos) {
+        latencias.registrar(nanos);
+    }
+
+    /**
+     * Registra una ejecución fallida. Las fallidas no cuentan en las
+     * latencias.
+     *
+     * @param error excepción lanzada por la operación
+     */
+    public void registrarError(Throwable error) {
+        errores.computeIfAbsent(causa(error), c -> new LongAdder()).increment();
+    }
+
+    public HistogramaLatencias getLatencias() {
+        return latencias;
+    }
+
+    /**
+     * @return cantidad de errores
+     */
+    public long totalErrores() {
+        return errores.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @return cantidad de errores por causa, ordenados por causa
+     */
+    public Map<String, Long> erroresPorCausa() {
+        Map<String, Long> copia = new TreeMap<>();
+        errores.forEach((causa, cantidad) -> copia.put(causa, cantidad.sum()));
+        return copia;
+    }
+
+    /**
+     * Describe la causa de un error: la primera {@link SQLException} de la
+     * cadena (con código y SQLState) o, si no hay, la excepción original con
+     * su mensaje. Los errores transitorios (deadlock, espera de lock
+     * agotada) que llegan hasta acá son los que agotaron los reintentos.
+     */
+    static String causa(Throwable error) {
+        Throwable original = error;
+        while ((original instanceof ExecutionException || original instanceof CompletionException)
+                && original.getCause() != null) {
+            original = original.getCause();
+        }
+        for (Throwable t = original; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                String descripcion = sql.getClass().getSimpleName()
+                        + " [" + sql.getErrorCode() + "/" + sql.getSQLState() + "]";
+                return TransactionExecutor.isTransient(sql) ? descripcion + " (reintentos agotados)" : descripcion;
+            }
+        }
+        return original.getClass().getSimpleName() + ": " + original.getMessage();
+    }
+}
@@ -0,0 +1,467 @@
+package carga;
+
+import config.ConnectionProvider;
+import config.DatabaseConfig;
+import config.RetryStats;
+import dao.EnvioDAO;
+import dao.Page;
+import dao.PageRequest;
+import dao.PedidoDAO;
+import entities.EmpresaDeEnvio;
+import entities.Envio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import entities.Pedido;
+import entities.TipoDeEnvio;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import metricas.HistogramaLatencias;
+import service.EnvioService;
+import service.PedidoService;
+
+/**
+ * Generador de carga concurrente sobre {@link PedidoService}: simula N
+ * clientes simultáneos que ejecutan una mezcla configurable de altas de
+ * pedidos, cambios de estado de envío, búsquedas por número y búsquedas
+ * por tracking contra la base configurada en {@code database.properties}.
+ * <br>
+ *
+ * Modos:
+ * <ul>
+ *   <li><b>Lazo cerrado</b> ({@code cerrado}): cada cliente ejecuta una
+ *       operación detrás de otra; el throughput resulta de la latencia.</li>
+ *   <li><b>Lazo abierto</b> ({@code abierto}): las operaciones llegan a una
+ *       tasa fija sin esperar a que terminen las anteriores, con hasta N en
+ *       curso. La latencia se mide desde el momento en que la operación
+ *       debía empezar, así que incluye la espera en cola cuando el sistema
+ *       no da abasto.</li>
+ * </ul>
+ *
+ * Por cada cantidad de clientes informa el throughput y los percentiles
+ * p50, p99 y p999 de cada operación, los errores agrupados por causa y los
+ * rollbacks: los de operaciones transaccionales fallidas y los de los
+ * deadlocks que se resolvieron reintentando. <br>
+ *
+ * Uso: {@code java -cp build/classes:<jars> carga.GeneradorCarga}, con las
+ * claves {@code carga.*} en {@code database.properties} o como
+ * {@code -D} (con su valor por defecto):
+ * <ul>
+ *   <li>{@code carga.clientes}: cantidades de clientes a probar, separadas por coma; {@code 8,64,1000}</li>
+ *   <li>{@code carga.hilos}: {@code virtuales} o {@code plataforma}; {@code virtuales}</li>
+ *   <li>{@code carga.modo}: {@code cerrado} o {@code abierto}; {@code cerrado}</li>
+ *   <li>{@code carga.tasa}: operaciones por segundo en lazo abierto; 500</li>
+ *   <li>{@code carga.mezcla}: pesos de cada operación; {@code crear:20,estado:20,numero:40,tracking:20}</li>
+ *   <li>{@code carga.calentamientoSeg} y {@code carga.duracionSeg}: duración sin medir y medida; 5 y 30</li>
+ *   <li>{@code carga.muestra}: pedidos existentes sobre los que se actualiza y busca; 10000</li>
+ *   <li>{@code carga.semilla}: pedidos a crear antes de empezar si la base está vacía; 1000</li>
+ * </ul>
+ * Los pedidos creados por la carga quedan en la base. Conviene usar el pool
+ * de Hikari con {@code db.pool.maxSize} acorde a la cantidad de clientes.
+ */
+public class GeneradorCarga {
+
+    /** Espera máxima a que terminen las operaciones en curso al final de una corrida. */
+    private static final long ESPERA_CIERRE_SEG = 30;
+
+    private static final double[] PERCENTILES = {0.50, 0.99, 0.999};
+
+    private final PedidoService pedidoService;
+    private final EnvioService envioService;
+    private final boolean hilosVirtuales;
+    private final boolean lazoAbierto;
+    private final double tasa;
+    private final OperacionCarga[] operaciones;
+    private final int[] pesosAcumulados;
+    private final List<Pedido> muestra;
+    private final AtomicInteger altas = new AtomicInteger();
+
+    /** Mediciones de la ventana actual; se reemplazan al terminar el calentamiento. */
+    private volatile Map<OperacionCarga, EstadisticasOperacion> medicion;
+    private volatile boolean detenido;
+    private final LongAdder descartadas = new LongAdder();
+
+    /**
+     * @param pedidoService servicio de pedidos a cargar
+     * @param envioService servicio de envíos (búsquedas por tracking)
+     * @param hilosVirtuales {@code true} para un hilo virtual por operación o cliente
+     * @param lazoAbierto {@code true} para llegadas a tasa fija
+     * @param tasa operaciones por segundo en lazo abierto
+     * @param mezcla pesos de cada operación
+     * @param muestra pedidos existentes sobre los que se actualiza y busca
+     */
+    public GeneradorCarga(PedidoService pedidoService, EnvioService envioService, boolean hilosVirtuales,
+            boolean lazoAbierto, double tasa, Map<OperacionCarga, Integer> mezcla, List<Pedido> muestra) {
+        if (pedidoService == null) {
+            throw new IllegalArgumentException("PedidoService no puede ser null");
+        }
+        if (envioService == null) {
+            throw new IllegalArgumentException("EnvioService no puede ser null");
+        }
+        if (muestra.isEmpty() && mezcla.keySet().stream().anyMatch(op -> op != OperacionCarga.CREAR)) {
+            throw new IllegalArgumentException("La muestra de pedidos no puede estar vacía");
+        }
+        if (lazoAbierto && tasa <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser mayor a 0");
+        }
+        this.pedidoService = pedidoService;
+        this.envioService = envioService;
+        this.hilosVirtuales = hilosVirtuales;
+        this.lazoAbierto = lazoAbierto;
+        this.tasa = tasa;
+        this.muestra = List.copyOf(muestra);
+        this.operaciones = mezcla.keySet().toArray(new OperacionCarga[0]);
+        this.pesosAcumulados = new int[operaciones.length];
+        int acumulado = 0;
+        for (int i = 0; i < operaciones.length; i++) {
+            acumulado += mezcla.get(operaciones[i]);
+            pesosAcumulados[i] = acumulado;
+        }
+        if (acumulado <= 0) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos una operación con peso positivo");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatabaseConfig config = new DatabaseConfig();
+        ConnectionProvider connectionProvider = ConnectionProvider.fromConfig(config);
+        PedidoService pedidoService = null;
+        try {
+            EnvioService envioService = new EnvioService(new EnvioDAO(connectionProvider), connectionProvider);
+            pedidoService = crearPedidoService(envioService, connectionProvider, config);
+
+            boolean virtuales = switch (config.getString("carga.hilos", "virtuales").toLowerCase()) {
+                case "virtuales" -> true;
+                case "plataforma" -> false;
+                default -> throw new IllegalStateException("carga.hilos debe ser virtuales o plataforma");
+            };
+            boolean abierto = switch (config.getString("carga.modo", "cerrado").toLowerCase()) {
+                case "abierto" -> true;
+                case "cerrado" -> false;
+                default -> throw new IllegalStateException("carga.modo debe ser abierto o cerrado");
+            };
+            List<Pedido> muestra = cargarMuestra(pedidoService, config.getInt("carga.muestra", 10_000),
+                    config.getInt("carga.semilla", 1_000));
+            GeneradorCarga generador = new GeneradorCarga(pedidoService, envioService, virtuales, abierto,
+                    Double.parseDouble(config.getString("carga.tasa", "500")),
+                    leerMezcla(config.getString("carga.mezcla", "crear:20,estado:20,numero:40,tracking:20")),
+                    muestra);
+
+            long calentamiento = config.getLong("carga.calentamientoSeg", 5);
+            long duracion = config.getLong("carga.duracionSeg", 30);
+            for (String clientes : config.getString("carga.clientes", "8,64,1000").split(",")) {
+                generador.correr(Integer.parseInt(clientes.trim()), calentamiento, duracion);
+            }
+        } finally {
+            if (pedidoService != null) {
+                pedidoService.detenerCommitAgrupado();
+            }
+            connectionProvider.close();
+        }
+    }
+
+    /**
+     * Arma el servicio de pedidos con las opciones de {@code database.properties}
+     * que cambian su comportamiento bajo concurrencia: reintentos, creación
+     * en un viaje y commit agrupado.
+     */
+    private static PedidoService crearPedidoService(EnvioService envioService, ConnectionProvider connectionProvider,
+            DatabaseConfig config) {
+        PedidoService servicio = new PedidoService(new PedidoDAO(connectionProvider), envioService, connectionProvider);
+        servicio.configurarReintentos(
+                config.getInt("db.retry.maxAttempts", PedidoService.INTENTOS_POR_DEFECTO),
+                config.getLong("db.retry.baseDelayMs", PedidoService.ESPERA_BASE_MS_POR_DEFECTO),
+                config.getLong("db.retry.maxDelayMs", PedidoService.ESPERA_MAXIMA_MS_POR_DEFECTO));
+        if (config.getBoolean("pedidos.singleRoundTrip.enabled", false)) {
+            servicio.activarCreacionEnUnViaje();
+        }
+        if (config.getBoolean("pedidos.groupCommit.enabled", false)) {
+            servicio.iniciarCommitAgrupado(
+                    config.getInt("pedidos.groupCommit.maxBatch", 64),
+                    config.getLong("pedidos.groupCommit.maxWaitMs", 5),
+                    config.getInt("pedidos.groupCommit.writers", 2));
+        }
+        return servicio;
+    }
+
+    /**
+     * Lee hasta {@code tamanio} pedidos activos; si no hay ninguno, crea
+     * {@code semilla} pedidos antes.
+     */
+    private static List<Pedido> cargarMuestra(PedidoService pedidoService, int tamanio, int semilla)
+            throws Exception {
+        List<Pedido> muestra = leerPedidos(pedidoService, tamanio);
+        if (muestra.isEmpty() && semilla > 0) {
+            System.out.println("Base sin pedidos: creando " + semilla + " pedidos de prueba...");
+            List<Pedido> lote = new ArrayList<>();
+            for (int i = 0; i < semilla; i++) {
+                lote.add(nuevoPedido("SEMILLA-" + i, pedidoService.generarTracking()));
+            }
+            pedidoService.crearPedidosConEnvio(lote);
+            muestra = leerPedidos(pedidoService, tamanio);
+        }
+        return muestra;
+    }
+
+    private static List<Pedido> leerPedidos(PedidoService pedidoService, int tamanio) throws Exception {
+        List<Pedido> pedidos = new ArrayList<>();
+        PageRequest pagina = PageRequest.first(Math.min(tamanio, PageRequest.MAX_SIZE));
+        while (pagina != null && pedidos.size() < tamanio) {
+            Page<Pedido> resultado = pedidoService.listarPedidosPaginado(pagina);
+            pedidos.addAll(resultado.getItems());
+            pagina = resultado.hasNext() ? resultado.getNext() : null;
+        }
+        return pedidos.size() > tamanio ? pedidos.subList(0, tamanio) : pedidos;
+    }
+
+    /**
+     * @param mezcla pesos con el formato {@code operacion:peso,...}
+     * @return peso de cada operación
+     * @throws IllegalStateException si una operación o un peso no son válidos
+     */
+    static Map<OperacionCarga, Integer> leerMezcla(String mezcla) {
+        Map<OperacionCarga, Integer> pesos = new EnumMap<>(OperacionCarga.class);
+        for (String parte : mezcla.split(",")) {
+            String[] claveYPeso = parte.split(":");
+            if (claveYPeso.length != 2) {
+                throw new IllegalStateException("Formato inválido en carga.mezcla (operacion:peso): " + parte);
+            }
+            try {
+                int peso = Integer.parseInt(claveYPeso[1].trim());
+                if (peso > 0) {
+                    pesos.put(OperacionCarga.desdeClave(claveYPeso[0]), peso);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Peso inválido en carga.mezcla: " + parte, e);
+            }
+        }
+        return pesos;
+    }
+
+    /**
+     * Ejecuta una corrida con {@code clientes} clientes concurrentes:
+     * {@code calentamientoSeg} segundos sin medir y {@code duracionSeg}
+     * segundos medidos. Imprime el reporte al terminar.
+     *
+     * @param clientes clientes concurrentes (operaciones en curso como máximo)
+     * @param calentamientoSeg segundos de calentamiento
+     * @param duracionSeg segundos medidos
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public void correr(int clientes, long calentamientoSeg, long duracionSeg) throws InterruptedException {
+        if (clientes <= 0) {
+            throw new IllegalArgumentException("La cantidad de clientes debe ser mayor a 0");
+        }
+        detenido = false;
+        descartadas.reset();
+        medicion = nuevaMedicion();
+        ExecutorService ejecutor = crearEjecutor(clientes);
+        Thread arribos = lazoAbierto ? iniciarArribos(ejecutor, new Semaphore(clientes)) : null;
+        if (!lazoAbierto) {
+            for (int i = 0; i < clientes; i++) {
+                ejecutor.execute(this::cliente);
+            }
+        }
+
+        TimeUnit.SECONDS.sleep(calentamientoSeg);
+        Map<String, RetryStats> reintentosAntes = pedidoService.estadisticasReintentos();
+        medicion = nuevaMedicion();
+        long inicio = System.nanoTime();
+        TimeUnit.SECONDS.sleep(duracionSeg);
+        detenido = true;
+        long nanos = System.nanoTime() - inicio;
+        Map<OperacionCarga, EstadisticasOperacion> medida = medicion;
+
+        if (arribos != null) {
+            arribos.join();
+        }
+        ejecutor.shutdown();
+        if (!ejecutor.awaitTermination(ESPERA_CIERRE_SEG, TimeUnit.SECONDS)) {
+            ejecutor.shutdownNow();
+        }
+        imprimirReporte(clientes, nanos, medida, reintentosAntes, pedidoService.estadisticasReintentos());
+    }
+
+    private ExecutorService crearEjecutor(int clientes) {
+        if (hilosVirtuales) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cliente-carga-", 0).factory());
+        }
+        AtomicInteger numero = new AtomicInteger();
+        return Executors.newFixedThreadPool(clientes, r -> {
+            Thread t = new Thread(r, "cliente-carga-" + numero.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Lazo cerrado: un cliente ejecuta operaciones una detrás de otra hasta
+     * que termina la corrida.
+     */
+    private void cliente() {
+        while (!detenido) {
+            medir(elegirOperacion(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Lazo abierto: un hilo programa una operación cada {@code 1 / tasa}
+     * segundos. Cada operación espera un cupo (hay tantos como clientes) y
+     * su latencia se cuenta desde el instante programado, no desde que
+     * consiguió el cupo, para no ocultar la espera cuando el sistema se
+     * satura.
+     */
+    private Thread iniciarArribos(ExecutorService ejecutor, Semaphore cupos) {
+        long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / tasa);
+        return Thread.ofPlatform().name("arribos-carga").start(() -> {
+            long proxima = System.nanoTime();
+            while (!detenido) {
+                long espera = proxima - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                    continue;
+                }
+                long programada = proxima;
+                OperacionCarga operacion = elegirOperacion();
+                ejecutor.execute(() -> {
+                    cupos.acquireUninterruptibly();
+                    try {
+                        if (detenido) {
+                            descartadas.increment();
+                            return;
+                        }
+                        medir(operacion, programada);
+                    } finally {
+                        cupos.release();
+                    }
+                });
+                proxima += intervalo;
+            }
+        });
+    }
+
+    private void medir(OperacionCarga operacion, long inicio) {
+        Map<OperacionCarga, EstadisticasOperacion> actual = medicion;
+        try {
+            ejecutar(operacion);
+            if (!detenido) {
+                actual.get(operacion).registrarExito(System.nanoTime() - inicio);
+            }
+        } catch (Exception e) {
+            if (!detenido) {
+                actual.get(operacion).registrarError(e);
+            }
+        }
+    }
+
+    private void ejecutar(OperacionCarga operacion) throws Exception {
+        switch (operacion) {
+            case CREAR -> {
+                // La variante asíncrona no imprime por consola y, con el
+                // commit agrupado activo, encola igual que la sincrónica
+                Pedido pedido = nuevoPedido("CARGA-" + altas.incrementAndGet(), envioService.generarTracking());
+                pedidoService.crearPedidoConEnvioAsync(pedido, pedido.getEnvio()).get();
+            }
+            case ACTUALIZAR_ESTADO -> {
+                EstadoDeEnvio[] estados = EstadoDeEnvio.values();
+                pedidoService.actualizarEstadoEnvio(Math.toIntExact(pedidoAlAzar().getId()),
+                        estados[ThreadLocalRandom.current().nextInt(estados.length)]);
+            }
+            case BUSCAR_NUMERO -> pedidoService.buscarPorNumero(pedidoAlAzar().getNumero());
+            case BUSCAR_TRACKING -> envioService.buscarEnvioPorTracking(pedidoAlAzar().getEnvio().getTracking());
+        }
+    }
+
+    private OperacionCarga elegirOperacion() {
+        int sorteo = ThreadLocalRandom.current().nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (sorteo < pesosAcumulados[i]) {
+                return operaciones[i];
+            }
+        }
+        return operaciones[operaciones.length - 1];
+    }
+
+    private Pedido pedidoAlAzar() {
+        return muestra.get(ThreadLocalRandom.current().nextInt(muestra.size()));
+    }
+
+    private static Pedido nuevoPedido(String numero, String tracking) {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        LocalDate hoy = LocalDate.now();
+        Envio envio = new Envio(null, tracking,
+                EmpresaDeEnvio.values()[azar.nextInt(EmpresaDeEnvio.values().length)],
+                TipoDeEnvio.values()[azar.nextInt(TipoDeEnvio.values().length)],
+                10 + azar.nextInt(90), hoy, hoy.plusDays(3), EstadoDeEnvio.EN_PREPARACION);
+        return new Pedido(null, numero, hoy, "cliente-carga-" + azar.nextInt(1_000),
+                EstadoDePedido.NUEVO, envio, 100 + azar.nextInt(900));
+    }
+
+    private Map<OperacionCarga, EstadisticasOperacion> nuevaMedicion() {
+        Map<OperacionCarga, EstadisticasOperacion> nueva = new EnumMap<>(OperacionCarga.class);
+        for (OperacionCarga operacion : operaciones) {
+            nueva.put(operacion, new EstadisticasOperacion());
+        }
+        return nueva;
+    }
+
+    private void imprimirReporte(int clientes, long nanos, Map<OperacionCarga, EstadisticasOperacion> medida,
+            Map<String, RetryStats> reintentosAntes, Map<String, RetryStats> reintentosDespues) {
+        double segundos = nanos / 1e9;
+        System.out.printf("%n=== %d clientes, lazo %s%s, hilos %s, %.0f s medidos ===%n", clientes,
+                lazoAbierto ? "abierto" : "cerrado", lazoAbierto ? String.format(" (%.0f ops/s)", tasa) : "",
+                hilosVirtuales ? "virtuales" : "de plataforma", segundos);
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s %8s%n",
+                "Operación", "ops", "ops/s", "p50 ms", "p99 ms", "p999 ms", "máx ms", "errores");
+
+        long totalOps = 0;
+        long rollbacks = 0;
+        for (Map.Entry<OperacionCarga, EstadisticasOperacion> entrada : medida.entrySet()) {
+            HistogramaLatencias latencias = entrada.getValue().getLatencias();
+            long ops = latencias.total();
+            long errores = entrada.getValue().totalErrores();
+            totalOps += ops;
+            if (entrada.getKey().isTransaccional()) {
+                rollbacks += errores;
+            }
+            System.out.printf("%-10s %10d %10.1f", entrada.getKey().getClave(), ops, ops / segundos);
+            for (double percentil : PERCENTILES) {
+                System.out.printf(" %10.3f", latencias.percentil(percentil) / 1000.0);
+            }
+            System.out.printf(" %10.3f %8d%n", latencias.maximo() / 1000.0, errores);
+        }
+        System.out.printf("%-10s %10d %10.1f%n", "total", totalOps, totalOps / segundos);
+
+        for (Map.Entry<OperacionCarga, EstadisticasOperacion> entrada : medida.entrySet()) {
+            entrada.getValue().erroresPorCausa().forEach((causa, cantidad) ->
+                    System.out.printf("  error %s: %s x%d%n", entrada.getKey().getClave(), causa, cantidad));
+        }
+
+        long reintentos = 0;
+        for (Map.Entry<String, RetryStats> entrada : reintentosDespues.entrySet()) {
+            RetryStats antes = reintentosAntes.getOrDefault(entrada.getKey(), new RetryStats(0, 0, 0, 0));
+            long delta = entrada.getValue().retries() - antes.retries();
+            if (delta > 0) {
+                System.out.printf("  reintentos %s: %d (recuperadas %d, agotadas %d)%n", entrada.getKey(), delta,
+                        entrada.getValue().recovered() - antes.recovered(),
+                        entrada.getValue().exhausted() - antes.exhausted());
+            }
+            reintentos += delta;
+        }
+        System.out.printf("Rollbacks: %d de operaciones fallidas, %d por deadlock o lock wait reintentados%n",
+                rollbacks, reintentos);
+        if (descartadas.sum() > 0) {
+            System.out.printf("Arribos sin atender al terminar (sistema saturado): %d%n", descartadas.sum());
+        }
+    }
+}
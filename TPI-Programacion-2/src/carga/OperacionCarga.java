@@ -0,0 +1,54 @@
+package carga;
+
+/**
+ * Operaciones que ejecuta el generador de carga, con la clave con la que se
+ * indican en la mezcla ({@code carga.mezcla}).
+ */
+public enum OperacionCarga {
+
+    /** {@code PedidoService.crearPedidoConEnvio}: alta transaccional de pedido y envío. */
+    CREAR("crear", true),
+    /** {@code PedidoService.actualizarEstadoEnvio}: lectura y actualización en una unidad de trabajo. */
+    ACTUALIZAR_ESTADO("estado", true),
+    /** {@code PedidoService.buscarPorNumero}. */
+    BUSCAR_NUMERO("numero", false),
+    /** {@code EnvioService.buscarEnvioPorTracking}. */
+    BUSCAR_TRACKING("tracking", false);
+
+    private final String clave;
+    private final boolean transaccional;
+
+    OperacionCarga(String clave, boolean transaccional) {
+        this.clave = clave;
+        this.transaccional = transaccional;
+    }
+
+    /**
+     * @return clave de la operación en {@code carga.mezcla}
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    /**
+     * @return {@code true} si la operación escribe en una transacción (sus
+     * errores terminan en rollback)
+     */
+    public boolean isTransaccional() {
+        return transaccional;
+    }
+
+    /**
+     * @param clave clave de la operación
+     * @return operación correspondiente
+     * @throws IllegalStateException si la clave no es reconocida
+     */
+    public static OperacionCarga desdeClave(String clave) {
+        for (OperacionCarga operacion : values()) {
+            if (operacion.clave.equalsIgnoreCase(clave.trim())) {
+                return operacion;
+            }
+        }
+        throw new IllegalStateException("Operación desconocida en carga.mezcla: " + clave);
+    }
+}
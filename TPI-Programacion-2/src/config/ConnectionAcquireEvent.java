@@ -0,0 +1,28 @@
+package config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder para la obtención de una conexión del
+ * proveedor real (la espera por el pool, o la conexión nueva en modo
+ * {@code drivermanager}). Las conexiones de una unidad de trabajo de
+ * {@link TransactionContext} se obtienen una sola vez, al abrirla.
+ */
+@Name("tpi.db.ConnectionAcquire")
+@Label("Obtención de conexión")
+@Category({"TPI", "Base de datos"})
+@Description("Tiempo hasta obtener una conexión JDBC")
+class ConnectionAcquireEvent extends Event {
+
+    @Label("Sólo lectura")
+    @Description("Conexión pedida para una lectura (puede ir a una réplica)")
+    boolean readOnly;
+
+    @Label("Resultado")
+    @Description("ok, o error con su SQLState y código")
+    String outcome;
+}
@@ -0,0 +1,135 @@
+package config;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Abstracción del origen de conexiones JDBC. <br>
+ *
+ * Los DAOs y servicios reciben una instancia por constructor y nunca
+ * conocen si detrás hay un pool ({@link DatabaseConnectionPool}) o una
+ * conexión nueva por pedido ({@link DatabaseConnection}). Quien obtiene una
+ * conexión es responsable de cerrarla (idealmente con try-with-resources);
+ * en el caso del pool, cerrarla la devuelve al pool.
+ */
+public interface ConnectionProvider extends AutoCloseable {
+
+    /**
+     * Obtiene una conexión lista para usar.
+     *
+     * @return conexión abierta
+     * @throws SQLException si no se puede obtener la conexión
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Obtiene una conexión para una lectura que tolera datos con un pequeño
+     * retraso (listados, búsquedas, reportes). Un proveedor con réplicas
+     * ({@link ReadWriteRoutingProvider}) la toma de una réplica; por defecto
+     * es una conexión común. Sólo debe usarse para consultas.
+     *
+     * @return conexión abierta, posiblemente a una réplica de lectura
+     * @throws SQLException si no se puede obtener la conexión
+     */
+    default Connection getReadOnlyConnection() throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Libera los recursos del proveedor (por ejemplo, cierra el pool).
+     * Por defecto no hace nada.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Crea el proveedor indicado por {@code db.pool.mode}: {@code hikari}
+     * (por defecto) o {@code drivermanager} como modo alternativo sin pool.
+     * Si {@code db.replicas.urls} lista réplicas de lectura, el primario y
+     * las réplicas se combinan en un {@link ReadWriteRoutingProvider}.
+     * Con {@code db.slowlog.enabled=true}, las sentencias más lentas que
+     * {@code db.slowlog.thresholdMs} se registran en un archivo
+     * ({@link SlowQueryLogProvider}). Con {@code db.jfr.enabled=true} (por
+     * defecto) la obtención de conexiones y las sentencias emiten eventos de
+     * Java Flight Recorder ({@link JfrConnectionProvider}).
+     * El proveedor se devuelve envuelto en un {@link TransactionContext}, para
+     * que los DAOs construidos con él se sumen a la unidad de trabajo del
+     * hilo cuando la hay.
+     *
+     * @param config configuración de la base de datos
+     * @return proveedor de conexiones configurado
+     * @throws IllegalStateException si el modo no es reconocido
+     */
+    static ConnectionProvider fromConfig(DatabaseConfig config) {
+        return fromConfig(config, null);
+    }
+
+    /**
+     * Igual que {@link #fromConfig(DatabaseConfig)}, pero informa a
+     * {@code waitListener} cuánto tardó cada conexión en obtenerse. La
+     * medición se hace por debajo del {@link TransactionContext}: dentro de
+     * una unidad de trabajo sólo cuenta la conexión que abre la unidad.
+     *
+     * @param config configuración de la base de datos
+     * @param waitListener receptor de la espera en nanosegundos, o {@code null} para no medir
+     * @return proveedor de conexiones configurado
+     * @throws IllegalStateException si el modo no es reconocido
+     */
+    static ConnectionProvider fromConfig(DatabaseConfig config, LongConsumer waitListener) {
+        ConnectionProvider primary = create(config, config.getUrl(), "pedidos-pool", false);
+        List<String> replicaUrls = config.getReplicaUrls();
+        ConnectionProvider provider = primary;
+        if (!replicaUrls.isEmpty()) {
+            List<ConnectionProvider> replicas = new ArrayList<>();
+            for (int i = 0; i < replicaUrls.size(); i++) {
+                replicas.add(create(config, replicaUrls.get(i), "pedidos-replica-" + i, true));
+            }
+            provider = new ReadWriteRoutingProvider(primary, replicas,
+                    config.getString("db.replicas.strategy", "leastbusy"),
+                    config.getLong("db.replicas.healthCheckMs", 5_000));
+        }
+        if (config.getBoolean("db.jfr.enabled", true)) {
+            provider = new JfrConnectionProvider(provider);
+        }
+        if (config.getBoolean("db.slowlog.enabled", false)) {
+            provider = createSlowQueryLog(config, provider);
+        }
+        if (waitListener != null) {
+            provider = new TimedConnectionProvider(provider, waitListener);
+        }
+        return new TransactionContext(provider);
+    }
+
+    private static ConnectionProvider createSlowQueryLog(DatabaseConfig config, ConnectionProvider provider) {
+        String file = config.getString("db.slowlog.file", "logs/consultas-lentas.%g.log");
+        try {
+            SlowQueryLog log = new SlowQueryLog(file,
+                    config.getInt("db.slowlog.maxBytes", 10 * 1024 * 1024),
+                    config.getInt("db.slowlog.files", 5),
+                    config.getInt("db.slowlog.queueSize", 10_000));
+            return new SlowQueryLogProvider(provider, log, config.getLong("db.slowlog.thresholdMs", 500),
+                    config.getBoolean("db.slowlog.maskParams", false));
+        } catch (IOException e) {
+            provider.close();
+            throw new IllegalStateException("No se pudo abrir el registro de consultas lentas (db.slowlog.file): "
+                    + file, e);
+        }
+    }
+
+    private static ConnectionProvider create(DatabaseConfig config, String url, String poolName, boolean readOnly) {
+        String mode = config.getPoolMode().toLowerCase();
+        switch (mode) {
+            case "hikari":
+                return new DatabaseConnectionPool(config, url, poolName, readOnly);
+            case "drivermanager":
+                return new DatabaseConnection(config, url);
+            default:
+                throw new IllegalStateException("Modo de conexión desconocido (db.pool.mode): " + mode);
+        }
+    }
+}
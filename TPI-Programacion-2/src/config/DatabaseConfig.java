@@ -0,0 +1,153 @@
+package config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+/**
+ * Configuración de acceso a la base de datos. <br>
+ *
+ * Centraliza la lectura del archivo {@code database.properties} (cargado
+ * desde el classpath mediante {@link ResourceBundle}) para que ni
+ * {@link DatabaseConnection} ni {@link DatabaseConnectionPool} tengan valores
+ * hardcodeados. Cualquier clave puede sobrescribirse con una propiedad del
+ * sistema del mismo nombre, por ejemplo {@code -Ddb.url=...}.
+ *
+ * Claves reconocidas (con su valor por defecto):
+ * <ul>
+ *   <li>{@code db.url}, {@code db.user}, {@code db.password}: obligatorias</li>
+ *   <li>{@code db.pool.mode}: {@code hikari} (pool) o {@code drivermanager}; por defecto {@code hikari}</li>
+ *   <li>{@code db.pool.maxSize}: tamaño máximo del pool; por defecto 10</li>
+ *   <li>{@code db.pool.minIdle}: conexiones ociosas mínimas; por defecto igual a maxSize</li>
+ *   <li>{@code db.pool.connectionTimeoutMs}: espera máxima por una conexión; por defecto 30000</li>
+ *   <li>{@code db.pool.idleTimeoutMs}: tiempo antes de cerrar una conexión ociosa; por defecto 600000</li>
+ *   <li>{@code db.pool.maxLifetimeMs}: vida máxima de una conexión; por defecto 1800000</li>
+ *   <li>{@code db.migrations.enabled}: aplica las migraciones del esquema al iniciar; por defecto {@code true}</li>
+ *   <li>{@code db.replicas.urls}: URLs JDBC de réplicas de lectura separadas por coma; por defecto ninguna</li>
+ *   <li>{@code db.replicas.strategy}: {@code leastbusy} o {@code roundrobin}; por defecto {@code leastbusy}</li>
+ *   <li>{@code db.replicas.healthCheckMs}: intervalo del chequeo de salud de las réplicas; por defecto 5000</li>
+ *   <li>{@code db.slowlog.enabled}: registra las sentencias lentas en un archivo; por defecto {@code false}</li>
+ *   <li>{@code db.slowlog.thresholdMs}: duración (ejecución más lectura) a partir de la cual se registra; por defecto 500</li>
+ *   <li>{@code db.slowlog.maskParams}: registra sólo el tipo de cada parámetro; por defecto {@code false}</li>
+ *   <li>{@code db.slowlog.file}: archivo, con {@code %g} para la rotación; por defecto {@code logs/consultas-lentas.%g.log}</li>
+ *   <li>{@code db.slowlog.maxBytes} y {@code db.slowlog.files}: tamaño de cada archivo y archivos conservados; por defecto 10 MB y 5</li>
+ *   <li>{@code db.slowlog.queueSize}: entradas pendientes de escribir antes de descartar; por defecto 10000</li>
+ *   <li>{@code db.jfr.enabled}: emite eventos de Java Flight Recorder por conexión y sentencia; por defecto {@code true}</li>
+ * </ul>
+ */
+public class DatabaseConfig {
+
+    /** Nombre base del archivo de propiedades dentro del classpath. */
+    private static final String BUNDLE_NAME = "config/database";
+
+    private final ResourceBundle bundle;
+
+    /**
+     * Carga la configuración desde {@code config/database.properties}.
+     *
+     * @throws IllegalStateException si el archivo no se encuentra en el classpath
+     */
+    public DatabaseConfig() {
+        try {
+            this.bundle = ResourceBundle.getBundle(BUNDLE_NAME);
+        } catch (MissingResourceException e) {
+            throw new IllegalStateException(
+                    "No se encontró config/database.properties (copiar database.properties.example)", e);
+        }
+    }
+
+    /**
+     * Devuelve el valor de una clave; primero consulta las propiedades del
+     * sistema y luego el archivo de configuración.
+     *
+     * @param key clave a buscar
+     * @param defaultValue valor a devolver si la clave no está definida
+     * @return valor configurado o {@code defaultValue}
+     */
+    public String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null && bundle.containsKey(key)) {
+            value = bundle.getString(key);
+        }
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Devuelve el valor entero de una clave.
+     *
+     * @param key clave a buscar
+     * @param defaultValue valor a devolver si la clave no está definida
+     * @return valor configurado o {@code defaultValue}
+     * @throws IllegalStateException si el valor no es un número válido
+     */
+    public int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    /**
+     * Devuelve el valor {@code long} de una clave.
+     *
+     * @param key clave a buscar
+     * @param defaultValue valor a devolver si la clave no está definida
+     * @return valor configurado o {@code defaultValue}
+     * @throws IllegalStateException si el valor no es un número válido
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Valor numérico inválido para " + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Devuelve el valor booleano de una clave.
+     *
+     * @param key clave a buscar
+     * @param defaultValue valor a devolver si la clave no está definida
+     * @return valor configurado o {@code defaultValue}
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    public String getUrl() {
+        return getString("db.url", null);
+    }
+
+    public String getUser() {
+        return getString("db.user", null);
+    }
+
+    public String getPassword() {
+        return getString("db.password", null);
+    }
+
+    /**
+     * @return URLs de las réplicas de lectura ({@code db.replicas.urls},
+     * separadas por coma), o una lista vacía si no hay réplicas
+     */
+    public List<String> getReplicaUrls() {
+        String value = getString("db.replicas.urls", null);
+        if (value == null) {
+            return List.of();
+        }
+        List<String> urls = new ArrayList<>();
+        for (String url : value.split(",")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+
+    public String getPoolMode() {
+        return getString("db.pool.mode", "hikari");
+    }
+}
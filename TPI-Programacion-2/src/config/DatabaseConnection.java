@@ -3,19 +3,15 @@ package config;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ResourceBundle;
 
-public class DatabaseConnection {
-
-    //  ResourceBundle permite leer archivos .properties sin necesidad de hardcodear valores
-    //  Carga automáticamente el archivo "database.properties" desde el classpath
-    //  Cargar el archivo de propiedades desde la carpeta config
-    private static final ResourceBundle config = ResourceBundle.getBundle("config/database");
-    
-    // Datos de conexión - Se configuran directamente en el código
-    private static final String URL = config.getString("db.url");
-    private static final String USER = config.getString("db.user"); 
-    private static final String PASSWORD = config.getString("db.password");
+/**
+ * Proveedor de conexiones basado en {@link DriverManager}. <br>
+ *
+ * Abre una conexión nueva (TCP + autenticación) en cada llamada. Se mantiene
+ * como modo alternativo ({@code db.pool.mode=drivermanager}) para entornos
+ * donde no se quiera usar el pool de {@link DatabaseConnectionPool}.
+ */
+public class DatabaseConnection implements ConnectionProvider {
 
     static {
         try {
@@ -27,16 +23,44 @@ public class DatabaseConnection {
         }
     }
 
+    // Datos de conexión - se leen de database.properties a través de DatabaseConfig
+    private final String url;
+    private final String user;
+    private final String password;
+
+    /**
+     * Crea el proveedor a partir de la configuración.
+     *
+     * @param config configuración de la base de datos
+     */
+    public DatabaseConnection(DatabaseConfig config) {
+        this(config, config.getUrl());
+    }
+
+    /**
+     * Crea el proveedor hacia la URL indicada (por ejemplo, una réplica de
+     * lectura) con el usuario y la contraseña de la configuración.
+     *
+     * @param config configuración de la base de datos
+     * @param url URL JDBC de la instancia
+     */
+    public DatabaseConnection(DatabaseConfig config, String url) {
+        this.url = url;
+        this.user = config.getUser();
+        this.password = config.getPassword();
+    }
+
     /**
      * Método para obtener una conexión a la base de datos.
      * @return Connection si la conexión es exitosa.
      * @throws SQLException Si hay un problema al conectarse.
      */
-    public static Connection getConnection() throws SQLException {
+    @Override
+    public Connection getConnection() throws SQLException {
         // Validación adicional para asegurarse de que las credenciales no estén vacías
-        if (URL == null || URL.isEmpty() || USER == null || USER.isEmpty() || PASSWORD == null || PASSWORD.isEmpty()) {
+        if (url == null || url.isEmpty() || user == null || user.isEmpty() || password == null || password.isEmpty()) {
             throw new SQLException("Configuración de la base de datos incompleta o inválida.");
         }
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return DriverManager.getConnection(url, user, password);
     }
-}
\ No newline at end of file
+}
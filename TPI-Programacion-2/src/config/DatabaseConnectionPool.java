@@ -3,22 +3,75 @@ package config;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
-import java.sql.SQLException; // ✅ Importación agregada
-
-public class DatabaseConnectionPool {
-    private static final HikariConfig config = new HikariConfig();
-    private static final HikariDataSource ds;
-
-    static {
-        config.setJdbcUrl("jdbc:mysql://localhost:3306/trabajo_final");
-        config.setUsername("root");
-        config.setPassword("1234");
-        config.setMaximumPoolSize(10); // 🔥 Máximo 10 conexiones simultáneas
-        ds = new HikariDataSource(config);
+import java.sql.SQLException;
+
+/**
+ * Proveedor de conexiones respaldado por un pool HikariCP. <br>
+ *
+ * Es el modo por defecto ({@code db.pool.mode=hikari}). Las conexiones se
+ * reutilizan entre pedidos, por lo que el costo de abrir la conexión TCP y
+ * autenticarse contra MySQL se paga una sola vez por conexión del pool.
+ * Todos los parámetros se leen de {@code database.properties} a través de
+ * {@link DatabaseConfig}.
+ */
+public class DatabaseConnectionPool implements ConnectionProvider {
+
+    private final HikariDataSource ds;
+
+    /**
+     * Crea e inicializa el pool a partir de la configuración.
+     *
+     * @param config configuración de la base de datos
+     */
+    public DatabaseConnectionPool(DatabaseConfig config) {
+        this(config, config.getUrl(), "pedidos-pool", false);
     }
 
-    public static Connection getConnection() throws SQLException {
+    /**
+     * Crea un pool hacia la URL indicada (por ejemplo, una réplica de
+     * lectura) con el resto de los parámetros de la configuración.
+     *
+     * @param config configuración de la base de datos
+     * @param url URL JDBC de la instancia
+     * @param poolName nombre del pool (aparece en logs y nombres de hilos)
+     * @param readOnly {@code true} para marcar las conexiones como de sólo lectura
+     */
+    public DatabaseConnectionPool(DatabaseConfig config, String url, String poolName, boolean readOnly) {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(poolName);
+        hikari.setJdbcUrl(url);
+        hikari.setUsername(config.getUser());
+        hikari.setPassword(config.getPassword());
+        hikari.setReadOnly(readOnly);
+
+        int maxSize = config.getInt("db.pool.maxSize", 10);
+        hikari.setMaximumPoolSize(maxSize);
+        hikari.setMinimumIdle(config.getInt("db.pool.minIdle", maxSize));
+        hikari.setConnectionTimeout(config.getLong("db.pool.connectionTimeoutMs", 30_000));
+        hikari.setIdleTimeout(config.getLong("db.pool.idleTimeoutMs", 600_000));
+        hikari.setMaxLifetime(config.getLong("db.pool.maxLifetimeMs", 1_800_000));
+
+        // Cache de PreparedStatements del lado del driver (Connector/J)
+        hikari.addDataSourceProperty("cachePrepStmts", "true");
+        hikari.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikari.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        hikari.addDataSourceProperty("useServerPrepStmts", "true");
+        // Reescribe los lotes de addBatch() como INSERT multi-fila (ver GenericDAO.saveAll)
+        hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+        this.ds = new HikariDataSource(hikari);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
         return ds.getConnection(); // 🔄 Obtiene una conexión del pool
     }
-}
 
+    /**
+     * Cierra el pool y todas sus conexiones físicas.
+     */
+    @Override
+    public void close() {
+        ds.close();
+    }
+}
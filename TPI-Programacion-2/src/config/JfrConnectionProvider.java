@@ -0,0 +1,216 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import jdk.jfr.EventType;
+
+/**
+ * {@link ConnectionProvider} que emite eventos de Java Flight Recorder: un
+ * {@link ConnectionAcquireEvent} por cada conexión obtenida y un
+ * {@link StatementEvent} por cada ejecución de sentencia. Así una grabación
+ * de JFR muestra el tiempo en la base de datos en la misma línea de tiempo
+ * que la recolección de basura y los hilos bloqueados. <br>
+ *
+ * Si al pedir la conexión los eventos de sentencia no están habilitados (no
+ * hay una grabación que los incluya), la conexión se entrega sin envolver:
+ * con la grabación apagada el costo es el de crear y descartar un evento
+ * por conexión. Las conexiones obtenidas antes de empezar una grabación no
+ * emiten eventos de sentencia, lo que con conexiones de vida corta (una por
+ * operación) se nota sólo en las primeras operaciones. <br>
+ *
+ * Envuelve al proveedor real por debajo del {@link TransactionContext}: las
+ * sentencias de las unidades de trabajo también se registran, y la
+ * obtención de conexión se registra una vez por unidad. Se activa con
+ * {@code db.jfr.enabled=true} (por defecto).
+ */
+public class JfrConnectionProvider implements ConnectionProvider {
+
+    private static final EventType STATEMENT_EVENTS = EventType.getEventType(StatementEvent.class);
+
+    private final ConnectionProvider delegate;
+
+    /**
+     * @param delegate proveedor de las conexiones reales
+     */
+    public JfrConnectionProvider(ConnectionProvider delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return acquire(false);
+    }
+
+    @Override
+    public Connection getReadOnlyConnection() throws SQLException {
+        return acquire(true);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private Connection acquire(boolean readOnly) throws SQLException {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        Connection connection;
+        try {
+            connection = readOnly ? delegate.getReadOnlyConnection() : delegate.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            commit(event, readOnly, e);
+            throw e;
+        }
+        commit(event, readOnly, null);
+        return STATEMENT_EVENTS.isEnabled() ? wrap(connection) : connection;
+    }
+
+    private static void commit(ConnectionAcquireEvent event, boolean readOnly, Throwable error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.readOnly = readOnly;
+            event.outcome = JfrEvents.outcome(error);
+            event.commit();
+        }
+    }
+
+    private static Connection wrap(Connection connection) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler(invoke(connection, method, args), null));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class,
+                            new StatementHandler(invoke(connection, method, args), (String) args[0]));
+                case "prepareCall":
+                    return proxy(CallableStatement.class,
+                            new StatementHandler(invoke(connection, method, args), (String) args[0]));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invoke(connection, method, args);
+            }
+        };
+        return proxy(Connection.class, handler);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sentencia que emite un evento por cada {@code execute*}. El SQL es el
+     * de la sentencia preparada, o el argumento de la ejecución en un
+     * {@link Statement} simple.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String sql;
+        private int batchSize;
+
+        StatementHandler(Object target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (name.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+                    break;
+            }
+            return JfrConnectionProvider.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            boolean batch = method.getName().endsWith("Batch");
+            int batchRows = batch ? batchSize : 0;
+            if (batch) {
+                batchSize = 0;
+            }
+            StatementEvent event = new StatementEvent();
+            event.begin();
+            Object result;
+            try {
+                result = JfrConnectionProvider.invoke(target, method, args);
+            } catch (Throwable t) {
+                commit(event, args, batchRows, null, t);
+                throw t;
+            }
+            commit(event, args, batchRows, result, null);
+            return result;
+        }
+
+        private void commit(StatementEvent event, Object[] args, int batchRows, Object result, Throwable error) {
+            event.end();
+            if (!event.shouldCommit()) {
+                return;
+            }
+            String text = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            if (text != null) {
+                event.sql = text;
+                event.sqlKind = JfrEvents.sqlKind(text);
+                event.table = JfrEvents.table(text);
+            }
+            event.rows = rows(result);
+            event.batchSize = batchRows;
+            event.outcome = JfrEvents.outcome(error);
+            event.commit();
+        }
+
+        private static long rows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(count, 0);
+            }
+            if (result instanceof Long count) {
+                return Math.max(count, 0);
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package config;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Utilidades compartidas por los eventos de Java Flight Recorder de la capa
+ * de acceso a datos ({@link TransactionEvent}, {@link ConnectionAcquireEvent},
+ * {@link StatementEvent}). Sólo se llaman cuando un evento va a grabarse.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    /**
+     * @param error error de la operación, o {@code null}
+     * @return {@code ok}, o {@code error <SQLState>/<código>} para un
+     * {@link SQLException} y {@code error <Clase>} para el resto
+     */
+    static String outcome(Throwable error) {
+        if (error == null) {
+            return "ok";
+        }
+        if (error instanceof SQLException sql) {
+            return "error " + sql.getSQLState() + "/" + sql.getErrorCode();
+        }
+        return "error " + error.getClass().getSimpleName();
+    }
+
+    /**
+     * @param sql sentencia
+     * @return primera palabra en mayúsculas si es una de las conocidas, u {@code OTHER}
+     */
+    static String sqlKind(String sql) {
+        String first = word(sql, 0).toUpperCase(Locale.ROOT);
+        switch (first) {
+            case "SELECT", "INSERT", "UPDATE", "DELETE", "CALL":
+                return first;
+            case "WITH":
+                return "SELECT";
+            default:
+                return "OTHER";
+        }
+    }
+
+    /**
+     * Tabla principal de la sentencia: la que sigue a {@code FROM} en una
+     * consulta o un borrado, a {@code INTO} en una inserción, a
+     * {@code UPDATE} o a {@code CALL}. No interpreta subconsultas ni joins.
+     *
+     * @param sql sentencia
+     * @return nombre de la tabla o procedimiento, o {@code null} si no se encuentra
+     */
+    static String table(String sql) {
+        String kind = sqlKind(sql);
+        String upper = sql.toUpperCase(Locale.ROOT);
+        int from;
+        switch (kind) {
+            case "INSERT":
+                from = keyword(upper, "INTO");
+                break;
+            case "UPDATE":
+            case "CALL":
+                from = keyword(upper, kind);
+                break;
+            case "SELECT":
+            case "DELETE":
+                from = keyword(upper, "FROM");
+                break;
+            default:
+                return null;
+        }
+        if (from < 0) {
+            return null;
+        }
+        String name = word(sql, from);
+        int paren = name.indexOf('(');
+        if (paren >= 0) {
+            name = name.substring(0, paren);
+        }
+        name = name.replace("`", "");
+        return name.isEmpty() ? null : name;
+    }
+
+    /** Posición siguiente a la primera aparición de {@code keyword} como palabra suelta, o -1. */
+    private static int keyword(String upper, String keyword) {
+        int index = upper.indexOf(keyword);
+        while (index >= 0) {
+            int end = index + keyword.length();
+            boolean start = index == 0 || !Character.isLetterOrDigit(upper.charAt(index - 1));
+            boolean finish = end == upper.length() || Character.isWhitespace(upper.charAt(end));
+            if (start && finish) {
+                return end;
+            }
+            index = upper.indexOf(keyword, end);
+        }
+        return -1;
+    }
+
+    /** Palabra (hasta un espacio, coma o punto y coma) a partir de {@code from}, sin los espacios previos. */
+    private static String word(String sql, int from) {
+        int start = from;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '{')) {
+            start++;
+        }
+        int end = start;
+        while (end < sql.length() && !Character.isWhitespace(sql.charAt(end))
+                && sql.charAt(end) != ',' && sql.charAt(end) != ';') {
+            end++;
+        }
+        return sql.substring(start, end);
+    }
+}
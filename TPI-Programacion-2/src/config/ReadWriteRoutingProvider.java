@@ -0,0 +1,214 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ConnectionProvider} que separa lecturas y escrituras entre un
+ * primario y N réplicas de lectura. <br>
+ *
+ * {@link #getConnection()} siempre devuelve una conexión al primario: las
+ * escrituras, las transacciones de {@link TransactionManager} y las
+ * unidades de trabajo de {@link TransactionContext} (incluidas sus
+ * lecturas) van ahí. {@link #getReadOnlyConnection()}, que los DAOs usan
+ * para listados, búsquedas y reportes, elige una réplica sana:
+ * <ul>
+ *   <li>{@code leastbusy} (por defecto): la réplica con menos conexiones en
+ *       uso por esta aplicación; los empates se reparten en ronda.</li>
+ *   <li>{@code roundrobin}: las réplicas en ronda.</li>
+ * </ul>
+ *
+ * Un hilo de fondo valida cada réplica periódicamente
+ * ({@link Connection#isValid(int)}). Una réplica que falla al entregar una
+ * conexión o al validarse se saca de la ronda hasta que un chequeo
+ * posterior la encuentre sana. Si no queda ninguna réplica sana, las
+ * lecturas van al primario. <br>
+ *
+ * Las réplicas pueden ir levemente atrasadas respecto del primario: una
+ * lectura justo después de una escritura puede no verla todavía. Las
+ * operaciones que necesitan leer lo que acaban de escribir deben hacerlo
+ * dentro de una unidad de trabajo.
+ */
+public class ReadWriteRoutingProvider implements ConnectionProvider {
+
+    /** Segundos de espera de cada validación de réplica. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** Una réplica con su estado de salud y sus conexiones en uso. */
+    private static final class Replica {
+
+        final ConnectionProvider provider;
+        final String name;
+        final AtomicInteger inUse = new AtomicInteger();
+        volatile boolean healthy = true;
+
+        Replica(ConnectionProvider provider, String name) {
+            this.provider = provider;
+            this.name = name;
+        }
+    }
+
+    private final ConnectionProvider primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final boolean leastBusy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primary proveedor de conexiones al primario
+     * @param replicas proveedores de conexiones a las réplicas de lectura
+     * @param strategy {@code leastbusy} o {@code roundrobin}
+     * @param healthCheckMillis intervalo del chequeo de salud (0 = sin chequeo periódico)
+     * @throws IllegalStateException si la estrategia no es reconocida
+     */
+    public ReadWriteRoutingProvider(ConnectionProvider primary, List<ConnectionProvider> replicas,
+            String strategy, long healthCheckMillis) {
+        if (primary == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica(replicas.get(i), "replica-" + i));
+        }
+        switch (strategy.toLowerCase()) {
+            case "leastbusy" -> this.leastBusy = true;
+            case "roundrobin" -> this.leastBusy = false;
+            default -> throw new IllegalStateException("Estrategia de réplicas desconocida (db.replicas.strategy): "
+                    + strategy);
+        }
+
+        if (healthCheckMillis > 0 && !this.replicas.isEmpty()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "chequeo-replicas");
+                t.setDaemon(true);
+                return t;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, healthCheckMillis, healthCheckMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            healthChecker = null;
+        }
+    }
+
+    /**
+     * @return conexión al primario
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    /**
+     * @return conexión a una réplica sana, o al primario si no hay ninguna
+     */
+    @Override
+    public Connection getReadOnlyConnection() throws SQLException {
+        for (int tries = 0; tries < replicas.size(); tries++) {
+            Replica replica = choose();
+            if (replica == null) {
+                break;
+            }
+            replica.inUse.incrementAndGet();
+            try {
+                return tracked(replica, replica.provider.getConnection());
+            } catch (SQLException e) {
+                replica.inUse.decrementAndGet();
+                markDown(replica, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Detiene el chequeo de salud y cierra las réplicas y el primario.
+     */
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.provider.close();
+        }
+        primary.close();
+    }
+
+    /**
+     * Elige la próxima réplica sana según la estrategia, empezando la
+     * búsqueda en la posición de la ronda.
+     */
+    private Replica choose() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        Replica chosen = null;
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (!candidate.healthy) {
+                continue;
+            }
+            if (!leastBusy) {
+                return candidate;
+            }
+            if (chosen == null || candidate.inUse.get() < chosen.inUse.get()) {
+                chosen = candidate;
+            }
+        }
+        return chosen;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.provider.getConnection()) {
+                boolean valid = conn.isValid(VALIDATION_TIMEOUT_SECONDS);
+                if (valid && !replica.healthy) {
+                    System.err.println("Réplica de lectura " + replica.name + " disponible nuevamente");
+                }
+                replica.healthy = valid;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private static void markDown(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            System.err.println("Réplica de lectura " + replica.name + " fuera de servicio: " + e.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    /**
+     * Envuelve la conexión de una réplica para descontarla de las conexiones
+     * en uso cuando se cierra (una sola vez).
+     */
+    private static Connection tracked(Replica replica, Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                replica.inUse.decrementAndGet();
+            }
+            return invoke(connection, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
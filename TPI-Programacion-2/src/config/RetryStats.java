@@ -0,0 +1,19 @@
+package config;
+
+/**
+ * Foto de los contadores de reintentos de una operación de
+ * {@link TransactionExecutor}.
+ *
+ * @param executions ejecuciones de la operación (sin contar reintentos)
+ * @param retries reintentos hechos por errores transitorios
+ * @param recovered ejecuciones que terminaron bien después de reintentar
+ * @param exhausted ejecuciones que fallaron por agotar los intentos
+ */
+public record RetryStats(long executions, long retries, long recovered, long exhausted) {
+
+    @Override
+    public String toString() {
+        return String.format("ejecuciones=%d reintentos=%d recuperadas=%d agotadas=%d",
+                executions, retries, recovered, exhausted);
+    }
+}
@@ -0,0 +1,178 @@
+package config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Archivo de consultas lentas escrito de forma asíncrona. <br>
+ *
+ * {@link #log(Entry)} sólo encola la entrada: el formateo y la escritura
+ * los hace un hilo de fondo ({@code registro-consultas-lentas}), así que el
+ * hilo que ejecutó la consulta no espera al disco. Si la cola se llena, las
+ * entradas nuevas se descartan y se cuentan. <br>
+ *
+ * El archivo rota por tamaño con un {@link FileHandler}: {@code pattern}
+ * admite {@code %g} para el número de generación (por ejemplo
+ * {@code logs/consultas-lentas.%g.log}) y se conservan {@code files}
+ * archivos de hasta {@code maxBytes} bytes.
+ */
+public class SlowQueryLog implements AutoCloseable {
+
+    /** Caracteres máximos de cada valor de parámetro en el archivo. */
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    /**
+     * Una ejecución lenta.
+     *
+     * @param timestampMillis momento en que terminó
+     * @param sql sentencia tal como se preparó
+     * @param params parámetros ya convertidos a texto (o enmascarados)
+     * @param rows filas leídas, o afectadas en una escritura
+     * @param executeNanos tiempo de la ejecución
+     * @param fetchNanos tiempo leyendo filas ({@code ResultSet.next()})
+     * @param caller método de servicio y de DAO que la originaron
+     * @param error mensaje de error si falló, o {@code null}
+     */
+    public record Entry(long timestampMillis, String sql, String params, long rows, long executeNanos,
+            long fetchNanos, String caller, String error) {
+    }
+
+    /** Marca que le indica al escritor que termine. */
+    private static final Entry END = new Entry(0, null, null, 0, 0, 0, null, null);
+
+    private final BlockingQueue<Entry> queue;
+    private final FileHandler handler;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param pattern ruta del archivo, con {@code %g} para la generación
+     * @param maxBytes tamaño máximo de cada archivo antes de rotar
+     * @param files cantidad de archivos que se conservan
+     * @param capacity entradas pendientes máximas
+     * @throws IOException si no se puede crear el archivo
+     */
+    public SlowQueryLog(String pattern, int maxBytes, int files, int capacity) throws IOException {
+        Path parent = Path.of(pattern).toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.handler = new FileHandler(pattern, maxBytes, files, true);
+        this.handler.setEncoding("UTF-8");
+        this.handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + System.lineSeparator();
+            }
+        });
+        this.writer = new Thread(this::write, "registro-consultas-lentas");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Encola una entrada; no bloquea.
+     *
+     * @param entry ejecución lenta
+     */
+    public void log(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @return entradas descartadas porque la cola estaba llena
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Convierte el valor de un parámetro a texto para el archivo.
+     *
+     * @param value valor enlazado a la sentencia
+     * @param mask {@code true} para mostrar sólo el tipo
+     * @return texto del valor
+     */
+    static String describe(Object value, boolean mask) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (mask) {
+            return "<" + value.getClass().getSimpleName() + ">";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return value instanceof CharSequence || value instanceof Enum<?> ? "'" + text + "'" : text;
+    }
+
+    /**
+     * Escribe las entradas pendientes y cierra el archivo. Espera a lo sumo
+     * unos segundos al escritor.
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(END);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.sum() > 0) {
+            handler.publish(new LogRecord(Level.WARNING,
+                    "Entradas descartadas por cola llena: " + dropped.sum()));
+        }
+        handler.close();
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                Entry entry = queue.take();
+                if (entry == END) {
+                    return;
+                }
+                handler.publish(new LogRecord(Level.WARNING, format(entry)));
+                if (queue.isEmpty()) {
+                    handler.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            handler.flush();
+        }
+    }
+
+    private static String format(Entry e) {
+        StringBuilder line = new StringBuilder()
+                .append(Instant.ofEpochMilli(e.timestampMillis()))
+                .append(String.format(" | %.1f ms (ejecución %.1f ms, lectura %.1f ms) | %d filas | ",
+                        (e.executeNanos() + e.fetchNanos()) / 1e6, e.executeNanos() / 1e6, e.fetchNanos() / 1e6,
+                        e.rows()))
+                .append(e.caller())
+                .append(" | ")
+                .append(e.sql().replaceAll("\\s+", " ").trim());
+        if (!e.params().isEmpty()) {
+            line.append(" | params ").append(e.params());
+        }
+        if (e.error() != null) {
+            line.append(" | error: ").append(e.error());
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,347 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * {@link ConnectionProvider} que registra en un {@link SlowQueryLog} las
+ * sentencias preparadas que tardan más que un umbral. <br>
+ *
+ * Las conexiones entregadas envuelven cada {@link PreparedStatement} (y
+ * {@link CallableStatement}) para recordar sus parámetros y cronometrar la
+ * ejecución; el {@link ResultSet} de una consulta cuenta las filas y el
+ * tiempo pasado en {@code next()}. Al cerrarse el resultado (o la sentencia
+ * si no hubo resultado), si ejecución más lectura superan el umbral se
+ * arma la entrada con el SQL, los parámetros (enmascarados si así se
+ * configuró), las filas, ambos tiempos y los métodos de servicio y de DAO
+ * que la originaron. Esa búsqueda en la pila se hace sólo para las
+ * sentencias lentas; la escritura al archivo, en otro hilo. <br>
+ *
+ * Envuelve al proveedor real por debajo del {@link TransactionContext}, así
+ * que cubre también las sentencias de las unidades de trabajo. Los lotes
+ * ({@code executeBatch}) se registran con la cantidad de filas del lote en
+ * lugar de sus parámetros.
+ */
+public class SlowQueryLogProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final SlowQueryLog log;
+    private final long thresholdNanos;
+    private final boolean maskParams;
+
+    /**
+     * @param delegate proveedor de las conexiones reales
+     * @param log archivo de consultas lentas (se cierra junto con el proveedor)
+     * @param thresholdMillis duración a partir de la cual una sentencia se registra
+     * @param maskParams {@code true} para registrar sólo el tipo de cada parámetro
+     */
+    public SlowQueryLogProvider(ConnectionProvider delegate, SlowQueryLog log, long thresholdMillis,
+            boolean maskParams) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        if (log == null) {
+            throw new IllegalArgumentException("SlowQueryLog no puede ser null");
+        }
+        this.delegate = delegate;
+        this.log = log;
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.maskParams = maskParams;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getReadOnlyConnection() throws SQLException {
+        return wrap(delegate.getReadOnlyConnection());
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            log.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, new StatementHandler(invoke(connection, method, args),
+                            (String) args[0]));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, new StatementHandler(invoke(connection, method, args),
+                            (String) args[0]));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invoke(connection, method, args);
+            }
+        };
+        return proxy(Connection.class, handler);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Describe el origen de la sentencia: el método de servicio y el de DAO
+     * más cercanos en la pila del hilo actual.
+     */
+    private static String caller() {
+        String[] found = StackWalker.getInstance().walk(frames -> {
+            String[] names = new String[2];
+            frames.forEach(frame -> {
+                int slot = frame.getClassName().startsWith("service.") ? 0
+                        : frame.getClassName().startsWith("dao.") ? 1 : -1;
+                if (slot >= 0 && names[slot] == null) {
+                    names[slot] = simpleName(frame.getClassName(), frame.getMethodName());
+                }
+            });
+            return names;
+        });
+        StringJoiner caller = new StringJoiner(" > ");
+        caller.setEmptyValue("(desconocido)");
+        if (found[0] != null) {
+            caller.add(found[0]);
+        }
+        if (found[1] != null) {
+            caller.add(found[1]);
+        }
+        return caller.toString();
+    }
+
+    /** {@code service.PedidoService}, {@code lambda$buscar$2} → {@code PedidoService.buscar}. */
+    private static String simpleName(String className, String methodName) {
+        String type = className.substring(className.lastIndexOf('.') + 1);
+        int nested = type.indexOf('$');
+        if (nested >= 0) {
+            type = type.substring(0, nested);
+        }
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', "lambda$".length());
+            methodName = methodName.substring("lambda$".length(), end > 0 ? end : methodName.length());
+        }
+        return type + "." + methodName;
+    }
+
+    /** Una ejecución de una sentencia, desde {@code execute*} hasta que se cierra su resultado. */
+    private final class Execution {
+
+        final String sql;
+        final Map<Object, Object> params;
+        final int batchSize;
+        final long executeNanos;
+        long fetchNanos;
+        long rows;
+        boolean finished;
+
+        Execution(String sql, Map<Object, Object> params, int batchSize, long executeNanos, long rows) {
+            this.sql = sql;
+            this.params = params;
+            this.batchSize = batchSize;
+            this.executeNanos = executeNanos;
+            this.rows = rows;
+        }
+
+        void finish(Throwable error) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (executeNanos + fetchNanos >= thresholdNanos) {
+                log.log(new SlowQueryLog.Entry(System.currentTimeMillis(), sql, describeParams(), rows,
+                        executeNanos, fetchNanos, caller(), error != null ? error.toString() : null));
+            }
+        }
+
+        /** Los parámetros se convierten a texto sólo si la sentencia resultó lenta. */
+        private String describeParams() {
+            if (batchSize > 0) {
+                return "lote de " + batchSize;
+            }
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            joiner.setEmptyValue("");
+            params.forEach((key, value) -> joiner.add(key + "=" + SlowQueryLog.describe(value, maskParams)));
+            return joiner.toString();
+        }
+    }
+
+    /** Sentencia preparada: recuerda los parámetros y cronometra cada ejecución. */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String sql;
+        private final Map<Object, Object> params = new LinkedHashMap<>();
+        private int batchSize;
+        private Execution pending;
+
+        StatementHandler(Object target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            int argCount = args == null ? 0 : args.length;
+            if (name.startsWith("set") && argCount >= 2) {
+                // setXxx(índice o nombre, valor, ...); setNull(índice, tipo) enlaza un NULL
+                params.put(args[0], name.equals("setNull") ? null : args[1]);
+                return SlowQueryLogProvider.invoke(target, method, args);
+            }
+            switch (name) {
+                case "clearParameters":
+                    params.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "executeQuery":
+                case "execute":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    if (argCount == 0) {
+                        return execute(method);
+                    }
+                    break;
+                case "getResultSet":
+                    ResultSet resultSet = (ResultSet) SlowQueryLogProvider.invoke(target, method, args);
+                    return pending != null && resultSet != null ? track(resultSet, pending) : resultSet;
+                case "close":
+                    finishPending(null);
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return SlowQueryLogProvider.invoke(target, method, args);
+        }
+
+        private Object execute(Method method) throws Throwable {
+            finishPending(null);
+            boolean batch = method.getName().endsWith("Batch");
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SlowQueryLogProvider.invoke(target, method, null);
+            } catch (Throwable t) {
+                newExecution(batch, System.nanoTime() - start, 0).finish(t);
+                throw t;
+            }
+            Execution execution = newExecution(batch, System.nanoTime() - start, rows(result));
+            if (result instanceof ResultSet resultSet) {
+                pending = execution;
+                return track(resultSet, execution);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // execute() con resultado: se termina al leerlo con getResultSet() o al cerrar
+                pending = execution;
+            } else {
+                execution.finish(null);
+            }
+            return result;
+        }
+
+        private void finishPending(Throwable error) {
+            if (pending != null) {
+                pending.finish(error);
+                pending = null;
+            }
+        }
+
+        /**
+         * La ejecución guarda una copia de los parámetros (la sentencia puede
+         * reutilizarse) y la cantidad de filas del lote, que se reinicia.
+         */
+        private Execution newExecution(boolean batch, long executeNanos, long rows) {
+            int batchRows = batch ? Math.max(batchSize, 1) : 0;
+            if (batch) {
+                batchSize = 0;
+            }
+            Map<Object, Object> snapshot = batch || params.isEmpty() ? Map.of() : new LinkedHashMap<>(params);
+            return new Execution(sql, snapshot, batchRows, executeNanos, rows);
+        }
+
+        private long rows(Object result) {
+            if (result instanceof Integer count) {
+                return Math.max(count, 0);
+            }
+            if (result instanceof Long count) {
+                return Math.max(count, 0);
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+            }
+            return total;
+        }
+    }
+
+    /** Resultado de una consulta: cuenta las filas y el tiempo en {@code next()}. */
+    private ResultSet track(ResultSet resultSet, Execution execution) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next": {
+                    long start = System.nanoTime();
+                    boolean hasRow = (Boolean) invoke(resultSet, method, args);
+                    execution.fetchNanos += System.nanoTime() - start;
+                    if (hasRow) {
+                        execution.rows++;
+                    }
+                    return hasRow;
+                }
+                case "close":
+                    try {
+                        return invoke(resultSet, method, args);
+                    } finally {
+                        execution.finish(null);
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invoke(resultSet, method, args);
+            }
+        };
+        return proxy(ResultSet.class, handler);
+    }
+}
@@ -0,0 +1,44 @@
+package config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder para la ejecución de una sentencia
+ * ({@code execute*} de un {@code Statement} o {@code PreparedStatement}).
+ * La duración es la de la ejecución; la lectura posterior del
+ * {@code ResultSet} no se incluye. El tipo de sentencia y la tabla se
+ * obtienen del SQL sólo cuando el evento se graba.
+ */
+@Name("tpi.db.Statement")
+@Label("Sentencia SQL")
+@Category({"TPI", "Base de datos"})
+@Description("Ejecución de una sentencia SQL")
+class StatementEvent extends Event {
+
+    @Label("Tipo")
+    @Description("SELECT, INSERT, UPDATE, DELETE, CALL u OTHER")
+    String sqlKind;
+
+    @Label("Tabla")
+    @Description("Primera tabla (o procedimiento) de la sentencia")
+    String table;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Filas afectadas")
+    @Description("Filas de una escritura o de un lote; 0 en las consultas")
+    long rows;
+
+    @Label("Tamaño del lote")
+    @Description("Sentencias agregadas con addBatch, 0 si no es un lote")
+    int batchSize;
+
+    @Label("Resultado")
+    @Description("ok, o error con su SQLState y código")
+    String outcome;
+}
@@ -0,0 +1,57 @@
+package config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link ConnectionProvider} que mide cuánto tarda cada conexión en
+ * obtenerse (la espera por el pool, o la conexión nueva en modo
+ * {@code drivermanager}) y se lo informa a un receptor, en el mismo hilo
+ * que la pidió. También se informa la espera de los intentos fallidos.
+ */
+public class TimedConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final LongConsumer waitListener;
+
+    /**
+     * @param delegate proveedor de las conexiones reales
+     * @param waitListener receptor de la espera de cada conexión, en nanosegundos
+     */
+    public TimedConnectionProvider(ConnectionProvider delegate, LongConsumer waitListener) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        if (waitListener == null) {
+            throw new IllegalArgumentException("El receptor de esperas no puede ser null");
+        }
+        this.delegate = delegate;
+        this.waitListener = waitListener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getConnection();
+        } finally {
+            waitListener.accept(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getReadOnlyConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getReadOnlyConnection();
+        } finally {
+            waitListener.accept(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,346 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@link ConnectionProvider} con una unidad de trabajo ligada al hilo. <br>
+ *
+ * {@link #inTransaction(Work)} abre una transacción y la deja asociada al
+ * hilo actual mientras corre el trabajo: toda llamada a
+ * {@link #getConnection()} hecha desde ese hilo (por ejemplo, la de un DAO
+ * que no sabe nada de transacciones) recibe la misma conexión, por lo que
+ * una operación de varios pasos usa una sola conexión y un solo commit. <br>
+ *
+ * La conexión entregada dentro de la unidad es una vista que ignora
+ * {@code close()}, {@code commit()} y {@code setAutoCommit()}: el código
+ * existente que abre y cierra su propia conexión (o su propio
+ * {@link TransactionManager}) se suma a la unidad sin cambios. Un
+ * {@code rollback()} sobre esa vista dentro de una unidad anidada vuelve al
+ * savepoint de esa unidad; en la unidad externa, la marca para que termine
+ * en rollback. <br>
+ *
+ * Las unidades anidadas no abren otra conexión: crean un {@link Savepoint}
+ * y, si el trabajo anidado falla, se vuelve a ese punto sin deshacer lo
+ * anterior de la unidad externa. <br>
+ *
+ * La asociación usa un {@link ThreadLocal} que se limpia al terminar la
+ * unidad, así que funciona igual con hilos virtuales (cada uno tiene sus
+ * propios valores) y no deja conexiones colgadas en hilos reutilizados. El
+ * trabajo que se delega a otro hilo no se suma a la unidad. <br>
+ *
+ * Cada unidad externa emite un {@link TransactionEvent} de Java Flight
+ * Recorder que abarca la unidad completa, más uno por su commit o rollback.
+ */
+public class TransactionContext implements ConnectionProvider {
+
+    /**
+     * Trabajo ejecutado dentro de una unidad de trabajo.
+     *
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+
+        /**
+         * @return resultado del trabajo
+         * @throws Exception si falla; la unidad (o su savepoint) vuelve atrás
+         */
+        T run() throws Exception;
+    }
+
+    /** Unidad de trabajo activa en un hilo. */
+    private static final class Unit {
+
+        final Connection connection;
+        final Connection view;
+        final List<Runnable> afterCommit = new ArrayList<>();
+        /** Savepoints de las unidades anidadas en curso; el primero es el más interno. */
+        final Deque<Savepoint> savepoints = new ArrayDeque<>();
+        boolean rollbackOnly;
+
+        Unit(Connection connection) {
+            this.connection = connection;
+            this.view = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new JoinedConnection(this));
+        }
+    }
+
+    private static final String EVENT_SOURCE = "TransactionContext";
+
+    private final ConnectionProvider delegate;
+    private final ThreadLocal<Unit> current = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+
+    /**
+     * @param delegate proveedor de las conexiones reales
+     */
+    public TransactionContext(ConnectionProvider delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * Devuelve el proveedor si ya es un {@code TransactionContext}, o lo
+     * envuelve en uno nuevo. Sólo se suman a la unidad las conexiones
+     * pedidas al mismo contexto, por lo que los DAOs deben construirse con
+     * el proveedor devuelto por {@link ConnectionProvider#fromConfig}.
+     *
+     * @param provider proveedor de conexiones
+     * @return contexto transaccional sobre ese proveedor
+     */
+    public static TransactionContext of(ConnectionProvider provider) {
+        return provider instanceof TransactionContext context ? context : new TransactionContext(provider);
+    }
+
+    /**
+     * Dentro de una unidad de trabajo, devuelve la conexión de la unidad
+     * (cerrarla no tiene efecto); fuera de ella, una conexión nueva del
+     * proveedor real.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Unit unit = current.get();
+        return unit != null ? unit.view : delegate.getConnection();
+    }
+
+    /**
+     * Dentro de una unidad de trabajo, las lecturas también usan la conexión
+     * de la unidad (al primario, viendo sus propios cambios); dentro de
+     * {@link #onPrimary(Work)}, una conexión al primario; en otro caso se
+     * delegan al proveedor real, que puede enviarlas a una réplica.
+     */
+    @Override
+    public Connection getReadOnlyConnection() throws SQLException {
+        Unit unit = current.get();
+        if (unit != null) {
+            return unit.view;
+        }
+        return primaryReads.get() != null ? delegate.getConnection() : delegate.getReadOnlyConnection();
+    }
+
+    /**
+     * Ejecuta {@code work} enviando sus lecturas al primario en lugar de a
+     * una réplica, sin abrir una transacción. Sirve para lecturas cuyo
+     * resultado se guarda (por ejemplo, en una cache): una réplica atrasada
+     * podría devolver datos anteriores a una escritura ya confirmada.
+     *
+     * @param work lecturas a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     * @throws Exception la excepción del trabajo
+     */
+    public <T> T onPrimary(Work<T> work) throws Exception {
+        if (primaryReads.get() != null) {
+            return work.run();
+        }
+        primaryReads.set(Boolean.TRUE);
+        try {
+            return work.run();
+        } finally {
+            primaryReads.remove();
+        }
+    }
+
+    /**
+     * @return {@code true} si el hilo actual está dentro de una unidad de trabajo
+     */
+    public boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Ejecuta {@code action} después del commit de la unidad de trabajo del
+     * hilo actual (la externa, si hay anidadas); si la unidad vuelve atrás,
+     * se descarta. Fuera de una unidad se ejecuta enseguida, porque la
+     * escritura ya quedó confirmada. Sirve, por ejemplo, para invalidar una
+     * cache recién cuando los cambios son visibles para otras conexiones.
+     * Un error de la acción se informa sin afectar a la unidad ya confirmada.
+     *
+     * @param action acción a ejecutar
+     */
+    public void afterCommit(Runnable action) {
+        Unit unit = current.get();
+        if (unit != null) {
+            unit.afterCommit.add(action);
+        } else {
+            runQuietly(action);
+        }
+    }
+
+    /**
+     * Ejecuta {@code work} en una transacción. Si el hilo ya está dentro de
+     * una unidad de trabajo, se suma a ella con un savepoint; si no, abre una
+     * conexión, confirma al terminar bien y vuelve atrás si el trabajo lanza
+     * una excepción (que se relanza).
+     *
+     * @param work trabajo a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     * @throws Exception la excepción del trabajo, o {@link SQLException} si
+     * falla el commit o la unidad quedó marcada para rollback
+     */
+    public <T> T inTransaction(Work<T> work) throws Exception {
+        Unit unit = current.get();
+        if (unit != null) {
+            return runNested(unit, work);
+        }
+
+        TransactionEvent unitEvent = new TransactionEvent();
+        unitEvent.begin();
+        Throwable error = null;
+        try (Connection connection = delegate.getConnection()) {
+            connection.setAutoCommit(false);
+            unit = new Unit(connection);
+            current.set(unit);
+            Throwable failure = null;
+            try {
+                T result = work.run();
+                if (unit.rollbackOnly) {
+                    throw new SQLException("La transacción fue marcada para rollback por una operación interna");
+                }
+                commit(connection);
+                current.remove();
+                unit.afterCommit.forEach(TransactionContext::runQuietly);
+                return result;
+            } catch (Throwable t) {
+                failure = t;
+                rollbackQuietly(connection);
+                throw t;
+            } finally {
+                current.remove();
+                restoreAutoCommit(connection, failure);
+            }
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            unitEvent.finish(EVENT_SOURCE, "unit", error);
+        }
+    }
+
+    /**
+     * Devuelve la conexión a modo autocommit. Si falla (por ejemplo, con la
+     * conexión rota después de un commit fallido) y ya hay un error del
+     * trabajo o del commit, se agrega a ese error como suprimido en lugar de
+     * reemplazarlo.
+     */
+    private static void restoreAutoCommit(Connection connection, Throwable failure) throws SQLException {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            if (failure == null) {
+                throw e;
+            }
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error en una acción posterior al commit: " + e.getMessage());
+        }
+    }
+
+    private static void commit(Connection connection) throws SQLException {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            event.finish(EVENT_SOURCE, "commit", e);
+            throw e;
+        }
+        event.finish(EVENT_SOURCE, "commit", null);
+    }
+
+    private static <T> T runNested(Unit unit, Work<T> work) throws Exception {
+        Savepoint savepoint = unit.connection.setSavepoint();
+        unit.savepoints.push(savepoint);
+        try {
+            T result = work.run();
+            unit.connection.releaseSavepoint(savepoint);
+            return result;
+        } catch (Throwable t) {
+            unit.connection.rollback(savepoint);
+            throw t;
+        } finally {
+            unit.savepoints.pop();
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try {
+            connection.rollback();
+            event.finish(EVENT_SOURCE, "rollback", null);
+        } catch (SQLException e) {
+            event.finish(EVENT_SOURCE, "rollback", e);
+            System.err.println("Error durante el rollback: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Vista de la conexión de una unidad: el ciclo de vida (cierre, commit,
+     * modo autocommit) lo controla la unidad, no quien pidió la conexión.
+     */
+    private static final class JoinedConnection implements InvocationHandler {
+
+        private final Unit unit;
+
+        JoinedConnection(Unit unit) {
+            this.unit = unit;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            int argCount = args == null ? 0 : args.length;
+            switch (method.getName()) {
+                case "close", "commit", "setAutoCommit":
+                    return null;
+                case "rollback":
+                    if (argCount == 0) {
+                        // Sólo se deshace la unidad más interna en curso
+                        Savepoint innermost = unit.savepoints.peek();
+                        if (innermost != null) {
+                            unit.connection.rollback(innermost);
+                        } else {
+                            unit.rollbackOnly = true;
+                        }
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(unit.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
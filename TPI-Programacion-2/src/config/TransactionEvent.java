@@ -0,0 +1,54 @@
+package config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder para una operación de transacción: las de
+ * {@link TransactionManager} ({@code start}, {@code commit},
+ * {@code rollback}, {@code close}) y, en {@link TransactionContext}, la
+ * unidad de trabajo completa ({@code unit}) más su {@code commit} o
+ * {@code rollback}. <br>
+ *
+ * La duración del evento es la de la operación; con la grabación apagada
+ * crearlo y descartarlo no tiene costo apreciable.
+ */
+@Name("tpi.db.Transaction")
+@Label("Transacción")
+@Category({"TPI", "Base de datos"})
+@Description("Inicio, commit, rollback o cierre de una transacción")
+class TransactionEvent extends Event {
+
+    @Label("Origen")
+    @Description("TransactionManager o TransactionContext")
+    String source;
+
+    @Label("Acción")
+    @Description("start, commit, rollback, close o unit")
+    String action;
+
+    @Label("Resultado")
+    @Description("ok, o error con su SQLState y código")
+    String outcome;
+
+    /**
+     * Completa y graba el evento si la grabación lo acepta (está activa y
+     * supera el umbral configurado).
+     *
+     * @param source clase que hizo la operación
+     * @param action operación realizada
+     * @param error error de la operación, o {@code null} si terminó bien
+     */
+    void finish(String source, String action, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.source = source;
+            this.action = action;
+            this.outcome = JfrEvents.outcome(error);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package config;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ejecuta unidades de trabajo de {@link TransactionContext} reintentando los
+ * errores transitorios de concurrencia. <br>
+ *
+ * Sólo se reintentan los deadlocks (MySQL 1213, SQLState {@code 40001}) y
+ * los tiempos de espera de lock agotados (MySQL 1205), buscados en toda la
+ * cadena de causas: en ambos casos la base ya deshizo la transacción (o la
+ * sentencia) y repetir la unidad completa es seguro. Cualquier otro error
+ * se relanza enseguida. <br>
+ *
+ * Entre intentos se espera un backoff exponencial con jitter completo
+ * (un valor al azar entre 0 y {@code min(maxDelay, baseDelay * 2^n)}), para
+ * que las transacciones que chocaron no vuelvan a chocar en el mismo
+ * instante. Se cuentan ejecuciones y reintentos por nombre de operación. <br>
+ *
+ * Si el hilo ya está dentro de una unidad de trabajo, no se reintenta: la
+ * operación se suma a la unidad externa (con un savepoint) y el reintento,
+ * si corresponde, lo hace quien abrió esa unidad.
+ */
+public class TransactionExecutor {
+
+    /** Código de error de MySQL para un deadlock. */
+    static final int MYSQL_DEADLOCK = 1213;
+
+    /** Código de error de MySQL para un tiempo de espera de lock agotado. */
+    static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    /** SQLState estándar de "serialization failure" (incluye deadlocks). */
+    static final String SERIALIZATION_FAILURE = "40001";
+
+    /** Contadores de una operación. */
+    private static final class Counters {
+
+        final LongAdder executions = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder recovered = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+
+        RetryStats snapshot() {
+            return new RetryStats(executions.sum(), retries.sum(), recovered.sum(), exhausted.sum());
+        }
+    }
+
+    private final TransactionContext context;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param context contexto transaccional de las unidades de trabajo
+     * @param maxAttempts intentos totales por ejecución (1 = sin reintentos)
+     * @param baseDelayMillis espera base antes del primer reintento
+     * @param maxDelayMillis tope de la espera entre intentos
+     */
+    public TransactionExecutor(TransactionContext context, int maxAttempts, long baseDelayMillis,
+            long maxDelayMillis) {
+        if (context == null) {
+            throw new IllegalArgumentException("TransactionContext no puede ser null");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("La cantidad de intentos debe ser mayor a 0");
+        }
+        if (baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("Esperas de reintento inválidas");
+        }
+        this.context = context;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Ejecuta {@code work} en una transacción, repitiendo la transacción
+     * completa ante deadlocks o esperas de lock agotadas.
+     *
+     * @param operation nombre de la operación para las métricas
+     * @param work trabajo a ejecutar; debe poder repetirse desde cero
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     * @throws Exception el último error si no es transitorio o se agotaron los intentos
+     */
+    public <T> T inTransaction(String operation, TransactionContext.Work<T> work) throws Exception {
+        if (context.isActive()) {
+            return context.inTransaction(work);
+        }
+        return withRetry(operation, () -> context.inTransaction(work));
+    }
+
+    /**
+     * Igual que {@link #inTransaction(String, TransactionContext.Work)} pero
+     * sin abrir una transacción: para trabajos que manejan la suya (por
+     * ejemplo, un procedimiento almacenado que hace su propio commit).
+     *
+     * @param operation nombre de la operación para las métricas
+     * @param work trabajo a ejecutar; debe poder repetirse desde cero
+     * @param <T> tipo del resultado
+     * @return resultado del trabajo
+     * @throws Exception el último error si no es transitorio o se agotaron los intentos
+     */
+    public <T> T withRetry(String operation, TransactionContext.Work<T> work) throws Exception {
+        Counters c = counters.computeIfAbsent(operation, k -> new Counters());
+        c.executions.increment();
+        for (int attempt = 1;; attempt++) {
+            try {
+                T result = work.run();
+                if (attempt > 1) {
+                    c.recovered.increment();
+                }
+                return result;
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    c.exhausted.increment();
+                    throw e;
+                }
+                c.retries.increment();
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return contadores de reintentos por operación, ordenados por nombre
+     */
+    public Map<String, RetryStats> getStats() {
+        Map<String, RetryStats> stats = new TreeMap<>();
+        counters.forEach((operation, c) -> stats.put(operation, c.snapshot()));
+        return stats;
+    }
+
+    /**
+     * Espera antes del reintento número {@code attempt}: jitter completo
+     * sobre un backoff exponencial acotado.
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @param e error a revisar (con toda su cadena de causas)
+     * @return {@code true} si es un deadlock o una espera de lock agotada
+     */
+    public static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransactionRollbackException) {
+                return true;
+            }
+            if (t instanceof SQLException sql
+                    && (sql.getErrorCode() == MYSQL_DEADLOCK
+                    || sql.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                    || SERIALIZATION_FAILURE.equals(sql.getSQLState()))) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
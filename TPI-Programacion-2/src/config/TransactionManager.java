@@ -4,6 +4,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 
 public class TransactionManager implements AutoCloseable {
+    private static final String EVENT_SOURCE = "TransactionManager";
+
     private Connection conn;
     private boolean transactionActive;
 
@@ -26,7 +28,15 @@ public class TransactionManager implements AutoCloseable {
         if (conn.isClosed()) {
             throw new SQLException("No se puede iniciar la transacción: conexión cerrada");
         }
-        conn.setAutoCommit(false);
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            event.finish(EVENT_SOURCE, "start", e);
+            throw e;
+        }
+        event.finish(EVENT_SOURCE, "start", null);
         transactionActive = true;
     }
 
@@ -37,16 +47,28 @@ public class TransactionManager implements AutoCloseable {
         if (!transactionActive) {
             throw new SQLException("No hay una transacción activa para hacer commit");
         }
-        conn.commit();
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        try {
+            conn.commit();
+        } catch (SQLException e) {
+            event.finish(EVENT_SOURCE, "commit", e);
+            throw e;
+        }
+        event.finish(EVENT_SOURCE, "commit", null);
         transactionActive = false;
     }
 
     public void rollback() {
         if (conn != null && transactionActive) {
+            TransactionEvent event = new TransactionEvent();
+            event.begin();
             try {
                 conn.rollback();
                 transactionActive = false;
+                event.finish(EVENT_SOURCE, "rollback", null);
             } catch (SQLException e) {
+                event.finish(EVENT_SOURCE, "rollback", e);
                 System.err.println("Error durante el rollback: " + e.getMessage());
             }
         }
@@ -55,13 +77,17 @@ public class TransactionManager implements AutoCloseable {
     @Override
     public void close() {
         if (conn != null) {
+            TransactionEvent event = new TransactionEvent();
+            event.begin();
             try {
                 if (transactionActive) {
                     rollback();
                 }
                 conn.setAutoCommit(true);
                 conn.close();
+                event.finish(EVENT_SOURCE, "close", null);
             } catch (SQLException e) {
+                event.finish(EVENT_SOURCE, "close", e);
                 System.err.println("Error al cerrar la conexión: " + e.getMessage());
             }
         }
@@ -0,0 +1,126 @@
+package dao;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Inserción masiva con batching JDBC, compartida por los DAOs. <br>
+ *
+ * Las filas se envían en lotes de {@link #BATCH_SIZE} con
+ * {@link PreparedStatement#addBatch()} / {@link PreparedStatement#executeBatch()}.
+ * Con {@code rewriteBatchedStatements=true} en la URL (o en el pool),
+ * Connector/J reescribe cada lote como un único
+ * {@code INSERT ... VALUES (...),(...),...}, por lo que el SQL de inserción
+ * debe ser un INSERT simple de una fila, sin {@code ON DUPLICATE KEY} ni
+ * subconsultas. Las claves generadas se devuelven en el mismo orden de las
+ * filas del lote y se asignan a cada entidad.
+ */
+final class BatchInserts {
+
+    /** Cantidad de filas por lote enviado al servidor. */
+    static final int BATCH_SIZE = 500;
+
+    private BatchInserts() {
+    }
+
+    /**
+     * Inserta todas las entidades usando la conexión indicada, sin manejar
+     * la transacción: el llamador decide si hace commit o rollback.
+     *
+     * @param conn conexión (normalmente transaccional) a reutilizar
+     * @param sql sentencia INSERT de una fila
+     * @param entities entidades a insertar
+     * @param binder asigna los valores de cada entidad a la sentencia
+     * @param idSetter asigna a cada entidad el ID generado
+     * @param <T> tipo de la entidad
+     * @throws SQLException si falla algún lote o no se obtienen todas las claves generadas
+     */
+    static <T> void insertAll(Connection conn, String sql, Collection<? extends T> entities,
+                              StatementBinder<T> binder, BiConsumer<T, Long> idSetter) throws SQLException {
+        insertAll(conn, sql, entities, binder, idSetter, (entity, e) -> e);
+    }
+
+    /**
+     * Igual que {@link #insertAll(Connection, String, Collection, StatementBinder, BiConsumer)},
+     * pero si un lote falla con {@link BatchUpdateException} la excepción
+     * lanzada es la que devuelve {@code errorMapper}. El mapper recibe la
+     * entidad que falló, si el driver la informa en los conteos de la
+     * excepción, o {@code null} si no se puede saber cuál fue.
+     *
+     * @param errorMapper traduce el error del lote a la excepción a lanzar
+     * @throws SQLException si falla algún lote o no se obtienen todas las claves generadas
+     */
+    static <T> void insertAll(Connection conn, String sql, Collection<? extends T> entities,
+                              StatementBinder<T> binder, BiConsumer<T, Long> idSetter,
+                              BiFunction<T, SQLException, SQLException> errorMapper) throws SQLException {
+        if (entities.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            List<T> lote = new ArrayList<>(Math.min(entities.size(), BATCH_SIZE));
+            for (T entity : entities) {
+                binder.bind(stmt, entity);
+                stmt.addBatch();
+                lote.add(entity);
+                if (lote.size() == BATCH_SIZE) {
+                    executeBatch(stmt, lote, idSetter, errorMapper);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                executeBatch(stmt, lote, idSetter, errorMapper);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta el lote pendiente y asigna las claves generadas en orden.
+     */
+    private static <T> void executeBatch(PreparedStatement stmt, List<T> lote, BiConsumer<T, Long> idSetter,
+                                         BiFunction<T, SQLException, SQLException> errorMapper) throws SQLException {
+        try {
+            stmt.executeBatch();
+        } catch (BatchUpdateException e) {
+            throw errorMapper.apply(failedEntity(e, lote), e);
+        }
+        int i = 0;
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            while (generatedKeys.next() && i < lote.size()) {
+                idSetter.accept(lote.get(i++), generatedKeys.getLong(1));
+            }
+        }
+        if (i != lote.size()) {
+            throw new SQLException("La inserción por lotes falló: se esperaban " + lote.size()
+                    + " IDs generados y se obtuvieron " + i + ".");
+        }
+    }
+
+    /**
+     * Busca la entidad que hizo fallar el lote: la primera marcada como
+     * {@link Statement#EXECUTE_FAILED} si el driver siguió con el resto, o
+     * la siguiente a la última ejecutada si se detuvo.
+     *
+     * @return entidad que falló, o {@code null} si los conteos no lo indican
+     */
+    private static <T> T failedEntity(BatchUpdateException e, List<T> lote) {
+        int[] counts = e.getUpdateCounts();
+        if (counts == null) {
+            return null;
+        }
+        for (int i = 0; i < counts.length && i < lote.size(); i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                return lote.get(i);
+            }
+        }
+        return counts.length < lote.size() ? lote.get(counts.length) : null;
+    }
+}
@@ -0,0 +1,188 @@
+package dao;
+
+import cache.EstadisticasCache;
+import cache.LruCache;
+import config.ConnectionProvider;
+import config.TransactionContext;
+import entities.Envio;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * {@link EnvioDAO} con una cache de segundo nivel delante de las lecturas
+ * individuales. <br>
+ *
+ * {@link #findById(int)} y {@link #findByTracking(String, Connection)} se
+ * resuelven desde una {@link LruCache} indexada por ID (acotada por tamaño y
+ * TTL) más un índice secundario tracking → ID. Las escrituras
+ * ({@code save}, {@code saveTx}, {@code saveAll}, {@code update},
+ * {@code delete}) invalidan las entradas afectadas en lugar de actualizarlas,
+ * y lo hacen otra vez después del commit de la unidad de trabajo
+ * ({@link TransactionContext#afterCommit(Runnable)}): una lectura que entre
+ * la escritura y el commit recargó la fila anterior no queda en la cache.
+ * Como en {@code cache.CacheConsultasPedidos}, cada lectura anota la
+ * "generación" al empezar y sólo guarda su resultado si ninguna
+ * invalidación ocurrió mientras tanto. <br>
+ *
+ * Dentro de una unidad de trabajo (o con una conexión sin autocommit) las
+ * lecturas no usan ni llenan la cache: pueden ver filas todavía no
+ * confirmadas, que se perderían con un rollback. <br>
+ *
+ * Como {@link Envio} es mutable, la cache guarda y devuelve copias; así un
+ * llamador que modifica el envío antes de llamar a {@code update} no altera
+ * la entrada cacheada. Se activa con {@code cache.envios.enabled=true} en
+ * {@code database.properties}.
+ */
+public class CachingEnvioDAO extends EnvioDAO {
+
+    private final LruCache<Long, Envio> porId;
+    private final LruCache<String, Long> idPorTracking;
+    private final TransactionContext transacciones;
+    private long generacion;
+
+    /**
+     * @param connectionProvider proveedor de conexiones
+     * @param tamanioMaximo cantidad máxima de envíos cacheados
+     * @param ttlMillis tiempo de vida de cada entrada en milisegundos
+     */
+    public CachingEnvioDAO(ConnectionProvider connectionProvider, int tamanioMaximo, long ttlMillis) {
+        super(connectionProvider);
+        this.porId = new LruCache<>(tamanioMaximo, ttlMillis);
+        this.idPorTracking = new LruCache<>(tamanioMaximo, ttlMillis);
+        this.transacciones = connectionProvider instanceof TransactionContext contexto ? contexto : null;
+    }
+
+    @Override
+    public Envio findById(int id) throws SQLException {
+        if (enUnidadDeTrabajo()) {
+            return super.findById(id);
+        }
+        Envio cacheado = porId.get((long) id);
+        if (cacheado != null) {
+            return new Envio(cacheado);
+        }
+        long generacionInicial = generacion();
+        Envio envio = super.findById(id);
+        cachear(envio, generacionInicial);
+        return envio;
+    }
+
+    /**
+     * Busca por tracking pasando primero por el índice tracking → ID. Si el
+     * envío cacheado ya no tiene ese tracking (fue modificado), se considera
+     * un fallo y se consulta la base.
+     */
+    @Override
+    public Envio findByTracking(String tracking, Connection connection) throws SQLException {
+        if (enUnidadDeTrabajo() || !connection.getAutoCommit()) {
+            return super.findByTracking(tracking, connection);
+        }
+        Long id = idPorTracking.get(tracking);
+        if (id != null) {
+            Envio cacheado = porId.get(id);
+            if (cacheado != null && tracking.equals(cacheado.getTracking())) {
+                return new Envio(cacheado);
+            }
+            idPorTracking.invalidar(tracking);
+        }
+        long generacionInicial = generacion();
+        Envio envio = super.findByTracking(tracking, connection);
+        cachear(envio, generacionInicial);
+        return envio;
+    }
+
+    @Override
+    public void save(Envio envio) throws SQLException {
+        super.save(envio);
+        invalidarAlConfirmar(envio.getId(), envio.getTracking());
+    }
+
+    @Override
+    public void saveTx(Envio envio, Connection conn) throws SQLException {
+        super.saveTx(envio, conn);
+        invalidarAlConfirmar(envio.getId(), envio.getTracking());
+    }
+
+    @Override
+    public void saveAll(Collection<Envio> envios, Connection conn) throws SQLException {
+        super.saveAll(envios, conn);
+        for (Envio envio : envios) {
+            invalidarAlConfirmar(envio.getId(), envio.getTracking());
+        }
+    }
+
+    @Override
+    public void update(Envio envio) throws SQLException {
+        try {
+            super.update(envio);
+        } finally {
+            invalidarAlConfirmar(envio.getId(), envio.getTracking());
+        }
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        try {
+            super.delete(id);
+        } finally {
+            invalidarAlConfirmar((long) id, null);
+        }
+    }
+
+    /**
+     * @return contadores de la cache por ID (aciertos, fallos, desalojos, expiraciones)
+     */
+    @Override
+    public EstadisticasCache getEstadisticas() {
+        return porId.estadisticas();
+    }
+
+    /**
+     * Descarta todas las entradas cacheadas.
+     */
+    public synchronized void limpiar() {
+        generacion++;
+        porId.limpiar();
+        idPorTracking.limpiar();
+    }
+
+    private boolean enUnidadDeTrabajo() {
+        return transacciones != null && transacciones.isActive();
+    }
+
+    private synchronized long generacion() {
+        return generacion;
+    }
+
+    // Guarda lo leído sólo si ninguna escritura invalidó la cache desde que empezó la lectura
+    private synchronized void cachear(Envio envio, long generacionInicial) {
+        if (envio != null && envio.getId() != null && generacion == generacionInicial) {
+            porId.put(envio.getId(), new Envio(envio));
+            idPorTracking.put(envio.getTracking(), envio.getId());
+        }
+    }
+
+    /**
+     * Invalida ahora (para las lecturas que siguen en esta misma conexión) y
+     * otra vez cuando se confirme la unidad de trabajo, si hay una. Sin
+     * {@link TransactionContext}, una escritura con una conexión
+     * transaccional propia sólo se invalida ahora.
+     */
+    private void invalidarAlConfirmar(Long id, String tracking) {
+        invalidar(id, tracking);
+        if (transacciones != null) {
+            transacciones.afterCommit(() -> invalidar(id, tracking));
+        }
+    }
+
+    private synchronized void invalidar(Long id, String tracking) {
+        generacion++;
+        if (id != null) {
+            porId.invalidar(id);
+        }
+        if (tracking != null) {
+            idPorTracking.invalidar(tracking);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traducción de un criterio de búsqueda ({@link EnvioCriteria},
+ * {@link PedidoCriteria}) a una única sentencia parametrizada. <br>
+ *
+ * Cada filtro posible ocupa una posición fija; los filtros ausentes no
+ * generan condición. Así la "forma" de la consulta ({@link Shape}: qué
+ * filtros están presentes, el orden y si hay límite) determina por completo
+ * el texto SQL, que los DAOs cachean por forma y sólo arman la primera vez.
+ * Los valores siempre van como parámetros, nunca concatenados.
+ */
+final class CriteriaSql {
+
+    /**
+     * Forma de una consulta: identifica el texto SQL independientemente de
+     * los valores de los parámetros.
+     *
+     * @param filters máscara de bits con los filtros presentes
+     * @param orderBy expresión ORDER BY
+     * @param limited {@code true} si la consulta lleva LIMIT
+     */
+    record Shape(long filters, String orderBy, boolean limited) {
+    }
+
+    private final List<String> columns = new ArrayList<>();
+    private final List<String> operators = new ArrayList<>();
+    private final List<Object> params = new ArrayList<>();
+    private long filters;
+    private int nextBit;
+    private String orderBy;
+    private Integer limit;
+
+    /** Agrega {@code columna = ?} si {@code value} no es {@code null}. */
+    CriteriaSql eq(String column, Object value) {
+        return filter(column, " = ?", value);
+    }
+
+    /** Agrega {@code columna >= ?} si {@code value} no es {@code null}. */
+    CriteriaSql atLeast(String column, Object value) {
+        return filter(column, " >= ?", value);
+    }
+
+    /** Agrega {@code columna <= ?} si {@code value} no es {@code null}. */
+    CriteriaSql atMost(String column, Object value) {
+        return filter(column, " <= ?", value);
+    }
+
+    CriteriaSql orderBy(String orderBy) {
+        this.orderBy = orderBy;
+        return this;
+    }
+
+    CriteriaSql limit(Integer limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    Shape shape() {
+        return new Shape(filters, orderBy, limit != null);
+    }
+
+    /**
+     * Arma el SQL completo agregando las condiciones a {@code baseSql}, que
+     * ya debe terminar en una cláusula WHERE (por ejemplo
+     * {@code ... WHERE eliminado = FALSE}).
+     */
+    String toSql(String baseSql) {
+        StringBuilder sql = new StringBuilder(baseSql);
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(" AND ").append(columns.get(i)).append(operators.get(i));
+        }
+        if (orderBy != null) {
+            sql.append(" ORDER BY ").append(orderBy);
+        }
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Asigna los parámetros en el mismo orden en que {@link #toSql(String)}
+     * generó las condiciones.
+     */
+    void bind(PreparedStatement stmt) throws SQLException {
+        int i = 1;
+        for (Object param : params) {
+            stmt.setObject(i++, param);
+        }
+        if (limit != null) {
+            stmt.setInt(i, limit);
+        }
+    }
+
+    private CriteriaSql filter(String column, String operator, Object value) {
+        if (value != null) {
+            filters |= 1L << nextBit;
+            columns.add(column);
+            operators.add(operator);
+            params.add(toJdbc(value));
+        }
+        nextBit++;
+        return this;
+    }
+
+    /** Los enums se guardan por nombre y las fechas como DATE. */
+    private static Object toJdbc(Object value) {
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (value instanceof LocalDate fecha) {
+            return java.sql.Date.valueOf(fecha);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,27 @@
+package dao;
+
+import java.sql.SQLException;
+
+/**
+ * Excepción no chequeada que envuelve una {@link SQLException} producida
+ * mientras se recorre un {@link java.util.stream.Stream} de resultados, donde
+ * la API de streams no admite excepciones chequeadas.
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * Devuelve la {@link SQLException} original.
+     *
+     * @return causa de la excepción
+     */
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,59 @@
+package dao;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+/**
+ * Se lanza al insertar un envío cuyo tracking ya existe en la base (viola el
+ * UNIQUE de {@code envios.tracking}). Permite distinguir este caso del
+ * resto de los errores SQL sin consultar antes si el tracking existe.
+ */
+public class DuplicateTrackingException extends SQLIntegrityConstraintViolationException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Código de error de MySQL para "Duplicate entry ... for key ...". */
+    static final int MYSQL_DUPLICATE_KEY = 1062;
+
+    /** SQLState estándar de violación de unicidad (lo usan H2 y PostgreSQL). */
+    static final String SQLSTATE_UNIQUE_VIOLATION = "23505";
+
+    private final String tracking;
+
+    /**
+     * @param tracking tracking duplicado, o {@code null} si no se sabe cuál
+     * fue (un lote en el que el driver no informa la fila que falló)
+     * @param cause error original del driver
+     */
+    public DuplicateTrackingException(String tracking, SQLException cause) {
+        super(tracking != null ? "Ya existe un envío con el tracking: " + tracking
+                        : "Ya existe un envío con uno de los trackings del lote",
+                cause != null ? cause.getSQLState() : null,
+                cause != null ? cause.getErrorCode() : 0,
+                cause);
+        this.tracking = tracking;
+    }
+
+    /**
+     * @return tracking duplicado, o {@code null} si no se sabe cuál fue
+     */
+    public String getTracking() {
+        return tracking;
+    }
+
+    /**
+     * Indica si la excepción corresponde a una clave duplicada. En
+     * {@code envios} la única restricción de unicidad además de la clave
+     * primaria autoincremental es la de {@code tracking}.
+     *
+     * @param e excepción producida por el INSERT
+     * @return {@code true} si es una violación de unicidad
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        if (e.getErrorCode() == MYSQL_DUPLICATE_KEY || SQLSTATE_UNIQUE_VIOLATION.equals(e.getSQLState())) {
+            return true;
+        }
+        // Un BatchUpdateException puede traer el error del driver sólo como causa
+        return e.getCause() instanceof SQLException cause && cause != e && isDuplicateKey(cause);
+    }
+}
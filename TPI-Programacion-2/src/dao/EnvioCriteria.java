@@ -0,0 +1,181 @@
+package dao;
+
+import entities.EmpresaDeEnvio;
+import entities.EstadoDeEnvio;
+import entities.TipoDeEnvio;
+import java.time.LocalDate;
+
+/**
+ * Criterio de búsqueda de envíos activos para
+ * {@link EnvioDAO#findByCriteria(EnvioCriteria)}. <br>
+ *
+ * Todos los filtros son opcionales y se combinan con AND; los rangos admiten
+ * un extremo abierto ({@code null}). Las instancias son inmutables y se
+ * construyen con {@link #builder()}:
+ *
+ * <pre>
+ * EnvioCriteria.builder()
+ *         .empresa(EmpresaDeEnvio.ANDREANI)
+ *         .fechaDespachoBetween(desde, null)
+ *         .orderBy(EnvioCriteria.Order.FECHA_DESPACHO, true)
+ *         .limit(50)
+ *         .build();
+ * </pre>
+ */
+public final class EnvioCriteria {
+
+    /** Criterio de orden del resultado; a igual valor se desempata por ID. */
+    public enum Order {
+        ID("id"),
+        FECHA_DESPACHO("fecha_despacho"),
+        FECHA_ESTIMADA("fecha_estimada"),
+        COSTO("costo");
+
+        private final String column;
+
+        Order(String column) {
+            this.column = column;
+        }
+    }
+
+    private final EmpresaDeEnvio empresa;
+    private final TipoDeEnvio tipo;
+    private final EstadoDeEnvio estado;
+    private final LocalDate fechaDespachoDesde;
+    private final LocalDate fechaDespachoHasta;
+    private final Double costoMinimo;
+    private final Double costoMaximo;
+    private final Order order;
+    private final boolean descending;
+    private final Integer limit;
+
+    private EnvioCriteria(Builder b) {
+        this.empresa = b.empresa;
+        this.tipo = b.tipo;
+        this.estado = b.estado;
+        this.fechaDespachoDesde = b.fechaDespachoDesde;
+        this.fechaDespachoHasta = b.fechaDespachoHasta;
+        this.costoMinimo = b.costoMinimo;
+        this.costoMaximo = b.costoMaximo;
+        this.order = b.order;
+        this.descending = b.descending;
+        this.limit = b.limit;
+    }
+
+    /**
+     * @return builder de un criterio sin filtros, ordenado por ID y sin límite
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Traduce el criterio a SQL sobre la tabla {@code envios} (sin alias).
+     * El orden de los filtros es fijo: forma parte de la forma de la consulta.
+     */
+    CriteriaSql toSql() {
+        String direction = descending ? " DESC" : "";
+        String orderBy = order == Order.ID
+                ? "id" + direction
+                : order.column + direction + ", id" + direction;
+        return new CriteriaSql()
+                .eq("empresa", empresa)
+                .eq("tipo", tipo)
+                .eq("estado", estado)
+                .atLeast("fecha_despacho", fechaDespachoDesde)
+                .atMost("fecha_despacho", fechaDespachoHasta)
+                .atLeast("costo", costoMinimo)
+                .atMost("costo", costoMaximo)
+                .orderBy(orderBy)
+                .limit(limit);
+    }
+
+    /**
+     * Builder de {@link EnvioCriteria}.
+     */
+    public static final class Builder {
+
+        private EmpresaDeEnvio empresa;
+        private TipoDeEnvio tipo;
+        private EstadoDeEnvio estado;
+        private LocalDate fechaDespachoDesde;
+        private LocalDate fechaDespachoHasta;
+        private Double costoMinimo;
+        private Double costoMaximo;
+        private Order order = Order.ID;
+        private boolean descending;
+        private Integer limit;
+
+        private Builder() {
+        }
+
+        public Builder empresa(EmpresaDeEnvio empresa) {
+            this.empresa = empresa;
+            return this;
+        }
+
+        public Builder tipo(TipoDeEnvio tipo) {
+            this.tipo = tipo;
+            return this;
+        }
+
+        public Builder estado(EstadoDeEnvio estado) {
+            this.estado = estado;
+            return this;
+        }
+
+        /**
+         * @param desde fecha de despacho mínima (inclusive), o {@code null}
+         * @param hasta fecha de despacho máxima (inclusive), o {@code null}
+         */
+        public Builder fechaDespachoBetween(LocalDate desde, LocalDate hasta) {
+            if (desde != null && hasta != null && hasta.isBefore(desde)) {
+                throw new IllegalArgumentException("El rango de fechas de despacho es inválido");
+            }
+            this.fechaDespachoDesde = desde;
+            this.fechaDespachoHasta = hasta;
+            return this;
+        }
+
+        /**
+         * @param minimo costo mínimo (inclusive), o {@code null}
+         * @param maximo costo máximo (inclusive), o {@code null}
+         */
+        public Builder costoBetween(Double minimo, Double maximo) {
+            if (minimo != null && maximo != null && maximo < minimo) {
+                throw new IllegalArgumentException("El rango de costos es inválido");
+            }
+            this.costoMinimo = minimo;
+            this.costoMaximo = maximo;
+            return this;
+        }
+
+        /**
+         * @param order criterio de orden
+         * @param descending {@code true} para orden descendente
+         */
+        public Builder orderBy(Order order, boolean descending) {
+            if (order == null) {
+                throw new IllegalArgumentException("El orden no puede ser null");
+            }
+            this.order = order;
+            this.descending = descending;
+            return this;
+        }
+
+        /**
+         * @param limit cantidad máxima de envíos a devolver
+         */
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("El límite debe ser mayor a 0");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public EnvioCriteria build() {
+            return new EnvioCriteria(this);
+        }
+    }
+}
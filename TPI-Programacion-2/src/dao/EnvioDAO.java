@@ -1,6 +1,7 @@
 package dao;
 
-import config.DatabaseConnection;
+import cache.EstadisticasCache;
+import config.ConnectionProvider;
 import entities.EmpresaDeEnvio;
 import entities.Envio;
 import entities.EstadoDeEnvio;
@@ -11,7 +12,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * DAO de la entidad {@link Envio}. <br>
@@ -56,10 +61,43 @@ public class EnvioDAO implements GenericDAO<Envio> {
     private static final String SELECT_BY_ID_SQL =
             "SELECT * FROM envios WHERE id = ? AND eliminado = FALSE";
 
+    /** Sentencia SQL para recorrer todos los trackings, incluidos los de envíos eliminados. */
+    private static final String SELECT_ALL_TRACKINGS_SQL =
+            "SELECT tracking FROM envios";
+
+    /** Sentencia SQL para contar todos los envíos, incluidos los eliminados. */
+    private static final String COUNT_ALL_SQL =
+            "SELECT COUNT(*) FROM envios";
+
     /** Sentencia SQL para obtener todos los envíos activos. */
     private static final String SELECT_ALL_SQL =
             "SELECT * FROM envios WHERE eliminado = FALSE";
 
+    /** SQL de {@link #findByCriteria(EnvioCriteria)} ya armado, por forma de consulta. */
+    private static final Map<CriteriaSql.Shape, String> CRITERIA_SQL = new ConcurrentHashMap<>();
+
+    /** Origen de las conexiones utilizadas por los métodos no transaccionales. */
+    private final ConnectionProvider connectionProvider;
+
+    /**
+     * Crea el DAO utilizando el proveedor de conexiones indicado.
+     *
+     * @param connectionProvider proveedor de conexiones (pool o DriverManager)
+     */
+    public EnvioDAO(ConnectionProvider connectionProvider) {
+        if (connectionProvider == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * @return proveedor de conexiones del DAO (lo reutilizan los decoradores)
+     */
+    ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
+    }
+
     // -------------------------------------------------------------------------
     // Métodos CRUD del GenericDAO
     // -------------------------------------------------------------------------
@@ -69,16 +107,17 @@ public class EnvioDAO implements GenericDAO<Envio> {
      * Asigna al objeto {@link Envio} el ID generado por la base de datos.
      *
      * @param envio envío a persistir
+     * @throws DuplicateTrackingException si ya existe un envío con el mismo tracking
      * @throws SQLException si ocurre un error al preparar la sentencia,
      *                      ejecutar el INSERT o recuperar la clave generada
      */
     @Override
     public void save(Envio envio) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             setEnvioValues(stmt, envio);
-            stmt.executeUpdate();
+            executeInsert(stmt, envio);
             setGeneratedId(stmt, envio);
         }
     }
@@ -89,17 +128,35 @@ public class EnvioDAO implements GenericDAO<Envio> {
      *
      * @param envio envío a persistir
      * @param conn conexión transaccional a reutilizar
+     * @throws DuplicateTrackingException si ya existe un envío con el mismo tracking
      * @throws SQLException si ocurre un error al preparar o ejecutar la sentencia SQL
      */
     @Override
     public void saveTx(Envio envio, Connection conn) throws SQLException {
         try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             setEnvioValues(stmt, envio);
-            stmt.executeUpdate();
+            executeInsert(stmt, envio);
             setGeneratedId(stmt, envio);
         }
     }
 
+    /**
+     * Guarda varios envíos nuevos con batching JDBC reutilizando la conexión
+     * indicada. Asigna a cada envío el ID generado por la base.
+     *
+     * @param envios envíos a persistir
+     * @param conn conexión transaccional a reutilizar
+     * @throws DuplicateTrackingException si alguno de los trackings ya existe
+     * @throws SQLException si ocurre un error al ejecutar algún lote
+     */
+    @Override
+    public void saveAll(Collection<Envio> envios, Connection conn) throws SQLException {
+        BatchInserts.insertAll(conn, INSERT_SQL, envios, this::setEnvioValues, Envio::setId, (envio, e) ->
+                DuplicateTrackingException.isDuplicateKey(e)
+                        ? new DuplicateTrackingException(envio != null ? envio.getTracking() : null, e)
+                        : e);
+    }
+
     /**
      * Actualiza los datos de un envío existente en la base.
      *
@@ -108,7 +165,7 @@ public class EnvioDAO implements GenericDAO<Envio> {
      */
     @Override
     public void update(Envio envio) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
 
             stmt.setString(1, envio.getTracking());
@@ -146,7 +203,7 @@ public class EnvioDAO implements GenericDAO<Envio> {
      */
     @Override
     public void delete(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
 
             stmt.setInt(1, id);
@@ -167,7 +224,7 @@ public class EnvioDAO implements GenericDAO<Envio> {
      */
     @Override
     public Envio findById(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
 
             stmt.setInt(1, id);
@@ -191,7 +248,7 @@ public class EnvioDAO implements GenericDAO<Envio> {
     public List<Envio> findAll() throws SQLException {
         List<Envio> envios = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -203,6 +260,76 @@ public class EnvioDAO implements GenericDAO<Envio> {
         return envios;
     }
 
+    /**
+     * Recorre todos los envíos activos en modo streaming (ver {@link GenericDAO#streamAll()}).
+     * La conexión se cierra al cerrar el stream.
+     *
+     * @return stream perezoso de envíos activos
+     * @throws SQLException si ocurre un error al obtener la conexión o ejecutar la consulta
+     */
+    @Override
+    public Stream<Envio> streamAll() throws SQLException {
+        return ResultSetStreams.stream(connectionProvider.getReadOnlyConnection(), SELECT_ALL_SQL, this::mapResultSetToEnvio);
+    }
+
+    /**
+     * Obtiene una página de envíos activos con paginación por clave. <br>
+     * El orden por fecha usa {@code fecha_despacho}, que admite nulos: MySQL
+     * ordena los {@code NULL} primero, así que si el último envío visto no
+     * tenía fecha la página siguiente continúa con los nulos de ID mayor y
+     * luego con todos los envíos fechados. Esas dos partes se piden con un
+     * {@code UNION ALL}, para que cada una sea un único rango del índice
+     * {@code (eliminado, fecha_despacho, id)}.
+     *
+     * @param request tamaño, orden y clave del último envío visto
+     * @return página de envíos
+     * @throws SQLException si ocurre un error al ejecutar la consulta
+     */
+    @Override
+    public Page<Envio> findPage(PageRequest request) throws SQLException {
+        boolean porFecha = request.getOrder() == PageRequest.Order.FECHA;
+        StringBuilder sql = new StringBuilder(SELECT_ALL_SQL);
+        List<Object> params = new ArrayList<>();
+
+        if (!request.isFirst()) {
+            if (!porFecha) {
+                sql.append(" AND id > ?");
+                params.add(request.getAfterId());
+            } else if (request.getAfterFecha() == null) {
+                sql.insert(0, '(')
+                        .append(" AND fecha_despacho IS NULL AND id > ? ORDER BY id LIMIT ?) UNION ALL (")
+                        .append(SELECT_ALL_SQL)
+                        .append(" AND fecha_despacho IS NOT NULL ORDER BY fecha_despacho, id LIMIT ?)");
+                params.add(request.getAfterId());
+                params.add(request.getSize() + 1);
+                params.add(request.getSize() + 1);
+            } else {
+                java.sql.Date fecha = java.sql.Date.valueOf(request.getAfterFecha());
+                sql.append(" AND (fecha_despacho > ? OR (fecha_despacho = ? AND id > ?))");
+                params.add(fecha);
+                params.add(fecha);
+                params.add(request.getAfterId());
+            }
+        }
+        sql.append(porFecha ? " ORDER BY fecha_despacho, id" : " ORDER BY id").append(" LIMIT ?");
+        params.add(request.getSize() + 1);
+
+        List<Envio> envios = new ArrayList<>();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    envios.add(mapResultSetToEnvio(rs));
+                }
+            }
+        }
+        return Page.fromRows(envios, request, Envio::getId, Envio::getFechaDespacho);
+    }
+
     // -------------------------------------------------------------------------
     // Consultas adicionales
     // -------------------------------------------------------------------------
@@ -231,10 +358,92 @@ public class EnvioDAO implements GenericDAO<Envio> {
         return envio;
     }
 
+    /**
+     * Busca los envíos activos que cumplen el criterio, resolviendo filtros,
+     * orden y límite en una sola sentencia parametrizada. El texto SQL se
+     * arma una vez por forma de consulta y se reutiliza.
+     *
+     * @param criteria filtros, orden y límite
+     * @return envíos que cumplen el criterio
+     * @throws SQLException si ocurre un error al ejecutar la consulta
+     */
+    public List<Envio> findByCriteria(EnvioCriteria criteria) throws SQLException {
+        CriteriaSql query = criteria.toSql();
+        String sql = CRITERIA_SQL.computeIfAbsent(query.shape(), shape -> query.toSql(SELECT_ALL_SQL));
+
+        List<Envio> envios = new ArrayList<>();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            query.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    envios.add(mapResultSetToEnvio(rs));
+                }
+            }
+        }
+        return envios;
+    }
+
+    /**
+     * Recorre en modo streaming los trackings de todos los envíos, incluidos
+     * los eliminados (el UNIQUE de {@code tracking} también los abarca).
+     * La conexión se cierra al cerrar el stream.
+     *
+     * @return stream perezoso de trackings
+     * @throws SQLException si ocurre un error al obtener la conexión o ejecutar la consulta
+     */
+    public Stream<String> streamAllTrackings() throws SQLException {
+        return ResultSetStreams.stream(connectionProvider.getConnection(), SELECT_ALL_TRACKINGS_SQL,
+                rs -> rs.getString(1));
+    }
+
+    /**
+     * Cuenta todos los envíos, incluidos los eliminados.
+     *
+     * @return cantidad de filas de {@code envios}
+     * @throws SQLException si ocurre un error al ejecutar la consulta SQL
+     */
+    public long countAll() throws SQLException {
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_ALL_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * @return contadores de la cache de segundo nivel, o {@code null} si este
+     * DAO no tiene cache (ver {@link CachingEnvioDAO})
+     */
+    public EstadisticasCache getEstadisticas() {
+        return null;
+    }
+
     // -------------------------------------------------------------------------
     // Métodos auxiliares
     // -------------------------------------------------------------------------
 
+    /**
+     * Ejecuta el INSERT de un envío traduciendo la violación del UNIQUE de
+     * {@code tracking} a {@link DuplicateTrackingException}.
+     *
+     * @param stmt sentencia INSERT con los valores ya asignados
+     * @param envio envío que se inserta
+     * @throws SQLException si falla el INSERT
+     */
+    private void executeInsert(PreparedStatement stmt, Envio envio) throws SQLException {
+        try {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            if (DuplicateTrackingException.isDuplicateKey(e)) {
+                throw new DuplicateTrackingException(envio.getTracking(), e);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Setea los parámetros del {@link PreparedStatement} con los valores del envío,
      * respetando el orden definido en {@link #INSERT_SQL}.
@@ -287,19 +496,35 @@ public class EnvioDAO implements GenericDAO<Envio> {
      * @throws SQLException si ocurre un error al leer una columna
      */
     private Envio mapResultSetToEnvio(ResultSet rs) throws SQLException {
+        return mapEnvioColumns(rs, "");
+    }
+
+    /**
+     * Mapea las columnas de {@code envios} de la fila actual a un {@link Envio},
+     * anteponiendo {@code prefix} al nombre de cada columna. <br>
+     * Permite reutilizar el mapeo desde consultas con JOIN (por ejemplo en
+     * {@link PedidoDAO}) donde las columnas del envío se seleccionan con alias
+     * como {@code envio_id}, {@code envio_tracking}, etc.
+     *
+     * @param rs fila del resultado
+     * @param prefix prefijo de los alias de columna ({@code ""} si no hay alias)
+     * @return instancia de {@link Envio}
+     * @throws SQLException si ocurre un error al leer una columna
+     */
+    static Envio mapEnvioColumns(ResultSet rs, String prefix) throws SQLException {
 
-        java.sql.Date fechaDespachoSql = rs.getDate("fecha_despacho");
-        java.sql.Date fechaEstimadaSql = rs.getDate("fecha_estimada");
+        java.sql.Date fechaDespachoSql = rs.getDate(prefix + "fecha_despacho");
+        java.sql.Date fechaEstimadaSql = rs.getDate(prefix + "fecha_estimada");
 
         return new Envio(
-                rs.getLong("id"),
-                rs.getString("tracking"),
-                EmpresaDeEnvio.valueOf(rs.getString("empresa")),
-                TipoDeEnvio.valueOf(rs.getString("tipo")),
-                rs.getDouble("costo"),
+                rs.getLong(prefix + "id"),
+                rs.getString(prefix + "tracking"),
+                EmpresaDeEnvio.valueOf(rs.getString(prefix + "empresa")),
+                TipoDeEnvio.valueOf(rs.getString(prefix + "tipo")),
+                rs.getDouble(prefix + "costo"),
                 fechaDespachoSql != null ? fechaDespachoSql.toLocalDate() : null,
                 fechaEstimadaSql != null ? fechaEstimadaSql.toLocalDate() : null,
-                EstadoDeEnvio.valueOf(rs.getString("estado"))
+                EstadoDeEnvio.valueOf(rs.getString(prefix + "estado"))
         );
     }
 
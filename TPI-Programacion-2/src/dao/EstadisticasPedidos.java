@@ -0,0 +1,142 @@
+package dao;
+
+import entities.EmpresaDeEnvio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import entities.TipoDeEnvio;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Estadísticas agrupadas de los pedidos activos, calculadas por
+ * {@link PedidoDAO#aggregateStats()} con una sola consulta. <br>
+ *
+ * La consulta agrupa por la combinación (estado, empresa, tipo, estado del
+ * envío, mes), que
+ * tiene pocas celdas, y cada dimensión se obtiene sumando esas celdas en
+ * memoria; así un único recorrido de la tabla alcanza para todos los
+ * cortes. Las métricas de envío sólo cuentan los pedidos con envío activo,
+ * y los cortes por empresa, tipo y estado del envío excluyen a los pedidos
+ * sin envío.
+ */
+public final class EstadisticasPedidos {
+
+    /**
+     * Métricas de un grupo de pedidos: cantidad y suma/mínimo/máximo del
+     * total del pedido y del costo del envío. Si no hay valores, los
+     * mínimos y máximos son infinitos (ver {@link #VACIA}).
+     *
+     * @param cantidad cantidad de pedidos
+     * @param sumaTotal suma de {@code pedidos.total}
+     * @param minTotal menor {@code pedidos.total}
+     * @param maxTotal mayor {@code pedidos.total}
+     * @param cantidadEnvios cantidad de pedidos con envío activo
+     * @param sumaCosto suma de {@code envios.costo}
+     * @param minCosto menor {@code envios.costo}
+     * @param maxCosto mayor {@code envios.costo}
+     */
+    public record Metricas(long cantidad, double sumaTotal, double minTotal, double maxTotal,
+                           long cantidadEnvios, double sumaCosto, double minCosto, double maxCosto) {
+
+        /** Métricas de un grupo sin pedidos; neutro para {@link #combinar(Metricas)}. */
+        public static final Metricas VACIA = new Metricas(0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+        /**
+         * @return promedio de {@code pedidos.total} (0 si no hay pedidos)
+         */
+        public double promedioTotal() {
+            return cantidad == 0 ? 0 : sumaTotal / cantidad;
+        }
+
+        /**
+         * @return promedio de {@code envios.costo} (0 si no hay envíos)
+         */
+        public double promedioCosto() {
+            return cantidadEnvios == 0 ? 0 : sumaCosto / cantidadEnvios;
+        }
+
+        /**
+         * @param otra métricas de otro grupo
+         * @return métricas de la unión de ambos grupos
+         */
+        public Metricas combinar(Metricas otra) {
+            return new Metricas(
+                    cantidad + otra.cantidad,
+                    sumaTotal + otra.sumaTotal,
+                    Math.min(minTotal, otra.minTotal),
+                    Math.max(maxTotal, otra.maxTotal),
+                    cantidadEnvios + otra.cantidadEnvios,
+                    sumaCosto + otra.sumaCosto,
+                    Math.min(minCosto, otra.minCosto),
+                    Math.max(maxCosto, otra.maxCosto));
+        }
+    }
+
+    private Metricas general = Metricas.VACIA;
+    private final Map<EstadoDePedido, Metricas> porEstado = new EnumMap<>(EstadoDePedido.class);
+    private final Map<EmpresaDeEnvio, Metricas> porEmpresa = new EnumMap<>(EmpresaDeEnvio.class);
+    private final Map<TipoDeEnvio, Metricas> porTipo = new EnumMap<>(TipoDeEnvio.class);
+    private final Map<EstadoDeEnvio, Metricas> porEstadoEnvio = new EnumMap<>(EstadoDeEnvio.class);
+    private final SortedMap<YearMonth, Metricas> porMes = new TreeMap<>();
+
+    EstadisticasPedidos() {
+    }
+
+    /**
+     * Suma una celda de la consulta agrupada a cada dimensión.
+     *
+     * @param empresa empresa del envío, o {@code null} si el pedido no tiene envío activo
+     * @param tipo tipo del envío, o {@code null} si el pedido no tiene envío activo
+     * @param estadoEnvio estado del envío, o {@code null} si el pedido no tiene envío activo
+     */
+    void agregar(EstadoDePedido estado, EmpresaDeEnvio empresa, TipoDeEnvio tipo, EstadoDeEnvio estadoEnvio,
+                 YearMonth mes, Metricas celda) {
+        general = general.combinar(celda);
+        porEstado.merge(estado, celda, Metricas::combinar);
+        porMes.merge(mes, celda, Metricas::combinar);
+        if (empresa != null) {
+            porEmpresa.merge(empresa, celda, Metricas::combinar);
+        }
+        if (tipo != null) {
+            porTipo.merge(tipo, celda, Metricas::combinar);
+        }
+        if (estadoEnvio != null) {
+            porEstadoEnvio.merge(estadoEnvio, celda, Metricas::combinar);
+        }
+    }
+
+    /**
+     * @return métricas de todos los pedidos activos
+     */
+    public Metricas getGeneral() {
+        return general;
+    }
+
+    public Map<EstadoDePedido, Metricas> getPorEstado() {
+        return Collections.unmodifiableMap(porEstado);
+    }
+
+    public Map<EmpresaDeEnvio, Metricas> getPorEmpresa() {
+        return Collections.unmodifiableMap(porEmpresa);
+    }
+
+    public Map<TipoDeEnvio, Metricas> getPorTipo() {
+        return Collections.unmodifiableMap(porTipo);
+    }
+
+    public Map<EstadoDeEnvio, Metricas> getPorEstadoEnvio() {
+        return Collections.unmodifiableMap(porEstadoEnvio);
+    }
+
+    /**
+     * @return métricas por mes de {@code pedidos.fecha}, en orden cronológico
+     */
+    public SortedMap<YearMonth, Metricas> getPorMes() {
+        return Collections.unmodifiableSortedMap(porMes);
+    }
+}
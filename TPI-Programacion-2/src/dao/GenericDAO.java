@@ -2,7 +2,10 @@ package dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interfaz genérica para los Data Access Objects (DAO). <br>
@@ -35,6 +38,18 @@ public interface GenericDAO<T> {
      */
     void saveTx(T entity, Connection conn) throws SQLException;
 
+    /**
+     * Persiste varias entidades nuevas con batching JDBC utilizando una
+     * conexión existente. Las filas se envían en lotes (una sola ida y vuelta
+     * por lote) y a cada entidad se le asigna su ID generado. No hace commit:
+     * el llamador controla la transacción.
+     *
+     * @param entities entidades a guardar
+     * @param conn     conexión a reutilizar dentro de la transacción
+     * @throws SQLException si ocurre un error al ejecutar algún lote
+     */
+    void saveAll(Collection<T> entities, Connection conn) throws SQLException;
+
     /**
      * Actualiza los datos de una entidad existente en la base de datos.
      *
@@ -70,5 +85,44 @@ public interface GenericDAO<T> {
      * @throws SQLException si ocurre un error al acceder a la base de datos
      */
     List<T> findAll() throws SQLException;
-}
 
+    /**
+     * Recorre todas las entidades sin cargarlas completas en memoria. <br>
+     * A diferencia de {@link #findAll()}, el resultado se lee fila por fila
+     * desde un cursor forward-only, por lo que el consumo de memoria es
+     * constante sin importar el tamaño de la tabla. El stream mantiene una
+     * conexión abierta hasta que se cierra, por lo que debe usarse siempre
+     * con try-with-resources. Los errores SQL ocurridos durante el recorrido
+     * se propagan como {@link DataAccessException}.
+     *
+     * @return stream perezoso de entidades que debe cerrarse al terminar
+     * @throws SQLException si ocurre un error al ejecutar la consulta
+     */
+    Stream<T> streamAll() throws SQLException;
+
+    /**
+     * Variante con callback de {@link #streamAll()}: aplica {@code action} a
+     * cada entidad y cierra los recursos al terminar, incluso ante errores.
+     *
+     * @param action acción a ejecutar por cada entidad
+     * @throws SQLException si ocurre un error al ejecutar o recorrer la consulta
+     */
+    default void forEachAll(Consumer<? super T> action) throws SQLException {
+        try (Stream<T> stream = streamAll()) {
+            stream.forEach(action);
+        } catch (DataAccessException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Obtiene una página de entidades usando paginación por clave (keyset).
+     * El costo de cada página es un rango sobre el índice, independiente de
+     * cuántas páginas se hayan recorrido antes.
+     *
+     * @param request tamaño de página, orden y clave del último elemento visto
+     * @return página de entidades con el pedido de la página siguiente, si la hay
+     * @throws SQLException si ocurre un error al ejecutar la consulta
+     */
+    Page<T> findPage(PageRequest request) throws SQLException;
+}
@@ -0,0 +1,108 @@
+package dao;
+
+import cache.EstadisticasCache;
+import entities.Envio;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import metricas.Metricas;
+
+/**
+ * Decorador de {@link EnvioDAO} que registra en {@link Metricas} la
+ * latencia, los errores y las filas devueltas de cada método, con el nombre
+ * {@code EnvioDAO.<metodo>}. Delega en otro {@code EnvioDAO}, así que puede
+ * envolver también a un {@link CachingEnvioDAO} (midiendo los aciertos de
+ * la cache). Se activa con {@code metrics.enabled=true} (por defecto).
+ */
+public class InstrumentedEnvioDAO extends EnvioDAO {
+
+    private static final String PREFIJO = "EnvioDAO.";
+
+    private final EnvioDAO delegate;
+    private final Metricas metricas;
+
+    /**
+     * @param delegate DAO que hace el trabajo
+     * @param metricas registro de métricas
+     */
+    public InstrumentedEnvioDAO(EnvioDAO delegate, Metricas metricas) {
+        super(delegate.getConnectionProvider());
+        if (metricas == null) {
+            throw new IllegalArgumentException("Metricas no puede ser null");
+        }
+        this.delegate = delegate;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public void save(Envio envio) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "save", () -> delegate.save(envio));
+    }
+
+    @Override
+    public void saveTx(Envio envio, Connection conn) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "saveTx", () -> delegate.saveTx(envio, conn));
+    }
+
+    @Override
+    public void saveAll(Collection<Envio> envios, Connection conn) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "saveAll", () -> delegate.saveAll(envios, conn));
+    }
+
+    @Override
+    public void update(Envio envio) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "update", () -> delegate.update(envio));
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "delete", () -> delegate.delete(id));
+    }
+
+    @Override
+    public Envio findById(int id) throws SQLException {
+        return metricas.medir(PREFIJO + "findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Envio> findAll() throws SQLException {
+        return metricas.medir(PREFIJO + "findAll", delegate::findAll);
+    }
+
+    @Override
+    public Stream<Envio> streamAll() throws SQLException {
+        return metricas.medir(PREFIJO + "streamAll", delegate::streamAll);
+    }
+
+    @Override
+    public Page<Envio> findPage(PageRequest request) throws SQLException {
+        return metricas.medir(PREFIJO + "findPage", () -> delegate.findPage(request));
+    }
+
+    @Override
+    public Envio findByTracking(String tracking, Connection connection) throws SQLException {
+        return metricas.medir(PREFIJO + "findByTracking", () -> delegate.findByTracking(tracking, connection));
+    }
+
+    @Override
+    public List<Envio> findByCriteria(EnvioCriteria criteria) throws SQLException {
+        return metricas.medir(PREFIJO + "findByCriteria", () -> delegate.findByCriteria(criteria));
+    }
+
+    @Override
+    public Stream<String> streamAllTrackings() throws SQLException {
+        return metricas.medir(PREFIJO + "streamAllTrackings", delegate::streamAllTrackings);
+    }
+
+    @Override
+    public long countAll() throws SQLException {
+        return metricas.medir(PREFIJO + "countAll", delegate::countAll);
+    }
+
+    @Override
+    public EstadisticasCache getEstadisticas() {
+        return delegate.getEstadisticas();
+    }
+}
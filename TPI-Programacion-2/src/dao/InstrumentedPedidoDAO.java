@@ -0,0 +1,128 @@
+package dao;
+
+import entities.Pedido;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import metricas.Metricas;
+
+/**
+ * Decorador de {@link PedidoDAO} que registra en {@link Metricas} la
+ * latencia, los errores y las filas devueltas de cada método, con el nombre
+ * {@code PedidoDAO.<metodo>}. Los métodos que devuelven un stream se miden
+ * hasta que el stream queda abierto (conexión y ejecución de la consulta),
+ * no mientras se recorre. Se activa con {@code metrics.enabled=true} (por
+ * defecto).
+ */
+public class InstrumentedPedidoDAO extends PedidoDAO {
+
+    private static final String PREFIJO = "PedidoDAO.";
+
+    private final PedidoDAO delegate;
+    private final Metricas metricas;
+
+    /**
+     * @param delegate DAO que hace el trabajo
+     * @param metricas registro de métricas
+     */
+    public InstrumentedPedidoDAO(PedidoDAO delegate, Metricas metricas) {
+        super(delegate.getConnectionProvider());
+        if (metricas == null) {
+            throw new IllegalArgumentException("Metricas no puede ser null");
+        }
+        this.delegate = delegate;
+        this.metricas = metricas;
+    }
+
+    @Override
+    public void save(Pedido pedido) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "save", () -> delegate.save(pedido));
+    }
+
+    @Override
+    public void saveTx(Pedido pedido, Connection conn) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "saveTx", () -> delegate.saveTx(pedido, conn));
+    }
+
+    @Override
+    public void saveAll(Collection<Pedido> pedidos, Connection conn) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "saveAll", () -> delegate.saveAll(pedidos, conn));
+    }
+
+    @Override
+    public void saveWithEnvio(Pedido pedido) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "saveWithEnvio", () -> delegate.saveWithEnvio(pedido));
+    }
+
+    @Override
+    public Pedido findById(int id) throws SQLException {
+        return metricas.medir(PREFIJO + "findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Pedido> findAll() throws SQLException {
+        return metricas.medir(PREFIJO + "findAll", delegate::findAll);
+    }
+
+    @Override
+    public Stream<Pedido> streamAll() throws SQLException {
+        return metricas.medir(PREFIJO + "streamAll", delegate::streamAll);
+    }
+
+    @Override
+    public Stream<Pedido> streamByIdRange(long desdeId, long hastaId) throws SQLException {
+        return metricas.medir(PREFIJO + "streamByIdRange", () -> delegate.streamByIdRange(desdeId, hastaId));
+    }
+
+    @Override
+    public long[] findActiveIdBounds() throws SQLException {
+        return metricas.medir(PREFIJO + "findActiveIdBounds", delegate::findActiveIdBounds);
+    }
+
+    @Override
+    public Page<Pedido> findPage(PageRequest request) throws SQLException {
+        return metricas.medir(PREFIJO + "findPage", () -> delegate.findPage(request));
+    }
+
+    @Override
+    public void update(Pedido pedido) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "update", () -> delegate.update(pedido));
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        metricas.medirSinResultado(PREFIJO + "delete", () -> delegate.delete(id));
+    }
+
+    @Override
+    public List<Pedido> findByClient(String cliente) throws SQLException {
+        return metricas.medir(PREFIJO + "findByClient", () -> delegate.findByClient(cliente));
+    }
+
+    @Override
+    public Pedido findByNumber(String numero) throws SQLException {
+        return metricas.medir(PREFIJO + "findByNumber", () -> delegate.findByNumber(numero));
+    }
+
+    @Override
+    public List<Pedido> findByCriteria(PedidoCriteria criteria) throws SQLException {
+        return metricas.medir(PREFIJO + "findByCriteria", () -> delegate.findByCriteria(criteria));
+    }
+
+    @Override
+    public long countActives() throws SQLException {
+        return metricas.medir(PREFIJO + "countActives", delegate::countActives);
+    }
+
+    @Override
+    public double totalActivesValue() throws SQLException {
+        return metricas.medir(PREFIJO + "totalActivesValue", delegate::totalActivesValue);
+    }
+
+    @Override
+    public EstadisticasPedidos aggregateStats() throws SQLException {
+        return metricas.medir(PREFIJO + "aggregateStats", delegate::aggregateStats);
+    }
+}
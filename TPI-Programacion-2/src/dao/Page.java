@@ -0,0 +1,68 @@
+package dao;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados obtenida con {@link PageRequest}.
+ *
+ * @param <T> tipo de los elementos
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final PageRequest next;
+
+    /**
+     * @param items elementos de la página
+     * @param next pedido de la página siguiente, o {@code null} si es la última
+     */
+    public Page(List<T> items, PageRequest next) {
+        this.items = Collections.unmodifiableList(items);
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return pedido de la página siguiente, o {@code null} si no hay más elementos
+     */
+    public PageRequest getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Arma una página a partir de las filas leídas por un DAO, que debe pedir
+     * {@code request.getSize() + 1} filas: si llegó la fila extra, hay página
+     * siguiente y su clave se toma del último elemento conservado.
+     *
+     * @param rows filas leídas (hasta {@code size + 1})
+     * @param request pedido de página utilizado en la consulta
+     * @param id extrae el ID de un elemento
+     * @param fecha extrae la fecha de orden de un elemento
+     * @param <T> tipo de los elementos
+     * @return página con a lo sumo {@code size} elementos
+     */
+    static <T> Page<T> fromRows(List<T> rows, PageRequest request,
+                                Function<T, Long> id, Function<T, LocalDate> fecha) {
+        if (rows.size() <= request.getSize()) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, request.getSize());
+        T last = items.get(items.size() - 1);
+        PageRequest next = PageRequest.after(request.getSize(), request.getOrder(), id.apply(last), fecha.apply(last));
+        return new Page<>(items, next);
+    }
+}
@@ -0,0 +1,108 @@
+package dao;
+
+import java.time.LocalDate;
+
+/**
+ * Pedido de una página para la paginación por clave (keyset / seek). <br>
+ *
+ * En lugar de un OFFSET, la página siguiente se define a partir de la
+ * clave del último elemento visto ({@code afterId} y, si se ordena por
+ * fecha, {@code afterFecha}). Así la base hace un rango sobre el índice
+ * y la página 10.000 cuesta lo mismo que la primera. Las instancias son
+ * inmutables; la página siguiente se obtiene con {@link Page#getNext()}.
+ */
+public final class PageRequest {
+
+    /** Criterio de orden de la paginación. */
+    public enum Order {
+        /** Orden por ID ascendente. */
+        ID,
+        /** Orden por fecha ascendente y, a igual fecha, por ID. */
+        FECHA
+    }
+
+    /** Tamaño máximo de página admitido. */
+    public static final int MAX_SIZE = 1000;
+
+    private final int size;
+    private final Order order;
+    private final Long afterId;
+    private final LocalDate afterFecha;
+
+    private PageRequest(int size, Order order, Long afterId, LocalDate afterFecha) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_SIZE);
+        }
+        if (order == null) {
+            throw new IllegalArgumentException("El orden de la página no puede ser null");
+        }
+        this.size = size;
+        this.order = order;
+        this.afterId = afterId;
+        this.afterFecha = afterFecha;
+    }
+
+    /**
+     * Crea el pedido de la primera página.
+     *
+     * @param size cantidad máxima de elementos por página
+     * @param order criterio de orden
+     * @return pedido de la primera página
+     */
+    public static PageRequest first(int size, Order order) {
+        return new PageRequest(size, order, null, null);
+    }
+
+    /**
+     * Crea el pedido de la primera página ordenada por ID.
+     *
+     * @param size cantidad máxima de elementos por página
+     * @return pedido de la primera página
+     */
+    public static PageRequest first(int size) {
+        return first(size, Order.ID);
+    }
+
+    /**
+     * Crea el pedido de la página que sigue a la clave indicada.
+     *
+     * @param size cantidad máxima de elementos por página
+     * @param order criterio de orden
+     * @param afterId ID del último elemento visto
+     * @param afterFecha fecha del último elemento visto (sólo para {@link Order#FECHA};
+     *                   puede ser {@code null} si la columna admite nulos)
+     * @return pedido de la página siguiente
+     */
+    public static PageRequest after(int size, Order order, long afterId, LocalDate afterFecha) {
+        return new PageRequest(size, order, afterId, afterFecha);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * @return ID del último elemento visto, o {@code null} si es la primera página
+     */
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * @return fecha del último elemento visto (sólo relevante al ordenar por fecha)
+     */
+    public LocalDate getAfterFecha() {
+        return afterFecha;
+    }
+
+    /**
+     * @return {@code true} si se pide la primera página
+     */
+    public boolean isFirst() {
+        return afterId == null;
+    }
+}
@@ -0,0 +1,204 @@
+package dao;
+
+import entities.EmpresaDeEnvio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import entities.TipoDeEnvio;
+import java.time.LocalDate;
+
+/**
+ * Criterio de búsqueda de pedidos activos para
+ * {@link PedidoDAO#findByCriteria(PedidoCriteria)}. <br>
+ *
+ * Además de los datos del pedido permite filtrar por los de su envío
+ * (empresa, tipo y estado), que se resuelven en el mismo JOIN con el que
+ * {@link PedidoDAO} carga los envíos. Todos los filtros son opcionales y se
+ * combinan con AND; los rangos admiten un extremo abierto ({@code null}).
+ * Las instancias son inmutables y se construyen con {@link #builder()}.
+ */
+public final class PedidoCriteria {
+
+    /** Criterio de orden del resultado; a igual valor se desempata por ID. */
+    public enum Order {
+        ID("p.id"),
+        FECHA("p.fecha"),
+        TOTAL("p.total");
+
+        private final String column;
+
+        Order(String column) {
+            this.column = column;
+        }
+    }
+
+    private final String cliente;
+    private final EstadoDePedido estado;
+    private final LocalDate fechaDesde;
+    private final LocalDate fechaHasta;
+    private final Double totalMinimo;
+    private final Double totalMaximo;
+    private final EmpresaDeEnvio empresa;
+    private final TipoDeEnvio tipoEnvio;
+    private final EstadoDeEnvio estadoEnvio;
+    private final Order order;
+    private final boolean descending;
+    private final Integer limit;
+
+    private PedidoCriteria(Builder b) {
+        this.cliente = b.cliente;
+        this.estado = b.estado;
+        this.fechaDesde = b.fechaDesde;
+        this.fechaHasta = b.fechaHasta;
+        this.totalMinimo = b.totalMinimo;
+        this.totalMaximo = b.totalMaximo;
+        this.empresa = b.empresa;
+        this.tipoEnvio = b.tipoEnvio;
+        this.estadoEnvio = b.estadoEnvio;
+        this.order = b.order;
+        this.descending = b.descending;
+        this.limit = b.limit;
+    }
+
+    /**
+     * @return builder de un criterio sin filtros, ordenado por ID y sin límite
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Traduce el criterio a SQL sobre {@code pedidos p LEFT JOIN envios e}.
+     * El orden de los filtros es fijo: forma parte de la forma de la consulta.
+     */
+    CriteriaSql toSql() {
+        String direction = descending ? " DESC" : "";
+        String orderBy = order == Order.ID
+                ? "p.id" + direction
+                : order.column + direction + ", p.id" + direction;
+        return new CriteriaSql()
+                .eq("p.clienteNombre", cliente)
+                .eq("p.estado", estado)
+                .atLeast("p.fecha", fechaDesde)
+                .atMost("p.fecha", fechaHasta)
+                .atLeast("p.total", totalMinimo)
+                .atMost("p.total", totalMaximo)
+                .eq("e.empresa", empresa)
+                .eq("e.tipo", tipoEnvio)
+                .eq("e.estado", estadoEnvio)
+                .orderBy(orderBy)
+                .limit(limit);
+    }
+
+    /**
+     * Builder de {@link PedidoCriteria}.
+     */
+    public static final class Builder {
+
+        private String cliente;
+        private EstadoDePedido estado;
+        private LocalDate fechaDesde;
+        private LocalDate fechaHasta;
+        private Double totalMinimo;
+        private Double totalMaximo;
+        private EmpresaDeEnvio empresa;
+        private TipoDeEnvio tipoEnvio;
+        private EstadoDeEnvio estadoEnvio;
+        private Order order = Order.ID;
+        private boolean descending;
+        private Integer limit;
+
+        private Builder() {
+        }
+
+        /**
+         * @param cliente nombre exacto del cliente
+         */
+        public Builder cliente(String cliente) {
+            this.cliente = cliente;
+            return this;
+        }
+
+        public Builder estado(EstadoDePedido estado) {
+            this.estado = estado;
+            return this;
+        }
+
+        /**
+         * @param desde fecha mínima del pedido (inclusive), o {@code null}
+         * @param hasta fecha máxima del pedido (inclusive), o {@code null}
+         */
+        public Builder fechaBetween(LocalDate desde, LocalDate hasta) {
+            if (desde != null && hasta != null && hasta.isBefore(desde)) {
+                throw new IllegalArgumentException("El rango de fechas es inválido");
+            }
+            this.fechaDesde = desde;
+            this.fechaHasta = hasta;
+            return this;
+        }
+
+        /**
+         * @param minimo total mínimo (inclusive), o {@code null}
+         * @param maximo total máximo (inclusive), o {@code null}
+         */
+        public Builder totalBetween(Double minimo, Double maximo) {
+            if (minimo != null && maximo != null && maximo < minimo) {
+                throw new IllegalArgumentException("El rango de totales es inválido");
+            }
+            this.totalMinimo = minimo;
+            this.totalMaximo = maximo;
+            return this;
+        }
+
+        /**
+         * @param empresa empresa del envío asociado
+         */
+        public Builder empresa(EmpresaDeEnvio empresa) {
+            this.empresa = empresa;
+            return this;
+        }
+
+        /**
+         * @param tipoEnvio tipo del envío asociado
+         */
+        public Builder tipoEnvio(TipoDeEnvio tipoEnvio) {
+            this.tipoEnvio = tipoEnvio;
+            return this;
+        }
+
+        /**
+         * @param estadoEnvio estado del envío asociado
+         */
+        public Builder estadoEnvio(EstadoDeEnvio estadoEnvio) {
+            this.estadoEnvio = estadoEnvio;
+            return this;
+        }
+
+        /**
+         * @param order criterio de orden
+         * @param descending {@code true} para orden descendente
+         */
+        public Builder orderBy(Order order, boolean descending) {
+            if (order == null) {
+                throw new IllegalArgumentException("El orden no puede ser null");
+            }
+            this.order = order;
+            this.descending = descending;
+            return this;
+        }
+
+        /**
+         * @param limit cantidad máxima de pedidos a devolver
+         */
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("El límite debe ser mayor a 0");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public PedidoCriteria build() {
+            return new PedidoCriteria(this);
+        }
+    }
+}
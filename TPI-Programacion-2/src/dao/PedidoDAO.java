@@ -1,16 +1,26 @@
 package dao;
 
-import config.DatabaseConnection;
+import config.ConnectionProvider;
+import config.TransactionContext;
+import entities.EmpresaDeEnvio;
 import entities.Envio;
+import entities.EstadoDeEnvio;
 import entities.EstadoDePedido;
 import entities.Pedido;
+import entities.TipoDeEnvio;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * DAO de la entidad {@link Pedido}. <br>
@@ -24,8 +34,9 @@ import java.util.List;
  * registros no eliminados.
  *
  * Además, este DAO resuelve la relación unidireccional 1:1 entre
- * {@link Pedido} y {@link Envio}, cargando el envío asociado para cada
- * pedido a partir de la clave foránea {@code envio}.
+ * {@link Pedido} y {@link Envio}: todas las lecturas hacen un JOIN con
+ * {@code envios} y cargan el envío en la misma consulta, por lo que listar
+ * N pedidos cuesta una sola consulta y no N+1.
  *
  * @author Oviedo Marcelo
  * @date 14 nov 2025
@@ -36,6 +47,13 @@ public class PedidoDAO implements GenericDAO<Pedido> {
     private static final String INSERT_SQL
             = "INSERT INTO pedidos (numero,fecha,clienteNombre,total,estado,envio) VALUES (?,?,?,?,?,?)";
 
+    /**
+     * Llamada al procedimiento {@code crear_pedido_con_envio} (migración V3):
+     * inserta el envío y el pedido en un solo viaje a la base.
+     */
+    private static final String CALL_CREATE_WITH_ENVIO_SQL
+            = "{CALL crear_pedido_con_envio(?,?,?,?,?,?,?,?,?,?,?,?)}";
+
     /** Sentencia SQL para actualizar un pedido existente. */
     private static final String UPDATE_SQL
             = "UPDATE pedidos SET numero=?, fecha=?, clienteNombre=?, total=?, estado=?, envio=? WHERE id=?";
@@ -44,20 +62,83 @@ public class PedidoDAO implements GenericDAO<Pedido> {
     private static final String DELETE_SQL
             = "UPDATE pedidos SET eliminado = TRUE WHERE id = ?";
 
+    /**
+     * Base de todas las lecturas de pedidos: trae el pedido y su envío en una
+     * sola sentencia. Las columnas del envío llevan el prefijo {@code envio_}
+     * para no chocar con las del pedido ({@code id}, {@code estado}). <br>
+     * Se usa LEFT JOIN filtrando {@code e.eliminado} en la condición para que un
+     * pedido cuyo envío fue eliminado siga apareciendo, con envío {@code null}.
+     */
+    private static final String SELECT_WITH_ENVIO_SQL
+            = "SELECT p.id, p.numero, p.fecha, p.clienteNombre, p.total, p.estado, "
+            + "e.id AS envio_id, e.tracking AS envio_tracking, e.empresa AS envio_empresa, "
+            + "e.tipo AS envio_tipo, e.costo AS envio_costo, e.fecha_despacho AS envio_fecha_despacho, "
+            + "e.fecha_estimada AS envio_fecha_estimada, e.estado AS envio_estado "
+            + "FROM pedidos p LEFT JOIN envios e ON e.id = p.envio AND e.eliminado = FALSE ";
+
     /** Sentencia SQL para buscar un pedido por ID (sólo no eliminados). */
     private static final String SELECT_BY_ID_SQL
-            = "SELECT * FROM pedidos WHERE id = ? AND eliminado = FALSE";
+            = SELECT_WITH_ENVIO_SQL + "WHERE p.id = ? AND p.eliminado = FALSE";
 
     /** Sentencia SQL para obtener todos los pedidos no eliminados. */
     private static final String SELECT_ALL_SQL
-            = "SELECT * FROM pedidos WHERE eliminado = FALSE";
+            = SELECT_WITH_ENVIO_SQL + "WHERE p.eliminado = FALSE";
+
+    /** Sentencia SQL para recorrer los pedidos de un rango de IDs, en orden. */
+    private static final String SELECT_BY_ID_RANGE_SQL
+            = SELECT_WITH_ENVIO_SQL + "WHERE p.eliminado = FALSE AND p.id BETWEEN ? AND ? ORDER BY p.id";
+
+    /** Sentencia SQL para obtener el menor y el mayor ID de los pedidos activos. */
+    private static final String SELECT_ID_BOUNDS_SQL
+            = "SELECT MIN(id), MAX(id) FROM pedidos WHERE eliminado = FALSE";
+
+    /** Sentencia SQL para buscar los pedidos de un cliente. */
+    private static final String SELECT_BY_CLIENT_SQL
+            = SELECT_WITH_ENVIO_SQL + "WHERE p.clienteNombre = ? AND p.eliminado = FALSE";
+
+    /** Sentencia SQL para buscar un pedido por su número. */
+    private static final String SELECT_BY_NUMBER_SQL
+            = SELECT_WITH_ENVIO_SQL + "WHERE p.numero = ? AND p.eliminado = FALSE";
 
     /**
-     * Constructor por defecto. <br>
-     * No realiza ninguna inicialización especial; se provee para cumplir
-     * con las convenciones de los DAOs.
+     * Sentencia SQL de {@link #aggregateStats()}: agrupa los pedidos activos
+     * por estado, empresa, tipo y estado del envío y mes, con las métricas de
+     * {@code total} y {@code costo} de cada celda. Las columnas del envío son
+     * {@code NULL} para los pedidos sin envío activo.
      */
-    public PedidoDAO() {
+    private static final String SELECT_STATS_SQL
+            = "SELECT p.estado, e.empresa, e.tipo, e.estado AS estado_envio, "
+            + "YEAR(p.fecha) AS anio, MONTH(p.fecha) AS mes, "
+            + "COUNT(*) AS cantidad, SUM(p.total) AS suma_total, MIN(p.total) AS min_total, MAX(p.total) AS max_total, "
+            + "COUNT(e.id) AS cantidad_envios, SUM(e.costo) AS suma_costo, MIN(e.costo) AS min_costo, "
+            + "MAX(e.costo) AS max_costo "
+            + "FROM pedidos p LEFT JOIN envios e ON e.id = p.envio AND e.eliminado = FALSE "
+            + "WHERE p.eliminado = FALSE "
+            + "GROUP BY p.estado, e.empresa, e.tipo, e.estado, YEAR(p.fecha), MONTH(p.fecha)";
+
+    /** SQL de {@link #findByCriteria(PedidoCriteria)} ya armado, por forma de consulta. */
+    private static final Map<CriteriaSql.Shape, String> CRITERIA_SQL = new ConcurrentHashMap<>();
+
+    /** Origen de las conexiones utilizadas por los métodos no transaccionales. */
+    private final ConnectionProvider connectionProvider;
+
+    /**
+     * Crea el DAO utilizando el proveedor de conexiones indicado.
+     *
+     * @param connectionProvider proveedor de conexiones (pool o DriverManager)
+     */
+    public PedidoDAO(ConnectionProvider connectionProvider) {
+        if (connectionProvider == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * @return proveedor de conexiones del DAO (lo reutilizan los decoradores)
+     */
+    ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
     }
 
     /**
@@ -71,7 +152,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
      */
     @Override
     public void save(Pedido pedido) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             setPedidoValues(stmt, pedido);
@@ -99,6 +180,66 @@ public class PedidoDAO implements GenericDAO<Pedido> {
         }
     }
 
+    /**
+     * Guarda varios pedidos nuevos con batching JDBC reutilizando la conexión
+     * indicada. Asigna a cada pedido el ID generado por la base.
+     *
+     * @param pedidos pedidos a persistir
+     * @param conn conexión transaccional a reutilizar
+     * @throws SQLException si ocurre un error al ejecutar algún lote
+     */
+    @Override
+    public void saveAll(Collection<Pedido> pedidos, Connection conn) throws SQLException {
+        BatchInserts.insertAll(conn, INSERT_SQL, pedidos, this::setPedidoValues, Pedido::setId);
+    }
+
+    /**
+     * Guarda un pedido nuevo junto con su envío (también nuevo) en un solo
+     * viaje a la base, mediante el procedimiento almacenado
+     * {@code crear_pedido_con_envio}. <br>
+     * El procedimiento abre y confirma su propia transacción, por lo que se
+     * usa una conexión propia en modo autocommit y no puede llamarse dentro
+     * de otra transacción. Asigna al pedido y al envío los IDs generados.
+     *
+     * @param pedido pedido a persistir, con su envío cargado
+     * @throws DuplicateTrackingException si ya existe un envío con el mismo tracking
+     * @throws SQLException si falla la llamada (nada queda insertado)
+     * @throws IllegalStateException si el hilo está dentro de una unidad de
+     * trabajo de {@link TransactionContext}, cuyo trabajo confirmaría el COMMIT
+     * del procedimiento
+     */
+    public void saveWithEnvio(Pedido pedido) throws SQLException {
+        if (connectionProvider instanceof TransactionContext contexto && contexto.isActive()) {
+            throw new IllegalStateException(
+                    "crear_pedido_con_envio hace su propio COMMIT y no puede usarse dentro de una transacción");
+        }
+        Envio envio = pedido.getEnvio();
+        try (Connection conn = connectionProvider.getConnection();
+             CallableStatement stmt = conn.prepareCall(CALL_CREATE_WITH_ENVIO_SQL)) {
+
+            stmt.setString(1, envio.getTracking());
+            stmt.setString(2, envio.getEmpresa().name());
+            stmt.setString(3, envio.getTipo().name());
+            stmt.setDouble(4, envio.getCosto());
+            stmt.setDate(5, envio.getFechaDespacho() != null ? java.sql.Date.valueOf(envio.getFechaDespacho()) : null);
+            stmt.setDate(6, envio.getFechaEstimada() != null ? java.sql.Date.valueOf(envio.getFechaEstimada()) : null);
+            stmt.setString(7, envio.getEstado().name());
+            stmt.setString(8, pedido.getNumero());
+            stmt.setDate(9, java.sql.Date.valueOf(pedido.getFecha()));
+            stmt.setString(10, pedido.getClienteNombre());
+            stmt.setDouble(11, pedido.getTotal());
+            stmt.setString(12, pedido.getEstado().name());
+
+            try (ResultSet rs = executeCall(stmt, envio)) {
+                if (rs == null || !rs.next()) {
+                    throw new SQLException("El procedimiento crear_pedido_con_envio no devolvió los IDs generados");
+                }
+                envio.setId(rs.getLong("envio_id"));
+                pedido.setId(rs.getLong("pedido_id"));
+            }
+        }
+    }
+
     /**
      * Busca un pedido por su identificador, siempre que no esté marcado como
      * eliminado.
@@ -109,7 +250,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
      */
     @Override
     public Pedido findById(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
 
             stmt.setInt(1, id);
@@ -132,7 +273,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
     public List<Pedido> findAll() throws SQLException {
         List<Pedido> pedidos = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -144,6 +285,102 @@ public class PedidoDAO implements GenericDAO<Pedido> {
         return pedidos;
     }
 
+    /**
+     * Recorre todos los pedidos activos en modo streaming (ver {@link GenericDAO#streamAll()}).
+     * La conexión se cierra al cerrar el stream.
+     *
+     * @return stream perezoso de pedidos activos
+     * @throws SQLException si ocurre un error al obtener la conexión o ejecutar la consulta
+     */
+    @Override
+    public Stream<Pedido> streamAll() throws SQLException {
+        return ResultSetStreams.stream(connectionProvider.getReadOnlyConnection(), SELECT_ALL_SQL, this::mapResultSetToPedido);
+    }
+
+    /**
+     * Recorre en modo streaming los pedidos activos cuyo ID está en
+     * {@code [desdeId, hastaId]}, ordenados por ID. Permite repartir una
+     * lectura completa de la tabla en rangos disjuntos procesados en
+     * paralelo, cada uno con su propia conexión.
+     *
+     * @param desdeId ID inicial (inclusive)
+     * @param hastaId ID final (inclusive)
+     * @return stream perezoso de pedidos que debe cerrarse al terminar
+     * @throws SQLException si ocurre un error al obtener la conexión o ejecutar la consulta
+     */
+    public Stream<Pedido> streamByIdRange(long desdeId, long hastaId) throws SQLException {
+        return ResultSetStreams.stream(connectionProvider.getReadOnlyConnection(), SELECT_BY_ID_RANGE_SQL,
+                this::mapResultSetToPedido, desdeId, hastaId);
+    }
+
+    /**
+     * Obtiene el menor y el mayor ID de los pedidos activos.
+     *
+     * @return arreglo {@code {min, max}}, o {@code null} si no hay pedidos activos
+     * @throws SQLException si ocurre un error al ejecutar la consulta SQL
+     */
+    public long[] findActiveIdBounds() throws SQLException {
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ID_BOUNDS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next() && rs.getObject(1) != null) {
+                return new long[]{rs.getLong(1), rs.getLong(2)};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene una página de pedidos activos con paginación por clave. <br>
+     * Ordenado por {@code id} filtra {@code p.id > ?}; ordenado por
+     * {@code fecha} filtra {@code (p.fecha, p.id) > (?, ?)} expandido para que
+     * MySQL resuelva un rango sobre el índice {@code (eliminado, fecha, id)}.
+     * Se lee una fila extra para saber si hay página siguiente.
+     *
+     * @param request tamaño, orden y clave del último pedido visto
+     * @return página de pedidos
+     * @throws SQLException si ocurre un error al ejecutar la consulta
+     */
+    @Override
+    public Page<Pedido> findPage(PageRequest request) throws SQLException {
+        boolean porFecha = request.getOrder() == PageRequest.Order.FECHA;
+        StringBuilder sql = new StringBuilder(SELECT_WITH_ENVIO_SQL).append("WHERE p.eliminado = FALSE");
+        List<Object> params = new ArrayList<>();
+
+        if (!request.isFirst()) {
+            if (porFecha) {
+                if (request.getAfterFecha() == null) {
+                    throw new IllegalArgumentException("La paginación por fecha requiere la fecha del último pedido");
+                }
+                java.sql.Date fecha = java.sql.Date.valueOf(request.getAfterFecha());
+                sql.append(" AND (p.fecha > ? OR (p.fecha = ? AND p.id > ?))");
+                params.add(fecha);
+                params.add(fecha);
+            } else {
+                sql.append(" AND p.id > ?");
+            }
+            params.add(request.getAfterId());
+        }
+        sql.append(porFecha ? " ORDER BY p.fecha, p.id" : " ORDER BY p.id").append(" LIMIT ?");
+        params.add(request.getSize() + 1);
+
+        List<Pedido> pedidos = new ArrayList<>();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    pedidos.add(mapResultSetToPedido(rs));
+                }
+            }
+        }
+        return Page.fromRows(pedidos, request, Pedido::getId, Pedido::getFecha);
+    }
+
     /**
      * Actualiza los datos de un pedido existente en la base de datos.
      *
@@ -153,7 +390,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
      */
     @Override
     public void update(Pedido pedido) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
 
             stmt.setString(1, pedido.getNumero());
@@ -179,7 +416,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
      */
     @Override
     public void delete(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
 
             stmt.setInt(1, id);
@@ -199,10 +436,8 @@ public class PedidoDAO implements GenericDAO<Pedido> {
      */
     public List<Pedido> findByClient(String cliente) throws SQLException {
         List<Pedido> pedidos = new ArrayList<>();
-        String sql = "SELECT * FROM pedidos WHERE clienteNombre = ? AND eliminado = FALSE";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_CLIENT_SQL)) {
 
             stmt.setString(1, cliente);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -222,10 +457,8 @@ public class PedidoDAO implements GenericDAO<Pedido> {
      * @throws SQLException si ocurre un error al ejecutar la consulta SQL
      */
     public Pedido findByNumber(String numero) throws SQLException {
-        String sql = "SELECT * FROM pedidos WHERE numero = ? AND eliminado = FALSE";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_NUMBER_SQL)) {
 
             stmt.setString(1, numero);
 
@@ -238,6 +471,36 @@ public class PedidoDAO implements GenericDAO<Pedido> {
         return null;
     }
 
+    /**
+     * Busca los pedidos activos (con su envío) que cumplen el criterio,
+     * resolviendo filtros, orden y límite en una sola sentencia
+     * parametrizada. El texto SQL se arma una vez por forma de consulta y se
+     * reutiliza. <br>
+     * Si el criterio filtra por datos del envío, los pedidos sin envío activo
+     * quedan excluidos.
+     *
+     * @param criteria filtros, orden y límite
+     * @return pedidos que cumplen el criterio
+     * @throws SQLException si ocurre un error al ejecutar la consulta
+     */
+    public List<Pedido> findByCriteria(PedidoCriteria criteria) throws SQLException {
+        CriteriaSql query = criteria.toSql();
+        String sql = CRITERIA_SQL.computeIfAbsent(query.shape(), shape -> query.toSql(SELECT_ALL_SQL));
+
+        List<Pedido> pedidos = new ArrayList<>();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            query.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    pedidos.add(mapResultSetToPedido(rs));
+                }
+            }
+        }
+        return pedidos;
+    }
+
     /**
      * Cuenta cuántos pedidos están activos (no eliminados).
      *
@@ -247,7 +510,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
     public long countActives() throws SQLException {
         String sql = "SELECT COUNT(*) FROM pedidos WHERE eliminado = FALSE";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -268,7 +531,7 @@ public class PedidoDAO implements GenericDAO<Pedido> {
     public double totalActivesValue() throws SQLException {
         String sql = "SELECT SUM(total) FROM pedidos WHERE eliminado = FALSE";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = connectionProvider.getReadOnlyConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -279,10 +542,69 @@ public class PedidoDAO implements GenericDAO<Pedido> {
         return 0;
     }
 
+    /**
+     * Calcula en una sola consulta la cantidad y suma/promedio/mínimo/máximo
+     * de {@code total} y {@code costo} de los pedidos activos, agrupadas por
+     * estado, empresa, tipo y estado de envío y mes.
+     *
+     * @return estadísticas agrupadas (vacías si no hay pedidos activos)
+     * @throws SQLException si ocurre un error al ejecutar la consulta SQL
+     */
+    public EstadisticasPedidos aggregateStats() throws SQLException {
+        EstadisticasPedidos estadisticas = new EstadisticasPedidos();
+
+        // Va al primario: siembra y concilia los contadores en memoria, que no toleran el retraso de una réplica
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_STATS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                String empresa = rs.getString("empresa");
+                String tipo = rs.getString("tipo");
+                String estadoEnvio = rs.getString("estado_envio");
+                long cantidadEnvios = rs.getLong("cantidad_envios");
+
+                EstadisticasPedidos.Metricas celda = new EstadisticasPedidos.Metricas(
+                        rs.getLong("cantidad"),
+                        rs.getDouble("suma_total"),
+                        rs.getDouble("min_total"),
+                        rs.getDouble("max_total"),
+                        cantidadEnvios,
+                        rs.getDouble("suma_costo"),
+                        cantidadEnvios == 0 ? Double.POSITIVE_INFINITY : rs.getDouble("min_costo"),
+                        cantidadEnvios == 0 ? Double.NEGATIVE_INFINITY : rs.getDouble("max_costo"));
+
+                estadisticas.agregar(
+                        EstadoDePedido.valueOf(rs.getString("estado")),
+                        empresa != null ? EmpresaDeEnvio.valueOf(empresa) : null,
+                        tipo != null ? TipoDeEnvio.valueOf(tipo) : null,
+                        estadoEnvio != null ? EstadoDeEnvio.valueOf(estadoEnvio) : null,
+                        YearMonth.of(rs.getInt("anio"), rs.getInt("mes")),
+                        celda);
+            }
+        }
+        return estadisticas;
+    }
+
     // -------------------------------------------------------------------------
     // Métodos auxiliares (helpers)
     // -------------------------------------------------------------------------
 
+    /**
+     * Ejecuta la llamada al procedimiento y devuelve su resultado, traduciendo
+     * una violación de clave única (el tracking) a {@link DuplicateTrackingException}.
+     */
+    private static ResultSet executeCall(CallableStatement stmt, Envio envio) throws SQLException {
+        try {
+            return stmt.execute() ? stmt.getResultSet() : null;
+        } catch (SQLException e) {
+            if (DuplicateTrackingException.isDuplicateKey(e)) {
+                throw new DuplicateTrackingException(envio.getTracking(), e);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Asigna los valores del objeto {@link Pedido} a los parámetros del
      * {@link PreparedStatement} respetando el orden definido en {@link #INSERT_SQL}. <br>
@@ -326,16 +648,17 @@ public class PedidoDAO implements GenericDAO<Pedido> {
     /**
      * Mapea la fila actual de un {@link ResultSet} a una instancia de
      * {@link Pedido}. <br>
-     * Además de los datos propios del pedido, resuelve la clave foránea
-     * {@code envio} cargando el {@link Envio} asociado mediante {@link EnvioDAO}.
+     * La fila debe provenir de {@link #SELECT_WITH_ENVIO_SQL}: el {@link Envio}
+     * asociado se construye a partir de las columnas {@code envio_*} de la
+     * misma fila, sin consultas adicionales. Si el envío no existe o está
+     * eliminado, {@code envio_id} es {@code NULL} y el pedido queda sin envío.
      *
      * @param rs resultado de la consulta posicionado en una fila válida
      * @return una instancia de {@link Pedido} construida a partir de la fila actual
-     * @throws SQLException si ocurre un error al leer las columnas o al cargar el envío asociado
+     * @throws SQLException si ocurre un error al leer las columnas
      */
     private Pedido mapResultSetToPedido(ResultSet rs) throws SQLException {
-        int envioId = rs.getInt("envio");
-        Envio envio = new EnvioDAO().findById(envioId);
+        Envio envio = rs.getObject("envio_id") == null ? null : EnvioDAO.mapEnvioColumns(rs, "envio_");
 
         return new Pedido(
                 rs.getLong("id"),
@@ -0,0 +1,117 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utilidades para recorrer un {@link ResultSet} como {@link Stream} sin
+ * cargarlo completo en memoria. <br>
+ *
+ * Las sentencias se preparan forward-only / read-only y con
+ * {@code fetchSize = Integer.MIN_VALUE}, que en MySQL Connector/J activa el
+ * modo streaming: el driver entrega las filas de a una a medida que llegan
+ * del servidor en lugar de bufferizar todo el resultado. Mientras el stream
+ * esté abierto la conexión queda ocupada, por lo que se usa una conexión
+ * dedicada que se cierra junto con el stream.
+ */
+final class ResultSetStreams {
+
+    /** Valor de fetch size que activa el streaming fila por fila en MySQL. */
+    static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private ResultSetStreams() {
+    }
+
+    /**
+     * Ejecuta {@code sql} en modo streaming (forward-only, read-only) y expone
+     * el resultado como un {@link Stream} perezoso. <br>
+     * El stream pasa a ser dueño de la conexión: al cerrarlo (idealmente con
+     * try-with-resources) se cierran {@link ResultSet}, {@link PreparedStatement}
+     * y {@link Connection}. Si falla la preparación o la ejecución, los
+     * recursos se cierran antes de propagar el error.
+     *
+     * @param conn conexión dedicada al stream
+     * @param sql consulta a ejecutar
+     * @param mapper conversión de cada fila a entidad
+     * @param params parámetros posicionales de la consulta
+     * @param <T> tipo de la entidad
+     * @return stream de entidades que debe cerrarse al terminar
+     * @throws SQLException si falla la preparación o la ejecución de la consulta
+     */
+    static <T> Stream<T> stream(Connection conn, String sql, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(MYSQL_STREAMING_FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(stmt, conn, e);
+            throw e;
+        }
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException(e);
+                }
+            }
+        };
+
+        PreparedStatement openStmt = stmt;
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            SQLException error = null;
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                error = e;
+            }
+            closeQuietly(openStmt, conn, error);
+            if (error != null) {
+                throw new DataAccessException(error);
+            }
+        });
+    }
+
+    /**
+     * Cierra la sentencia y la conexión; los errores se agregan como
+     * suprimidos a {@code primary} (si existe) para no ocultar la causa original.
+     */
+    private static void closeQuietly(PreparedStatement stmt, Connection conn, SQLException primary) {
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                if (primary != null) {
+                    primary.addSuppressed(e);
+                }
+            }
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            if (primary != null) {
+                primary.addSuppressed(e);
+            }
+        }
+    }
+}
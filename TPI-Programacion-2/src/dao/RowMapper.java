@@ -0,0 +1,22 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Convierte la fila actual de un {@link ResultSet} en una entidad.
+ *
+ * @param <T> tipo de la entidad resultante
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    /**
+     * Mapea la fila en la que está posicionado el {@link ResultSet}.
+     *
+     * @param rs resultado posicionado en una fila válida
+     * @return entidad construida a partir de la fila
+     * @throws SQLException si ocurre un error al leer las columnas
+     */
+    T map(ResultSet rs) throws SQLException;
+}
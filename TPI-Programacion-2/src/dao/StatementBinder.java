@@ -0,0 +1,22 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Asigna los valores de una entidad a los parámetros de una sentencia.
+ *
+ * @param <T> tipo de la entidad
+ */
+@FunctionalInterface
+interface StatementBinder<T> {
+
+    /**
+     * Setea los parámetros de {@code stmt} con los datos de {@code entity}.
+     *
+     * @param stmt sentencia preparada
+     * @param entity entidad cuyos datos se asignarán
+     * @throws SQLException si ocurre un error al setear un parámetro
+     */
+    void bind(PreparedStatement stmt, T entity) throws SQLException;
+}
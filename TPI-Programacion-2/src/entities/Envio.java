@@ -38,6 +38,13 @@ public class Envio extends Base <Long> {
         this.estado = estado;
     }
 
+    // Constructor de copia (usado por las caches para no compartir instancias mutables)
+    public Envio(Envio otro) {
+        this(otro.id, otro.tracking, otro.empresaEnvio, otro.tipoEnvio, otro.costo,
+                otro.fechaDespacho, otro.fechaEstimada, otro.estado);
+        this.eliminado = otro.eliminado;
+    }
+
     //Getters & Setters
     public String getTracking() {
         return tracking;
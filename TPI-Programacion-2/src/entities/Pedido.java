@@ -35,6 +35,13 @@ public class Pedido extends Base<Long> {
         this.estado = EstadoDePedido.NUEVO; // Estado por defecto
     }
 
+    // Constructor de copia: copia también el envío (usado por las caches para no compartir instancias mutables)
+    public Pedido(Pedido otro) {
+        this(otro.id, otro.numero, otro.fecha, otro.clienteNombre, otro.estado,
+                otro.envio != null ? new Envio(otro.envio) : null, otro.total);
+        this.eliminado = otro.eliminado;
+    }
+
     //Getters & Setters
     public String getNumero() {
         return numero;
@@ -0,0 +1,300 @@
+package exportacion;
+
+import entities.Envio;
+import entities.Pedido;
+import importacion.FormatoArchivo;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import service.PedidoService;
+
+/**
+ * Exportación completa de pedidos con su envío a CSV o NDJSON. <br>
+ *
+ * Los pedidos se leen con un cursor en streaming
+ * ({@link PedidoService#recorrerPedidosPorRango(long, long)}) y se escriben
+ * directamente en un writer con buffer, opcionalmente comprimido con gzip,
+ * por lo que el uso de memoria no depende del tamaño de la tabla. <br>
+ *
+ * Con más de una partición, el rango {@code [minId, maxId]} se divide en
+ * intervalos disjuntos que se exportan en paralelo, cada uno en su propio
+ * hilo y con su propia conexión, a un archivo parcial. Al terminar, las
+ * partes se concatenan en orden en el destino. Como un archivo gzip puede
+ * estar formado por varios miembros concatenados, las partes comprimidas
+ * se concatenan sin descomprimir. El pool debe tener al menos tantas
+ * conexiones como particiones.
+ *
+ * El CSV usa los mismos nombres de columna que {@link importacion.ImportadorPedidos},
+ * por lo que un archivo exportado puede volver a importarse. Como el
+ * importador lee un registro por línea, los saltos de línea dentro de un
+ * valor se exportan como espacios.
+ */
+public class ExportadorPedidos {
+
+    /** Columnas exportadas, en orden. */
+    private static final String[] COLUMNAS = {
+        "id", "numero", "fecha", "clienteNombre", "total", "estado",
+        "envio_id", "tracking", "empresa", "tipo", "costo",
+        "fecha_despacho", "fecha_estimada", "estado_envio"
+    };
+
+    /** Tamaño del buffer de escritura de cada parte. */
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private final PedidoService pedidoService;
+
+    public ExportadorPedidos(PedidoService pedidoService) {
+        if (pedidoService == null) {
+            throw new IllegalArgumentException("PedidoService no puede ser null");
+        }
+        this.pedidoService = pedidoService;
+    }
+
+    /**
+     * Exporta todos los pedidos activos al archivo indicado.
+     *
+     * @param destino archivo a generar (se sobrescribe si existe)
+     * @param formato formato de salida
+     * @param gzip {@code true} para comprimir la salida con gzip
+     * @param particiones cantidad de rangos de ID exportados en paralelo (1 = secuencial)
+     * @return resumen con filas exportadas, bytes escritos y throughput
+     * @throws Exception si falla la lectura de la base o la escritura del archivo
+     */
+    public ResultadoExportacion exportar(Path destino, FormatoArchivo formato, boolean gzip, int particiones)
+            throws Exception {
+        if (particiones <= 0) {
+            throw new IllegalArgumentException("La cantidad de particiones debe ser mayor a 0");
+        }
+        long inicio = System.nanoTime();
+        long[] rango = pedidoService.obtenerRangoDeIds();
+
+        if (rango == null || particiones == 1) {
+            long filas;
+            try (Writer out = abrir(destino, gzip, formato == FormatoArchivo.CSV)) {
+                filas = rango == null ? 0 : exportarRango(rango[0], rango[1], formato, out);
+            }
+            return new ResultadoExportacion(filas, Files.size(destino), 1, System.nanoTime() - inicio);
+        }
+
+        List<long[]> rangos = dividir(rango[0], rango[1], particiones);
+        List<Path> partes = new ArrayList<>();
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(rangos.size(), r -> {
+            Thread t = new Thread(r, "exportacion-" + numeroHilo.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<Long>> resultados = new ArrayList<>();
+            for (int i = 0; i < rangos.size(); i++) {
+                long[] r = rangos.get(i);
+                Path parte = destino.resolveSibling(destino.getFileName() + ".part" + i);
+                partes.add(parte);
+                boolean conEncabezado = i == 0 && formato == FormatoArchivo.CSV;
+                resultados.add(workers.submit(() -> {
+                    try (Writer out = abrir(parte, gzip, conEncabezado)) {
+                        return exportarRango(r[0], r[1], formato, out);
+                    }
+                }));
+            }
+
+            long filas = 0;
+            for (Future<Long> resultado : resultados) {
+                filas += obtener(resultado);
+            }
+
+            concatenar(partes, destino);
+            return new ResultadoExportacion(filas, Files.size(destino), rangos.size(), System.nanoTime() - inicio);
+        } finally {
+            workers.shutdownNow();
+            for (Path parte : partes) {
+                Files.deleteIfExists(parte);
+            }
+        }
+    }
+
+    /**
+     * Escribe los pedidos de un rango de IDs en el writer indicado.
+     *
+     * @return cantidad de filas escritas
+     */
+    private long exportarRango(long desdeId, long hastaId, FormatoArchivo formato, Writer out) throws Exception {
+        long[] filas = {0};
+        StringBuilder linea = new StringBuilder(256);
+        try (Stream<Pedido> pedidos = pedidoService.recorrerPedidosPorRango(desdeId, hastaId)) {
+            pedidos.forEach(pedido -> {
+                linea.setLength(0);
+                if (formato == FormatoArchivo.CSV) {
+                    escribirCsv(pedido, linea);
+                } else {
+                    escribirJson(pedido, linea);
+                }
+                linea.append('\n');
+                try {
+                    out.append(linea);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                filas[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return filas[0];
+    }
+
+    /**
+     * Divide {@code [min, max]} en hasta {@code n} rangos contiguos y disjuntos.
+     */
+    static List<long[]> dividir(long min, long max, int n) {
+        List<long[]> rangos = new ArrayList<>();
+        long total = max - min + 1;
+        long tamanio = Math.max(1, (total + n - 1) / n);
+        for (long desde = min; desde <= max; desde += tamanio) {
+            rangos.add(new long[]{desde, Math.min(max, desde + tamanio - 1)});
+        }
+        return rangos;
+    }
+
+    private static Writer abrir(Path archivo, boolean gzip, boolean conEncabezado) throws IOException {
+        OutputStream os = Files.newOutputStream(archivo);
+        if (gzip) {
+            os = new GZIPOutputStream(os, TAMANIO_BUFFER);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        if (conEncabezado) {
+            out.write(String.join(",", COLUMNAS));
+            out.write('\n');
+        }
+        return out;
+    }
+
+    private static void concatenar(List<Path> partes, Path destino) throws IOException {
+        try (OutputStream out = Files.newOutputStream(destino,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Path parte : partes) {
+                Files.copy(parte, out);
+            }
+        }
+    }
+
+    private static long obtener(Future<Long> resultado) throws Exception {
+        try {
+            return resultado.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Formato de cada fila
+    // -------------------------------------------------------------------------
+
+    private static void escribirCsv(Pedido pedido, StringBuilder sb) {
+        Envio envio = pedido.getEnvio();
+        sb.append(pedido.getId()).append(',');
+        campoCsv(sb, pedido.getNumero()).append(',');
+        sb.append(pedido.getFecha()).append(',');
+        campoCsv(sb, pedido.getClienteNombre()).append(',');
+        sb.append(pedido.getTotal()).append(',');
+        sb.append(pedido.getEstado()).append(',');
+        if (envio != null) {
+            sb.append(envio.getId()).append(',');
+            campoCsv(sb, envio.getTracking()).append(',');
+            sb.append(envio.getEmpresa()).append(',');
+            sb.append(envio.getTipo()).append(',');
+            sb.append(envio.getCosto()).append(',');
+            sb.append(envio.getFechaDespacho() != null ? envio.getFechaDespacho() : "").append(',');
+            sb.append(envio.getFechaEstimada() != null ? envio.getFechaEstimada() : "").append(',');
+            sb.append(envio.getEstado());
+        } else {
+            sb.append(",,,,,,,");
+        }
+    }
+
+    private static StringBuilder campoCsv(StringBuilder sb, String valor) {
+        if (valor == null) {
+            return sb;
+        }
+        if (valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+            // Un registro por línea física, como lo lee el importador
+            valor = valor.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0) {
+            return sb.append(valor);
+        }
+        return sb.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void escribirJson(Pedido pedido, StringBuilder sb) {
+        Envio envio = pedido.getEnvio();
+        sb.append("{\"id\":").append(pedido.getId());
+        sb.append(",\"numero\":");
+        stringJson(sb, pedido.getNumero());
+        sb.append(",\"fecha\":\"").append(pedido.getFecha()).append('"');
+        sb.append(",\"clienteNombre\":");
+        stringJson(sb, pedido.getClienteNombre());
+        sb.append(",\"total\":").append(pedido.getTotal());
+        sb.append(",\"estado\":\"").append(pedido.getEstado()).append('"');
+        if (envio != null) {
+            sb.append(",\"envio_id\":").append(envio.getId());
+            sb.append(",\"tracking\":");
+            stringJson(sb, envio.getTracking());
+            sb.append(",\"empresa\":\"").append(envio.getEmpresa()).append('"');
+            sb.append(",\"tipo\":\"").append(envio.getTipo()).append('"');
+            sb.append(",\"costo\":").append(envio.getCosto());
+            sb.append(",\"fecha_despacho\":");
+            stringJson(sb, envio.getFechaDespacho() != null ? envio.getFechaDespacho().toString() : null);
+            sb.append(",\"fecha_estimada\":");
+            stringJson(sb, envio.getFechaEstimada() != null ? envio.getFechaEstimada().toString() : null);
+            sb.append(",\"estado_envio\":\"").append(envio.getEstado()).append('"');
+        }
+        sb.append('}');
+    }
+
+    private static void stringJson(StringBuilder sb, String valor) {
+        if (valor == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,51 @@
+package exportacion;
+
+/**
+ * Resumen de una exportación: filas y bytes escritos, particiones y throughput.
+ */
+public class ResultadoExportacion {
+
+    private final long filas;
+    private final long bytes;
+    private final int particiones;
+    private final long duracionNanos;
+
+    ResultadoExportacion(long filas, long bytes, int particiones, long duracionNanos) {
+        this.filas = filas;
+        this.bytes = bytes;
+        this.particiones = particiones;
+        this.duracionNanos = duracionNanos;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * @return tamaño final del archivo generado, en bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getParticiones() {
+        return particiones;
+    }
+
+    public double getDuracionSegundos() {
+        return duracionNanos / 1_000_000_000.0;
+    }
+
+    /**
+     * @return filas exportadas por segundo
+     */
+    public double getFilasPorSegundo() {
+        return duracionNanos == 0 ? 0 : filas / getDuracionSegundos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Filas exportadas: %d - Tamaño: %d bytes - Particiones: %d - Duración: %.2f s - %.0f filas/s",
+                filas, bytes, particiones, getDuracionSegundos(), getFilasPorSegundo());
+    }
+}
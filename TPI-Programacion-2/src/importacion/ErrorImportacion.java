@@ -0,0 +1,10 @@
+package importacion;
+
+/**
+ * Error asociado a una fila del archivo importado.
+ *
+ * @param linea número de línea en el archivo (1 = primera línea)
+ * @param mensaje descripción del problema
+ */
+public record ErrorImportacion(long linea, String mensaje) {
+}
@@ -0,0 +1,39 @@
+package importacion;
+
+import java.nio.file.Path;
+
+/**
+ * Formatos de archivo admitidos por {@link ImportadorPedidos} y por
+ * {@link exportacion.ExportadorPedidos}.
+ */
+public enum FormatoArchivo {
+
+    /** CSV con encabezado en la primera línea. */
+    CSV,
+
+    /** JSON Lines / NDJSON: un objeto JSON plano por línea. */
+    NDJSON;
+
+    /**
+     * Deduce el formato a partir de la extensión del archivo
+     * ({@code .csv}, o {@code .json}, {@code .jsonl}, {@code .ndjson}), ignorando
+     * un sufijo {@code .gz} final.
+     *
+     * @param archivo ruta del archivo
+     * @return formato correspondiente
+     * @throws IllegalArgumentException si la extensión no es reconocida
+     */
+    public static FormatoArchivo desdeArchivo(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase();
+        if (nombre.endsWith(".gz")) {
+            nombre = nombre.substring(0, nombre.length() - 3);
+        }
+        if (nombre.endsWith(".csv")) {
+            return CSV;
+        }
+        if (nombre.endsWith(".json") || nombre.endsWith(".jsonl") || nombre.endsWith(".ndjson")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Formato de archivo no soportado: " + nombre);
+    }
+}
@@ -0,0 +1,324 @@
+package importacion;
+
+import entities.EmpresaDeEnvio;
+import entities.Envio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import entities.Pedido;
+import entities.TipoDeEnvio;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import service.EnvioService;
+import service.PedidoService;
+
+/**
+ * Importación masiva de pedidos con su envío desde archivos CSV o NDJSON. <br>
+ *
+ * Pipeline:
+ * <ol>
+ *   <li>El archivo se lee en streaming, de a {@code tamanioLote} líneas.</li>
+ *   <li>Cada lote se parsea y valida en paralelo con las mismas reglas que el
+ *       alta interactiva ({@link PedidoService#validarPedido(Pedido)} y
+ *       {@link EnvioService#validarEnvio(Envio)}). Mientras un lote se escribe,
+ *       el siguiente ya se está leyendo y validando.</li>
+ *   <li>Las filas válidas del lote se insertan en una sola transacción con
+ *       {@link PedidoService#crearPedidosConEnvio(List)} (envíos y luego pedidos,
+ *       por lotes JDBC).</li>
+ *   <li>Si esa transacción falla (por ejemplo, un tracking duplicado), el
+ *       lote se reintenta fila por fila con
+ *       {@link PedidoService#crearPedidoConEnvio(Pedido, Envio)} para aislar las
+ *       filas problemáticas: una fila mala nunca aborta el archivo.</li>
+ * </ol>
+ *
+ * Columnas reconocidas (nombre del encabezado CSV o clave JSON):
+ * {@code numero}, {@code clienteNombre}, {@code total}, {@code empresa},
+ * {@code tipo}, {@code costo} (obligatorias) y {@code fecha},
+ * {@code estado}, {@code tracking}, {@code estado_envio},
+ * {@code fecha_despacho}, {@code fecha_estimada} (opcionales). Si no se
+ * indica tracking se genera uno.
+ */
+public class ImportadorPedidos {
+
+    /** Tamaño de lote por defecto (filas por transacción). */
+    public static final int TAMANIO_LOTE_POR_DEFECTO = 1000;
+
+    private final PedidoService pedidoService;
+    private final EnvioService envioService;
+    private final int tamanioLote;
+
+    /**
+     * @param pedidoService servicio usado para validar y persistir pedidos
+     * @param envioService servicio usado para validar envíos y generar trackings faltantes
+     * @param tamanioLote cantidad de filas por transacción
+     */
+    public ImportadorPedidos(PedidoService pedidoService, EnvioService envioService, int tamanioLote) {
+        if (pedidoService == null || envioService == null) {
+            throw new IllegalArgumentException("Los servicios no pueden ser null");
+        }
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        }
+        this.pedidoService = pedidoService;
+        this.envioService = envioService;
+        this.tamanioLote = tamanioLote;
+    }
+
+    public ImportadorPedidos(PedidoService pedidoService, EnvioService envioService) {
+        this(pedidoService, envioService, TAMANIO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Importa el archivo indicado deduciendo el formato por su extensión.
+     *
+     * @param archivo archivo CSV o NDJSON
+     * @return resumen con contadores, errores por fila y throughput
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importar(Path archivo) throws IOException {
+        return importar(archivo, FormatoArchivo.desdeArchivo(archivo));
+    }
+
+    /**
+     * Importa el archivo indicado con el formato dado.
+     *
+     * @param archivo archivo a importar
+     * @param formato formato del archivo
+     * @return resumen con contadores, errores por fila y throughput
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importar(Path archivo, FormatoArchivo formato) throws IOException {
+        long inicio = System.nanoTime();
+        List<ErrorImportacion> errores = new ArrayList<>();
+        long filasLeidas = 0;
+        long filasImportadas = 0;
+        long lotes = 0;
+        long lotesReintentados = 0;
+
+        ExecutorService validadores = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "importacion-validacion");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try (BufferedReader reader = abrir(archivo)) {
+            LectorLotes lector = new LectorLotes(reader, formato);
+
+            List<LineaCruda> lote = lector.siguienteLote();
+            CompletableFuture<List<FilaImportacion>> enCurso = validarAsync(lote, lector.getEncabezado(), validadores);
+
+            while (!lote.isEmpty()) {
+                filasLeidas += lote.size();
+                // Se lee y valida el lote siguiente mientras se escribe el actual
+                lote = lector.siguienteLote();
+                CompletableFuture<List<FilaImportacion>> siguiente =
+                        validarAsync(lote, lector.getEncabezado(), validadores);
+
+                List<FilaImportacion> filas = enCurso.join();
+                List<Pedido> validos = new ArrayList<>();
+                for (FilaImportacion fila : filas) {
+                    if (fila.error() != null) {
+                        errores.add(new ErrorImportacion(fila.linea(), fila.error()));
+                    } else {
+                        validos.add(fila.pedido());
+                    }
+                }
+                if (!validos.isEmpty()) {
+                    lotes++;
+                    ResultadoLote resultado = escribirLote(validos, filas, errores);
+                    filasImportadas += resultado.importadas();
+                    if (resultado.reintentado()) {
+                        lotesReintentados++;
+                    }
+                }
+                enCurso = siguiente;
+            }
+        } finally {
+            validadores.shutdownNow();
+        }
+
+        errores.sort((a, b) -> Long.compare(a.linea(), b.linea()));
+        return new ResultadoImportacion(filasLeidas, filasImportadas, lotes, lotesReintentados,
+                System.nanoTime() - inicio, errores);
+    }
+
+    /**
+     * Persiste las filas válidas de un lote en una transacción; si falla,
+     * las reintenta de a una para que sólo las filas inválidas queden afuera.
+     */
+    private ResultadoLote escribirLote(List<Pedido> validos, List<FilaImportacion> filas,
+                                       List<ErrorImportacion> errores) {
+        try {
+            pedidoService.crearPedidosConEnvio(validos);
+            return new ResultadoLote(validos.size(), false);
+        } catch (Exception e) {
+            int importadas = 0;
+            for (FilaImportacion fila : filas) {
+                if (fila.error() != null) {
+                    continue;
+                }
+                Pedido pedido = fila.pedido();
+                try {
+                    pedidoService.crearPedidoConEnvio(pedido, pedido.getEnvio());
+                    importadas++;
+                } catch (Exception filaError) {
+                    errores.add(new ErrorImportacion(fila.linea(), filaError.getMessage()));
+                }
+            }
+            return new ResultadoLote(importadas, true);
+        }
+    }
+
+    /**
+     * Parsea y valida un lote en paralelo (en otro hilo, para solaparlo con la
+     * escritura del lote anterior). El orden de las filas se conserva.
+     */
+    private CompletableFuture<List<FilaImportacion>> validarAsync(List<LineaCruda> lote, List<String> encabezado,
+                                                                  ExecutorService executor) {
+        if (lote.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return CompletableFuture.supplyAsync(() -> lote.parallelStream()
+                .map(linea -> parsearYValidar(linea, encabezado))
+                .toList(), executor);
+    }
+
+    /**
+     * Convierte una línea cruda en un pedido con envío y aplica las reglas de
+     * negocio. Cualquier error queda registrado en la fila resultante.
+     */
+    private FilaImportacion parsearYValidar(LineaCruda linea, List<String> encabezado) {
+        try {
+            Map<String, String> registro = encabezado == null
+                    ? ParserRegistros.parsearJson(linea.texto())
+                    : ParserRegistros.parsearCsv(linea.texto(), encabezado);
+
+            Envio envio = new Envio();
+            String tracking = registro.get("tracking");
+            envio.setTracking(tracking != null ? tracking : envioService.generarTracking());
+            envio.setEmpresa(EmpresaDeEnvio.valueOf(obligatorio(registro, "empresa").toUpperCase()));
+            envio.setTipo(TipoDeEnvio.valueOf(obligatorio(registro, "tipo").toUpperCase()));
+            envio.setCosto(Double.parseDouble(obligatorio(registro, "costo")));
+            envio.setEstado(EstadoDeEnvio.valueOf(
+                    registro.getOrDefault("estado_envio", EstadoDeEnvio.EN_PREPARACION.name()).toUpperCase()));
+            if (registro.containsKey("fecha_despacho")) {
+                envio.setFechaDespacho(LocalDate.parse(registro.get("fecha_despacho")));
+            }
+            if (registro.containsKey("fecha_estimada")) {
+                envio.setFechaEstimada(LocalDate.parse(registro.get("fecha_estimada")));
+            }
+
+            Pedido pedido = new Pedido();
+            pedido.setNumero(obligatorio(registro, "numero").toUpperCase());
+            pedido.setClienteNombre(registro.get("clienteNombre"));
+            pedido.setTotal(Double.parseDouble(obligatorio(registro, "total")));
+            if (registro.containsKey("fecha")) {
+                pedido.setFecha(LocalDate.parse(registro.get("fecha")));
+            }
+            if (registro.containsKey("estado")) {
+                pedido.setEstado(EstadoDePedido.valueOf(registro.get("estado").toUpperCase()));
+            }
+            pedido.setEnvio(envio);
+
+            envioService.validarEnvio(envio);
+            pedidoService.validarPedido(pedido);
+            return new FilaImportacion(linea.numero(), pedido, null);
+
+        } catch (RuntimeException e) {
+            // NumberFormatException, DateTimeParseException, enums inválidos y reglas de negocio
+            return new FilaImportacion(linea.numero(), null, e.getMessage());
+        }
+    }
+
+    /**
+     * Abre el archivo para lectura, descomprimiéndolo si termina en {@code .gz}.
+     */
+    private static BufferedReader abrir(Path archivo) throws IOException {
+        if (archivo.getFileName().toString().toLowerCase().endsWith(".gz")) {
+            return new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(archivo), 64 * 1024), StandardCharsets.UTF_8));
+        }
+        return Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+    }
+
+    private static String obligatorio(Map<String, String> registro, String columna) {
+        String valor = registro.get(columna);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta la columna obligatoria '" + columna + "'");
+        }
+        return valor;
+    }
+
+    // -------------------------------------------------------------------------
+    // Tipos auxiliares
+    // -------------------------------------------------------------------------
+
+    /** Línea leída del archivo junto con su número. */
+    private record LineaCruda(long numero, String texto) {
+    }
+
+    /** Resultado de parsear y validar una línea: un pedido válido o un error. */
+    private record FilaImportacion(long linea, Pedido pedido, String error) {
+    }
+
+    /** Filas persistidas de un lote y si fue necesario reintentarlo fila por fila. */
+    private record ResultadoLote(int importadas, boolean reintentado) {
+    }
+
+    /**
+     * Lee el archivo en streaming de a {@code tamanioLote} líneas no vacías.
+     * En CSV la primera línea se toma como encabezado.
+     */
+    private final class LectorLotes {
+
+        private final BufferedReader reader;
+        private List<String> encabezado;
+        private long numeroLinea;
+
+        LectorLotes(BufferedReader reader, FormatoArchivo formato) throws IOException {
+            this.reader = reader;
+            if (formato == FormatoArchivo.CSV) {
+                String primera = reader.readLine();
+                numeroLinea++;
+                if (primera == null) {
+                    throw new IOException("El archivo CSV está vacío (falta el encabezado)");
+                }
+                // Quita el BOM de UTF-8 si el archivo lo trae
+                if (primera.startsWith("\uFEFF")) {
+                    primera = primera.substring(1);
+                }
+                encabezado = ParserRegistros.separarCsv(primera);
+            }
+        }
+
+        /**
+         * @return encabezado CSV, o {@code null} si el formato es NDJSON
+         */
+        List<String> getEncabezado() {
+            return encabezado;
+        }
+
+        List<LineaCruda> siguienteLote() throws IOException {
+            List<LineaCruda> lote = new ArrayList<>(tamanioLote);
+            String linea;
+            while (lote.size() < tamanioLote && (linea = reader.readLine()) != null) {
+                numeroLinea++;
+                if (!linea.isBlank()) {
+                    lote.add(new LineaCruda(numeroLinea, linea));
+                }
+            }
+            return lote;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package importacion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convierte una línea de texto (CSV o NDJSON) en un mapa columna → valor. <br>
+ *
+ * Sólo se admiten registros planos: en CSV, campos separados por coma con
+ * comillas dobles opcionales ({@code ""} escapa una comilla); en NDJSON, un
+ * objeto por línea cuyos valores son strings, números, booleanos o
+ * {@code null}. Los valores vacíos o {@code null} no se incluyen en el mapa.
+ */
+final class ParserRegistros {
+
+    private ParserRegistros() {
+    }
+
+    /**
+     * Separa una línea CSV en sus campos.
+     *
+     * @param linea línea a separar
+     * @return lista de campos (sin comillas envolventes)
+     * @throws IllegalArgumentException si hay comillas sin cerrar
+     */
+    static List<String> separarCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar en la línea CSV");
+        }
+        campos.add(actual.toString().trim());
+        return campos;
+    }
+
+    /**
+     * Asocia los campos de una línea CSV con los nombres del encabezado.
+     *
+     * @param linea línea de datos
+     * @param encabezado nombres de columna leídos de la primera línea
+     * @return mapa columna → valor
+     * @throws IllegalArgumentException si la cantidad de campos no coincide con el encabezado
+     */
+    static Map<String, String> parsearCsv(String linea, List<String> encabezado) {
+        List<String> campos = separarCsv(linea);
+        if (campos.size() != encabezado.size()) {
+            throw new IllegalArgumentException("Se esperaban " + encabezado.size()
+                    + " columnas y se encontraron " + campos.size());
+        }
+        Map<String, String> registro = new HashMap<>();
+        for (int i = 0; i < campos.size(); i++) {
+            if (!campos.get(i).isEmpty()) {
+                registro.put(encabezado.get(i), campos.get(i));
+            }
+        }
+        return registro;
+    }
+
+    /**
+     * Parsea un objeto JSON plano escrito en una sola línea.
+     *
+     * @param linea objeto JSON, por ejemplo {@code {"numero":"A-1","total":150.5}}
+     * @return mapa clave → valor (como texto)
+     * @throws IllegalArgumentException si el JSON es inválido o contiene objetos/arrays anidados
+     */
+    static Map<String, String> parsearJson(String linea) {
+        Map<String, String> registro = new HashMap<>();
+        int[] pos = {saltarEspacios(linea, 0)};
+        esperar(linea, pos, '{');
+        pos[0] = saltarEspacios(linea, pos[0]);
+        if (pos[0] < linea.length() && linea.charAt(pos[0]) == '}') {
+            return registro;
+        }
+        while (true) {
+            pos[0] = saltarEspacios(linea, pos[0]);
+            String clave = leerString(linea, pos);
+            pos[0] = saltarEspacios(linea, pos[0]);
+            esperar(linea, pos, ':');
+            pos[0] = saltarEspacios(linea, pos[0]);
+            String valor = leerValor(linea, pos);
+            if (valor != null && !valor.isEmpty()) {
+                registro.put(clave, valor);
+            }
+            pos[0] = saltarEspacios(linea, pos[0]);
+            if (pos[0] >= linea.length()) {
+                throw new IllegalArgumentException("JSON incompleto");
+            }
+            char c = linea.charAt(pos[0]++);
+            if (c == '}') {
+                return registro;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("Se esperaba ',' o '}' en la posición " + (pos[0] - 1));
+            }
+        }
+    }
+
+    private static String leerValor(String s, int[] pos) {
+        if (pos[0] >= s.length()) {
+            throw new IllegalArgumentException("JSON incompleto");
+        }
+        char c = s.charAt(pos[0]);
+        if (c == '"') {
+            return leerString(s, pos);
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("No se admiten objetos ni arrays anidados");
+        }
+        int inicio = pos[0];
+        while (pos[0] < s.length() && ",} \t".indexOf(s.charAt(pos[0])) < 0) {
+            pos[0]++;
+        }
+        String literal = s.substring(inicio, pos[0]);
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String leerString(String s, int[] pos) {
+        esperar(s, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < s.length()) {
+            char c = s.charAt(pos[0]++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                if (pos[0] >= s.length()) {
+                    break;
+                }
+                char e = s.charAt(pos[0]++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos[0] + 4 > s.length()) {
+                            throw new IllegalArgumentException("Secuencia \\u incompleta");
+                        }
+                        sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                        pos[0] += 4;
+                    }
+                    default -> sb.append(e);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw new IllegalArgumentException("String JSON sin cerrar");
+    }
+
+    private static void esperar(String s, int[] pos, char esperado) {
+        if (pos[0] >= s.length() || s.charAt(pos[0]) != esperado) {
+            throw new IllegalArgumentException("Se esperaba '" + esperado + "' en la posición " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static int saltarEspacios(String s, int pos) {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,98 @@
+package importacion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de una importación: contadores, errores por fila y throughput.
+ */
+public class ResultadoImportacion {
+
+    private final long filasLeidas;
+    private final long filasImportadas;
+    private final long lotes;
+    private final long lotesReintentados;
+    private final long duracionNanos;
+    private final List<ErrorImportacion> errores;
+
+    ResultadoImportacion(long filasLeidas, long filasImportadas, long lotes, long lotesReintentados,
+                         long duracionNanos, List<ErrorImportacion> errores) {
+        this.filasLeidas = filasLeidas;
+        this.filasImportadas = filasImportadas;
+        this.lotes = lotes;
+        this.lotesReintentados = lotesReintentados;
+        this.duracionNanos = duracionNanos;
+        this.errores = Collections.unmodifiableList(errores);
+    }
+
+    public long getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    public long getFilasImportadas() {
+        return filasImportadas;
+    }
+
+    public long getFilasConError() {
+        return errores.size();
+    }
+
+    /**
+     * @return cantidad de transacciones por lote ejecutadas
+     */
+    public long getLotes() {
+        return lotes;
+    }
+
+    /**
+     * @return lotes que fallaron y se reintentaron fila por fila
+     */
+    public long getLotesReintentados() {
+        return lotesReintentados;
+    }
+
+    public List<ErrorImportacion> getErrores() {
+        return errores;
+    }
+
+    public double getDuracionSegundos() {
+        return duracionNanos / 1_000_000_000.0;
+    }
+
+    /**
+     * @return filas importadas por segundo
+     */
+    public double getFilasPorSegundo() {
+        return duracionNanos == 0 ? 0 : filasImportadas / getDuracionSegundos();
+    }
+
+    /**
+     * Escribe el reporte de errores como CSV ({@code linea,error}).
+     *
+     * @param destino archivo a generar (se sobrescribe si existe)
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public void escribirReporteErrores(Path destino) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            out.write("linea,error");
+            out.newLine();
+            for (ErrorImportacion error : errores) {
+                out.write(error.linea() + ",\"" + error.mensaje().replace("\"", "\"\"") + "\"");
+                out.newLine();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Filas leídas: %d - Importadas: %d - Con error: %d - Lotes: %d (reintentados: %d)"
+                + " - Duración: %.2f s - %.0f filas/s",
+                filasLeidas, filasImportadas, getFilasConError(), lotes, lotesReintentados,
+                getDuracionSegundos(), getFilasPorSegundo());
+    }
+}
@@ -4,11 +4,27 @@
  */
 package main;
 
+import cache.CacheConsultasPedidos;
+import config.ConnectionProvider;
+import config.DatabaseConfig;
+import dao.CachingEnvioDAO;
 import dao.EnvioDAO;
+import dao.InstrumentedEnvioDAO;
+import dao.InstrumentedPedidoDAO;
 import dao.PedidoDAO;
+import exportacion.ExportadorPedidos;
+import importacion.ImportadorPedidos;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Scanner;
+import metricas.Metricas;
+import migraciones.Migracion;
+import migraciones.MigradorEsquema;
 import service.EnvioService;
 import service.PedidoService;
+import service.PedidoServiceInstrumentado;
+import tracking.GeneradorTracking;
+import tracking.GeneradorTrackingOrdenado;
 
 /**
  * Orquestador principal del sistema de gestión Pedido-Envío.
@@ -33,6 +49,20 @@ public class AppMenu {
      * Handler que contiene toda la lógica de interacción con el usuario
      */
     private final MenuHandler menuHandler;
+    /**
+     * Proveedor de conexiones compartido por todos los DAOs y servicios. Se
+     * cierra al terminar la aplicación (libera el pool).
+     */
+    private final ConnectionProvider connectionProvider;
+    /**
+     * Servicio de pedidos; se guarda para detener sus tareas de fondo al salir.
+     */
+    private final PedidoService pedidoService;
+    /**
+     * Métricas por operación de DAOs y servicios ({@code null} si están
+     * desactivadas con {@code metrics.enabled=false}).
+     */
+    private final Metricas metricas;
     /**
      * Flag que controla el estado de ejecución de la aplicación true =
      * aplicación corriendo, false = aplicación debe terminar
@@ -49,10 +79,30 @@ public class AppMenu {
     public AppMenu() {
         this.scanner = new Scanner(System.in);
         this.ejecutando = true;
+        DatabaseConfig config = new DatabaseConfig();
+        this.metricas = config.getBoolean("metrics.enabled", true)
+                ? new Metricas(config.getBoolean("metrics.jmx.enabled", true))
+                : null;
+        this.connectionProvider = ConnectionProvider.fromConfig(config,
+                metricas != null ? metricas::registrarEsperaConexion : null);
+        migrarEsquema(config);
 
         // Inicializar servicios
-        PedidoService pedidoService = crearServicios();
-        this.menuHandler = new MenuHandler(scanner, pedidoService);
+        EnvioService envioService = new EnvioService(crearEnvioDAO(config), connectionProvider,
+                crearGeneradorTracking(config));
+        iniciarFiltroTracking(envioService, config);
+        this.pedidoService = crearServicios(envioService, config);
+        configurarReintentos(config);
+        iniciarEstadisticasEnVivo(config);
+        iniciarCommitAgrupado(config);
+        ImportadorPedidos importador = new ImportadorPedidos(pedidoService, envioService);
+        ExportadorPedidos exportador = new ExportadorPedidos(pedidoService);
+        // Cada partición de la exportación usa una conexión: sin tope, el pool se agotaría
+        int maxParticiones = "hikari".equalsIgnoreCase(config.getPoolMode())
+                ? config.getInt("db.pool.maxSize", 10)
+                : Integer.MAX_VALUE;
+        this.menuHandler = new MenuHandler(scanner, pedidoService, importador, exportador, maxParticiones,
+                metricas);
     }
 
     /**
@@ -82,6 +132,9 @@ public class AppMenu {
         }
         // Cleanup de recursos
         scanner.close();
+        pedidoService.detenerCommitAgrupado();
+        pedidoService.detenerContadores();
+        connectionProvider.close();
         System.out.println("Aplicación finalizada.");
     }
 
@@ -103,6 +156,9 @@ public class AppMenu {
         System.out.println("7. Eliminar Pedido (lógico)");
         System.out.println("8. Listar Envíos por Empresa");
         System.out.println("9. Ver Estadísticas");
+        System.out.println("10. Importar Pedidos desde archivo (CSV/NDJSON)");
+        System.out.println("11. Exportar Pedidos a archivo (CSV/NDJSON)");
+        System.out.println("12. Ver Métricas de Rendimiento");
         System.out.println("0. Salir");
         System.out.print("Seleccione una opción: ");
     }
@@ -113,7 +169,7 @@ public class AppMenu {
      * Switch expression: más conciso y legible Cada caso delega a un método
      * específico del handler
      *
-     * @param opcion Número entre 0-9 seleccionado por el usuario
+     * @param opcion Número entre 0-12 seleccionado por el usuario
      */
     private void procesarOpcion(int opcion) {
         switch (opcion) {
@@ -135,6 +191,12 @@ public class AppMenu {
                 menuHandler.listarEnviosPorEmpresa();
             case 9 ->
                 menuHandler.mostrarEstadisticas();
+            case 10 ->
+                menuHandler.importarPedidos();
+            case 11 ->
+                menuHandler.exportarPedidos();
+            case 12 ->
+                menuHandler.mostrarMetricas();
             case 0 -> {
                 System.out.println("Saliendo del sistema...");
                 ejecutando = false;
@@ -144,23 +206,178 @@ public class AppMenu {
         }
     }
 
+    /**
+     * Aplica las migraciones pendientes del esquema (tablas e índices) antes
+     * de crear los DAOs. Se puede desactivar con {@code db.migrations.enabled=false}
+     * si el esquema se administra por fuera de la aplicación.
+     *
+     * @param config configuración leída de database.properties
+     * @throws IllegalStateException si alguna migración falla o fue modificada
+     */
+    private void migrarEsquema(DatabaseConfig config) {
+        if (!config.getBoolean("db.migrations.enabled", true)) {
+            return;
+        }
+        try {
+            List<Migracion> aplicadas = new MigradorEsquema(connectionProvider).migrar();
+            for (Migracion migracion : aplicadas) {
+                System.out.println("Migración aplicada: V" + migracion.version() + " " + migracion.descripcion());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo migrar el esquema: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aplica la política de reintentos ante deadlocks y esperas de lock
+     * agotadas ({@code db.retry.*}); por defecto, 3 intentos con esperas de
+     * entre 20 y 500 ms.
+     *
+     * @param config configuración leída de database.properties
+     */
+    private void configurarReintentos(DatabaseConfig config) {
+        pedidoService.configurarReintentos(
+                config.getInt("db.retry.maxAttempts", PedidoService.INTENTOS_POR_DEFECTO),
+                config.getLong("db.retry.baseDelayMs", PedidoService.ESPERA_BASE_MS_POR_DEFECTO),
+                config.getLong("db.retry.maxDelayMs", PedidoService.ESPERA_MAXIMA_MS_POR_DEFECTO));
+    }
+
+    /**
+     * Activa las estadísticas de pedidos en memoria (una consulta al iniciar
+     * y conciliación periódica). Se desactivan con {@code stats.live.enabled=false};
+     * si la consulta inicial falla, la pantalla de estadísticas sigue
+     * consultando la base.
+     *
+     * @param config configuración leída de database.properties
+     */
+    private void iniciarEstadisticasEnVivo(DatabaseConfig config) {
+        if (!config.getBoolean("stats.live.enabled", true)) {
+            return;
+        }
+        try {
+            pedidoService.iniciarContadores(config.getLong("stats.live.reconcileMs", 300_000));
+        } catch (Exception e) {
+            System.err.println("No se pudieron iniciar las estadísticas en memoria: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Si {@code pedidos.groupCommit.enabled=true}, las altas concurrentes de
+     * pedidos se juntan en lotes de hasta {@code maxBatch} pedidos (esperando
+     * como mucho {@code maxWaitMs}) que se confirman en una sola transacción,
+     * escritos por {@code writers} hilos. Cada escritor ocupa una conexión
+     * del pool mientras escribe.
+     *
+     * @param config configuración leída de database.properties
+     */
+    private void iniciarCommitAgrupado(DatabaseConfig config) {
+        if (!config.getBoolean("pedidos.groupCommit.enabled", false)) {
+            return;
+        }
+        pedidoService.iniciarCommitAgrupado(
+                config.getInt("pedidos.groupCommit.maxBatch", 64),
+                config.getLong("pedidos.groupCommit.maxWaitMs", 5),
+                config.getInt("pedidos.groupCommit.writers", 2));
+    }
+
+    /**
+     * Crea el generador de códigos de tracking indicado por
+     * {@code tracking.generator} ({@code ordenado} por defecto, o {@code uuid}).
+     * El nodo del generador ordenado se toma de {@code tracking.nodeId}; si no
+     * está configurado se deriva del host y el PID (sólo en ese caso, porque
+     * resolver el nombre del host puede demorar el arranque).
+     *
+     * @param config configuración leída de database.properties
+     * @return generador de tracking
+     */
+    private GeneradorTracking crearGeneradorTracking(DatabaseConfig config) {
+        int nodo = config.getString("tracking.nodeId", null) != null
+                ? config.getInt("tracking.nodeId", 0)
+                : GeneradorTrackingOrdenado.nodoPorDefecto();
+        return GeneradorTracking.crear(config.getString("tracking.generator", "ordenado"), nodo);
+    }
+
+    /**
+     * Si {@code tracking.bloom.enabled=true}, construye el filtro de Bloom de
+     * trackings existentes que usa {@link EnvioService#crearEnvio} para
+     * rechazar duplicados sin intentar el INSERT. Si falla, se sigue sin
+     * filtro (el UNIQUE de la tabla sigue garantizando la unicidad).
+     *
+     * @param envioService servicio de envíos
+     * @param config configuración leída de database.properties
+     */
+    private void iniciarFiltroTracking(EnvioService envioService, DatabaseConfig config) {
+        if (!config.getBoolean("tracking.bloom.enabled", false)) {
+            return;
+        }
+        try {
+            envioService.iniciarFiltroTracking(Double.parseDouble(config.getString("tracking.bloom.fpp", "0.01")));
+        } catch (Exception e) {
+            System.err.println("No se pudo construir el filtro de trackings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea el DAO de envíos; si {@code cache.envios.enabled=true} lo envuelve
+     * con la cache de segundo nivel ({@link CachingEnvioDAO}), y con las
+     * métricas por operación si están activas.
+     *
+     * @param config configuración leída de database.properties
+     * @return DAO de envíos, con o sin cache
+     */
+    private EnvioDAO crearEnvioDAO(DatabaseConfig config) {
+        EnvioDAO envioDAO = config.getBoolean("cache.envios.enabled", false)
+                ? new CachingEnvioDAO(connectionProvider,
+                        config.getInt("cache.envios.maxSize", 10_000),
+                        config.getLong("cache.envios.ttlMs", 300_000))
+                : new EnvioDAO(connectionProvider);
+        return metricas != null ? new InstrumentedEnvioDAO(envioDAO, metricas) : envioDAO;
+    }
+
     /**
      * Factory method que construye la cadena de dependencias.
      *
      * Arquitectura en capas resultante: MenuHandler → PedidoService →
-     * [PedidoDAO, EnvioService] → [EnvioDAO]
+     * [PedidoDAO, EnvioService] → [EnvioDAO] → ConnectionProvider
      *
      * Relación 1→1 unidireccional implementada: - PedidoService coordina la
      * creación de Pedido y Envío en misma transacción - Pedido referencia a
      * Envio, pero Envio NO referencia a Pedido
      *
+     * Si {@code cache.consultas.enabled=true}, las búsquedas por cliente y
+     * por número pasan por una {@link CacheConsultasPedidos}.
+     * Si {@code pedidos.singleRoundTrip.enabled=true} (desactivado por
+     * defecto), cada pedido con su envío se crea con una sola llamada
+     * al procedimiento almacenado de la migración V3; requiere MySQL y las
+     * migraciones aplicadas.
+     * Si {@code metrics.enabled=true} (por defecto), el DAO y el servicio de
+     * pedidos registran latencia, errores y filas de cada operación en
+     * {@link Metricas}, publicadas también por JMX salvo con
+     * {@code metrics.jmx.enabled=false}.
+     *
+     * @param envioService servicio de envíos compartido con el importador
+     * @param config configuración leída de database.properties
      * @return PedidoService completamente inicializado con todas sus
      * dependencias
      */
-    private PedidoService crearServicios() {
-        EnvioDAO envioDAO = new EnvioDAO();
-        PedidoDAO pedidoDAO = new PedidoDAO();
-        EnvioService envioService = new EnvioService(envioDAO);
-        return new PedidoService(pedidoDAO, envioService);
+    private PedidoService crearServicios(EnvioService envioService, DatabaseConfig config) {
+        PedidoDAO pedidoDAO = new PedidoDAO(connectionProvider);
+        if (metricas != null) {
+            pedidoDAO = new InstrumentedPedidoDAO(pedidoDAO, metricas);
+        }
+        CacheConsultasPedidos cacheConsultas = null;
+        if (config.getBoolean("cache.consultas.enabled", false)) {
+            cacheConsultas = new CacheConsultasPedidos(
+                    config.getInt("cache.consultas.maxEntries", 1_000),
+                    config.getLong("cache.consultas.ttlMs", 60_000),
+                    config.getInt("cache.consultas.maxRows", 500));
+        }
+        PedidoService servicio = metricas != null
+                ? new PedidoServiceInstrumentado(pedidoDAO, envioService, connectionProvider, cacheConsultas, metricas)
+                : new PedidoService(pedidoDAO, envioService, connectionProvider, cacheConsultas);
+        if (config.getBoolean("pedidos.singleRoundTrip.enabled", false)) {
+            servicio.activarCreacionEnUnViaje();
+        }
+        return servicio;
     }
 }
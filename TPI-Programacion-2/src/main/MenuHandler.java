@@ -4,19 +4,36 @@
  */
 package main;
 
+import cache.EstadisticasCache;
+import config.RetryStats;
+import dao.EstadisticasPedidos;
+import dao.Page;
+import dao.PageRequest;
 import entities.EmpresaDeEnvio;
 import entities.Envio;
 import entities.EstadoDeEnvio;
 import entities.EstadoDePedido;
 import entities.Pedido;
 import entities.TipoDeEnvio;
+import exportacion.ExportadorPedidos;
+import exportacion.ResultadoExportacion;
+import importacion.ErrorImportacion;
+import importacion.FormatoArchivo;
+import importacion.ImportadorPedidos;
+import importacion.ResultadoImportacion;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.UUID;
+import metricas.MetricaOperacion;
+import metricas.Metricas;
 import service.PedidoService;
+import service.ResumenPedidos;
 
 /**
  *
@@ -24,12 +41,26 @@ import service.PedidoService;
  */
 public class MenuHandler {
 
+    /** Cantidad de pedidos por página en los listados. */
+    private static final int TAMANIO_PAGINA = 20;
+
     private final Scanner scanner;
     private final PedidoService pedidoService;
-
-    public MenuHandler(Scanner scanner, PedidoService pedidoService) {
+    private final ImportadorPedidos importador;
+    private final ExportadorPedidos exportador;
+    // Tope de particiones de la exportación: cada una usa su propia conexión
+    private final int maxParticiones;
+    // Métricas por operación (null si están desactivadas)
+    private final Metricas metricas;
+
+    public MenuHandler(Scanner scanner, PedidoService pedidoService, ImportadorPedidos importador,
+                       ExportadorPedidos exportador, int maxParticiones, Metricas metricas) {
         this.scanner = scanner;
         this.pedidoService = pedidoService;
+        this.importador = importador;
+        this.exportador = exportador;
+        this.maxParticiones = maxParticiones;
+        this.metricas = metricas;
     }
 
     public void crearPedidoConEnvio() {
@@ -64,8 +95,8 @@ public class MenuHandler {
             pedido.setTotal(total);
             Envio envio = new Envio();
             
-            // generamos uuid para tracking:
-            String tracking = UUID.randomUUID().toString();
+            // generamos el tracking (por defecto, ordenado por tiempo):
+            String tracking = pedidoService.generarTracking();
             envio.setTracking(tracking);
             
             envio.setEmpresa(EmpresaDeEnvio.valueOf(empresa));
@@ -75,7 +106,7 @@ public class MenuHandler {
             
 
             pedidoService.crearPedidoConEnvio(pedido, envio);
-            System.out.println("✓ Pedido creado exitosamente!");
+            System.out.println("✓ Pedido y envío creados exitosamente!");
 
         } catch (Exception e) {
             System.out.println("Error al crear pedido: " + e.getMessage());
@@ -85,18 +116,37 @@ public class MenuHandler {
     public void listarTodosLosPedidos() {
         try {
             System.out.println("\n--- LISTA DE PEDIDOS ---");
-            List<Pedido> pedidos = pedidoService.obtenerTodosLosPedidos();
+            System.out.print("Ordenar por (1) ID o (2) Fecha [1]: ");
+            PageRequest.Order orden = scanner.nextLine().trim().equals("2")
+                    ? PageRequest.Order.FECHA
+                    : PageRequest.Order.ID;
+
+            PageRequest pagina = PageRequest.first(TAMANIO_PAGINA, orden);
+            int numeroPagina = 1;
+            while (pagina != null) {
+                Page<Pedido> pedidos = pedidoService.listarPedidosPaginado(pagina);
+
+                if (pedidos.isEmpty() && numeroPagina == 1) {
+                    System.out.println("No hay pedidos registrados.");
+                    return;
+                }
 
-            if (pedidos.isEmpty()) {
-                System.out.println("No hay pedidos registrados.");
-                return;
-            }
+                System.out.println("-- Página " + numeroPagina + " --");
+                for (Pedido pedido : pedidos.getItems()) {
+                    if (!pedido.isEliminado()) {
+                        System.out.printf("ID: %s - Pedido #%s - Cliente: %s - Total: $%.2f - Estado: %s%n",
+                                pedido.getId(),pedido.getNumero(), pedido.getClienteNombre(),
+                                pedido.getTotal(), pedido.getEstado());
+                    }
+                }
 
-            for (Pedido pedido : pedidos) {
-                if (!pedido.isEliminado()) {
-                    System.out.printf("ID: %s - Pedido #%s - Cliente: %s - Total: $%.2f - Estado: %s%n",
-                            pedido.getId(),pedido.getNumero(), pedido.getClienteNombre(),
-                            pedido.getTotal(), pedido.getEstado());
+                pagina = pedidos.getNext();
+                if (pagina != null) {
+                    System.out.print("Enter para ver la página siguiente, Q para salir: ");
+                    if (scanner.nextLine().trim().equalsIgnoreCase("Q")) {
+                        return;
+                    }
+                    numeroPagina++;
                 }
             }
         } catch (Exception e) {
@@ -210,17 +260,162 @@ public class MenuHandler {
     public void mostrarEstadisticas() {
         try {
             System.out.println("\n--- ESTADÍSTICAS ---");
-            long totalPedidos = pedidoService.contarPedidosActivos();
-            double valorTotal = pedidoService.calcularValorTotalPedidos();
+            ResumenPedidos resumen = pedidoService.resumenEnVivo();
+            if (resumen != null) {
+                mostrarResumenEnVivo(resumen);
+                System.out.print("\n¿Ver detalle agrupado por estado, empresa, tipo y mes? (consulta la base) (s/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("s")) {
+                    mostrarEstadisticasCache();
+                    mostrarReintentos();
+                    return;
+                }
+            }
 
-            System.out.printf("Total de pedidos activos: %d%n", totalPedidos);
-            System.out.printf("Valor total de pedidos: $%.2f%n", valorTotal);
+            EstadisticasPedidos estadisticas = pedidoService.obtenerEstadisticas();
+            EstadisticasPedidos.Metricas general = estadisticas.getGeneral();
+
+            System.out.printf("Total de pedidos activos: %d%n", general.cantidad());
+            System.out.printf("Valor total de pedidos: $%.2f%n", general.sumaTotal());
+            if (general.cantidad() > 0) {
+                System.out.printf("Total por pedido: promedio $%.2f - mínimo $%.2f - máximo $%.2f%n",
+                        general.promedioTotal(), general.minTotal(), general.maxTotal());
+            }
+            if (general.cantidadEnvios() > 0) {
+                System.out.printf("Costo de envío: total $%.2f - promedio $%.2f - mínimo $%.2f - máximo $%.2f%n",
+                        general.sumaCosto(), general.promedioCosto(), general.minCosto(), general.maxCosto());
+            }
+            mostrarGrupo("Por estado", estadisticas.getPorEstado());
+            mostrarGrupo("Por empresa de envío", estadisticas.getPorEmpresa());
+            mostrarGrupo("Por tipo de envío", estadisticas.getPorTipo());
+            mostrarGrupo("Por estado de envío", estadisticas.getPorEstadoEnvio());
+            mostrarGrupo("Por mes", estadisticas.getPorMes());
+            mostrarEstadisticasCache();
+            mostrarReintentos();
 
         } catch (Exception e) {
             System.out.println("Error al calcular estadísticas: " + e.getMessage());
         }
     }
 
+    private void mostrarResumenEnVivo(ResumenPedidos resumen) {
+        System.out.printf("Total de pedidos activos: %d%n", resumen.activos());
+        System.out.printf("Valor total de pedidos: $%.2f%n", resumen.valorTotal());
+        System.out.println("Por estado: " + resumen.porEstado());
+        System.out.println("Por empresa de envío: " + resumen.porEmpresa());
+        System.out.println("Por estado de envío: " + resumen.porEstadoEnvio());
+        System.out.println("(en memoria, conciliado con la base: " + resumen.conciliadoEn() + ")");
+    }
+
+    private void mostrarEstadisticasCache() {
+        EstadisticasCache cacheEnvios = pedidoService.estadisticasCacheEnvios();
+        if (cacheEnvios != null) {
+            System.out.println("Cache de envíos: " + cacheEnvios);
+        }
+        EstadisticasCache cacheConsultas = pedidoService.estadisticasCacheConsultas();
+        if (cacheConsultas != null) {
+            System.out.println("Cache de consultas: " + cacheConsultas);
+        }
+    }
+
+    private void mostrarReintentos() {
+        Map<String, RetryStats> reintentos = pedidoService.estadisticasReintentos();
+        if (reintentos.isEmpty()) {
+            return;
+        }
+        System.out.println("\nReintentos por deadlock / lock wait timeout:");
+        for (Map.Entry<String, RetryStats> operacion : reintentos.entrySet()) {
+            System.out.printf("  %-22s %s%n", operacion.getKey(), operacion.getValue());
+        }
+    }
+
+    public void mostrarMetricas() {
+        System.out.println("\n--- MÉTRICAS DE RENDIMIENTO ---");
+        if (metricas == null) {
+            System.out.println("Las métricas están desactivadas (metrics.enabled=false).");
+            return;
+        }
+        List<MetricaOperacion> operaciones = metricas.getOperaciones();
+        if (operaciones.isEmpty()) {
+            System.out.println("Todavía no se registraron operaciones.");
+            return;
+        }
+        System.out.println("Tiempos en ms; espera = obteniendo conexión, ejecución = resto");
+        System.out.printf("%-42s %8s %7s %9s %9s %9s %9s %9s %9s %9s%n", "Operación", "Llamadas", "Errores",
+                "Filas", "Prom.", "p50", "p99", "p999", "Espera", "Ejecución");
+        for (MetricaOperacion m : operaciones) {
+            System.out.printf("%-42s %8d %7d %9d %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n", m.getNombre(),
+                    m.getLlamadas(), m.getErrores(), m.getFilas(), m.getPromedioMicros() / 1000.0,
+                    m.getP50Micros() / 1000.0, m.getP99Micros() / 1000.0, m.getP999Micros() / 1000.0,
+                    m.getEsperaConexionPromedioMicros() / 1000.0, m.getEjecucionPromedioMicros() / 1000.0);
+        }
+    }
+
+    private void mostrarGrupo(String titulo, Map<?, EstadisticasPedidos.Metricas> grupos) {
+        if (grupos.isEmpty()) {
+            return;
+        }
+        System.out.println("\n" + titulo + ":");
+        System.out.printf("  %-16s %8s %14s %12s %12s %12s%n",
+                "", "Pedidos", "Total", "Prom. total", "Costo envío", "Prom. costo");
+        for (Map.Entry<?, EstadisticasPedidos.Metricas> grupo : grupos.entrySet()) {
+            EstadisticasPedidos.Metricas m = grupo.getValue();
+            System.out.printf("  %-16s %8d %14.2f %12.2f %12.2f %12.2f%n",
+                    grupo.getKey(), m.cantidad(), m.sumaTotal(), m.promedioTotal(), m.sumaCosto(), m.promedioCosto());
+        }
+    }
+
+    public void importarPedidos() {
+        try {
+            System.out.println("\n--- IMPORTAR PEDIDOS ---");
+            System.out.print("Ruta del archivo (.csv, .json, .jsonl, .ndjson): ");
+            Path archivo = Paths.get(scanner.nextLine().trim());
+            if (!Files.isReadable(archivo)) {
+                System.out.println("No se puede leer el archivo: " + archivo);
+                return;
+            }
+
+            ResultadoImportacion resultado = importador.importar(archivo);
+            System.out.println("✓ Importación finalizada");
+            System.out.println(resultado);
+
+            if (resultado.getFilasConError() > 0) {
+                Path reporte = archivo.resolveSibling(archivo.getFileName() + ".errores.csv");
+                resultado.escribirReporteErrores(reporte);
+                System.out.println("Primeros errores:");
+                for (ErrorImportacion error : resultado.getErrores().subList(0, (int) Math.min(10, resultado.getFilasConError()))) {
+                    System.out.printf("- Línea %d: %s%n", error.linea(), error.mensaje());
+                }
+                System.out.println("Reporte completo de errores: " + reporte);
+            }
+        } catch (Exception e) {
+            System.out.println("Error al importar pedidos: " + e.getMessage());
+        }
+    }
+
+    public void exportarPedidos() {
+        try {
+            System.out.println("\n--- EXPORTAR PEDIDOS ---");
+            System.out.print("Archivo destino (.csv o .ndjson, agregar .gz para comprimir): ");
+            Path destino = Paths.get(scanner.nextLine().trim());
+            FormatoArchivo formato = FormatoArchivo.desdeArchivo(destino);
+            boolean gzip = destino.getFileName().toString().toLowerCase().endsWith(".gz");
+
+            System.out.print("Cantidad de hilos (particiones por rango de ID) [1]: ");
+            String hilos = scanner.nextLine().trim();
+            int particiones = hilos.isEmpty() ? 1 : Integer.parseInt(hilos);
+            if (particiones > maxParticiones) {
+                System.out.println("Se usan " + maxParticiones + " hilos, el máximo de conexiones del pool.");
+                particiones = maxParticiones;
+            }
+
+            ResultadoExportacion resultado = exportador.exportar(destino, formato, gzip, particiones);
+            System.out.println("✓ Exportación finalizada: " + destino);
+            System.out.println(resultado);
+        } catch (Exception e) {
+            System.out.println("Error al exportar pedidos: " + e.getMessage());
+        }
+    }
+
     // Métodos para las otras opciones (actualizarPedido, etc.)
     public void actualizarPedido() {
         // Implementar lógica de actualización
@@ -0,0 +1,104 @@
+package metricas;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histograma de latencias concurrente con buckets log-lineales: cada
+ * potencia de dos se divide en {@value #SUB_BUCKETS} buckets iguales, por
+ * lo que el error relativo de cualquier percentil es menor al 3% sin
+ * importar si la latencia es de microsegundos o de segundos. <br>
+ *
+ * Registrar un valor es un incremento atómico sin locks, así que muchos
+ * hilos (de plataforma o virtuales) pueden registrar a la vez. Las
+ * latencias se guardan en microsegundos.
+ */
+public class HistogramaLatencias {
+
+    /** Buckets por potencia de dos (debe ser potencia de dos). */
+    private static final int SUB_BUCKETS = 32;
+
+    /** log2 de {@link #SUB_BUCKETS}. */
+    private static final int BITS_SUB_BUCKET = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(SUB_BUCKETS * (Long.SIZE - BITS_SUB_BUCKET + 1));
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos duración en nanosegundos
+     */
+    public void registrar(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        cuentas.incrementAndGet(indice(micros));
+        maximo.accumulate(micros);
+    }
+
+    /**
+     * @return cantidad de latencias registradas
+     */
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < cuentas.length(); i++) {
+            total += cuentas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve la latencia por debajo de la cual queda la fracción
+     * {@code percentil} de las registradas (el límite superior de su
+     * bucket, sin pasar del máximo observado).
+     *
+     * @param percentil valor entre 0 y 1, por ejemplo 0.99
+     * @return latencia en microsegundos, o 0 si no hay registros
+     */
+    public long percentil(double percentil) {
+        long total = total();
+        if (total == 0) {
+            return 0;
+        }
+        long rango = Math.max(1, (long) Math.ceil(percentil * total));
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length(); i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= rango) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * @return latencia máxima registrada, en microsegundos
+     */
+    public long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Los valores menores a {@link #SUB_BUCKETS} tienen un bucket cada uno;
+     * los demás van al bucket de su potencia de dos según sus
+     * {@link #BITS_SUB_BUCKET} bits más significativos después del primero.
+     */
+    private static int indice(long valor) {
+        if (valor < SUB_BUCKETS) {
+            return (int) valor;
+        }
+        int exponente = Long.SIZE - 1 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUB_BUCKET;
+        int sub = (int) (valor >>> desplazamiento) - SUB_BUCKETS;
+        return SUB_BUCKETS + desplazamiento * SUB_BUCKETS + sub;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < SUB_BUCKETS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUB_BUCKETS - 1;
+        int sub = indice % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << desplazamiento) - 1;
+    }
+}
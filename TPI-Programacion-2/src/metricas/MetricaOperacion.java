@@ -0,0 +1,115 @@
+package metricas;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas acumuladas de un método instrumentado: llamadas, errores, filas
+ * devueltas, histograma de latencias y, por separado, el tiempo esperando
+ * una conexión del pool. La ejecución es la latencia menos esa espera. <br>
+ *
+ * Todos los contadores son {@link LongAdder} o incrementos atómicos, así
+ * que registrar una llamada no toma locks.
+ */
+public class MetricaOperacion implements MetricaOperacionMBean {
+
+    private final String nombre;
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder filas = new LongAdder();
+    private final LongAdder nanosTotales = new LongAdder();
+    private final LongAdder nanosEspera = new LongAdder();
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private final HistogramaLatencias esperas = new HistogramaLatencias();
+
+    MetricaOperacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Registra una llamada.
+     *
+     * @param nanos duración total
+     * @param esperaNanos parte de la duración esperando conexiones
+     * @param filasDevueltas filas devueltas (0 si no aplica)
+     * @param error {@code true} si la llamada lanzó una excepción
+     */
+    void registrar(long nanos, long esperaNanos, long filasDevueltas, boolean error) {
+        llamadas.increment();
+        nanosTotales.add(nanos);
+        nanosEspera.add(esperaNanos);
+        latencias.registrar(nanos);
+        esperas.registrar(esperaNanos);
+        if (filasDevueltas > 0) {
+            filas.add(filasDevueltas);
+        }
+        if (error) {
+            errores.increment();
+        }
+    }
+
+    @Override
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public long getLlamadas() {
+        return llamadas.sum();
+    }
+
+    @Override
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    @Override
+    public long getFilas() {
+        return filas.sum();
+    }
+
+    @Override
+    public long getPromedioMicros() {
+        return promedioMicros(nanosTotales);
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latencias.percentil(0.50);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latencias.percentil(0.99);
+    }
+
+    @Override
+    public long getP999Micros() {
+        return latencias.percentil(0.999);
+    }
+
+    @Override
+    public long getMaximoMicros() {
+        return latencias.maximo();
+    }
+
+    @Override
+    public long getEsperaConexionPromedioMicros() {
+        return promedioMicros(nanosEspera);
+    }
+
+    @Override
+    public long getEsperaConexionP99Micros() {
+        return esperas.percentil(0.99);
+    }
+
+    @Override
+    public long getEjecucionPromedioMicros() {
+        return Math.max(0, getPromedioMicros() - getEsperaConexionPromedioMicros());
+    }
+
+    private long promedioMicros(LongAdder nanos) {
+        long cantidad = llamadas.sum();
+        return cantidad == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos.sum() / cantidad);
+    }
+}
@@ -0,0 +1,32 @@
+package metricas;
+
+/**
+ * Vista JMX de una {@link MetricaOperacion}. Los tiempos están en
+ * microsegundos.
+ */
+public interface MetricaOperacionMBean {
+
+    String getNombre();
+
+    long getLlamadas();
+
+    long getErrores();
+
+    long getFilas();
+
+    long getPromedioMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaximoMicros();
+
+    long getEsperaConexionPromedioMicros();
+
+    long getEsperaConexionP99Micros();
+
+    long getEjecucionPromedioMicros();
+}
@@ -0,0 +1,203 @@
+package metricas;
+
+import dao.Page;
+import entities.Base;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro de métricas por operación de los DAOs y servicios
+ * instrumentados ({@code dao.InstrumentedPedidoDAO},
+ * {@code dao.InstrumentedEnvioDAO}, {@code service.PedidoServiceInstrumentado}).
+ * <br>
+ *
+ * {@link #medir(String, Llamada)} cronometra una llamada y registra su
+ * latencia, si falló y cuántas filas devolvió (el tamaño de una lista o
+ * página, 1 por entidad, 0 si es {@code null}; los streams se cuentan al
+ * abrirse, sin filas). El tiempo de espera por conexiones que el
+ * {@code ConnectionProvider} informa con {@link #registrarEsperaConexion(long)}
+ * mientras la llamada corre se le atribuye a ella y a las que la contienen
+ * (un método de servicio incluye la espera de sus DAOs). <br>
+ *
+ * Cada operación se publica además por JMX como
+ * {@code tpi.metricas:type=Operacion,name=<Clase.metodo>}. El costo por
+ * llamada es de unos pocos contadores atómicos, sin locks.
+ */
+public class Metricas {
+
+    /** Dominio JMX de las métricas. */
+    public static final String DOMINIO_JMX = "tpi.metricas";
+
+    /** Operación que acumula todas las esperas por conexión, estén o no dentro de una llamada medida. */
+    public static final String ESPERA_CONEXION = "ConnectionProvider.getConnection";
+
+    /**
+     * Llamada medida que devuelve un resultado.
+     *
+     * @param <T> tipo del resultado
+     * @param <E> excepción que puede lanzar
+     */
+    @FunctionalInterface
+    public interface Llamada<T, E extends Exception> {
+
+        T ejecutar() throws E;
+    }
+
+    /**
+     * Llamada medida sin resultado.
+     *
+     * @param <E> excepción que puede lanzar
+     */
+    @FunctionalInterface
+    public interface Accion<E extends Exception> {
+
+        void ejecutar() throws E;
+    }
+
+    private final Map<String, MetricaOperacion> operaciones = new ConcurrentHashMap<>();
+    private final MBeanServer servidorJmx;
+
+    /** Espera por conexiones acumulada por la llamada medida en curso en cada hilo. */
+    private final ThreadLocal<long[]> esperaEnCurso = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @param publicarJmx {@code true} para registrar cada operación como MBean
+     */
+    public Metricas(boolean publicarJmx) {
+        this.servidorJmx = publicarJmx ? ManagementFactory.getPlatformMBeanServer() : null;
+    }
+
+    /**
+     * Ejecuta y mide una llamada.
+     *
+     * @param operacion nombre de la operación, por ejemplo {@code PedidoDAO.findById}
+     * @param llamada llamada a ejecutar
+     * @param <T> tipo del resultado
+     * @param <E> excepción que puede lanzar
+     * @return resultado de la llamada
+     * @throws E la excepción de la llamada, sin cambios
+     */
+    public <T, E extends Exception> T medir(String operacion, Llamada<T, E> llamada) throws E {
+        long[] espera = esperaEnCurso.get();
+        long esperaExterna = espera[0];
+        espera[0] = 0;
+        long inicio = System.nanoTime();
+        T resultado = null;
+        boolean error = true;
+        try {
+            resultado = llamada.ejecutar();
+            error = false;
+            return resultado;
+        } finally {
+            long nanos = System.nanoTime() - inicio;
+            long esperaPropia = espera[0];
+            espera[0] = esperaExterna + esperaPropia;
+            operacion(operacion).registrar(nanos, esperaPropia, filas(resultado), error);
+        }
+    }
+
+    /**
+     * Ejecuta y mide una llamada sin resultado.
+     *
+     * @param operacion nombre de la operación
+     * @param accion llamada a ejecutar
+     * @param <E> excepción que puede lanzar
+     * @throws E la excepción de la llamada, sin cambios
+     */
+    public <E extends Exception> void medirSinResultado(String operacion, Accion<E> accion) throws E {
+        medir(operacion, () -> {
+            accion.ejecutar();
+            return null;
+        });
+    }
+
+    /**
+     * Mide una llamada asíncrona desde que se invoca hasta que su future se
+     * completa. La espera por conexiones atribuida es la de la parte que
+     * corre en el hilo que llama.
+     *
+     * @param operacion nombre de la operación
+     * @param llamada llamada que devuelve el future
+     * @param <T> tipo del resultado
+     * @return future que se completa igual que el de la llamada, después de registrarla
+     */
+    public <T> CompletableFuture<T> medirAsincrono(String operacion, Supplier<CompletableFuture<T>> llamada) {
+        long[] espera = esperaEnCurso.get();
+        long esperaExterna = espera[0];
+        espera[0] = 0;
+        long inicio = System.nanoTime();
+        MetricaOperacion metrica = operacion(operacion);
+        CompletableFuture<T> futuro;
+        try {
+            futuro = llamada.get();
+        } catch (RuntimeException e) {
+            metrica.registrar(System.nanoTime() - inicio, espera[0], 0, true);
+            throw e;
+        } finally {
+            espera[0] += esperaExterna;
+        }
+        long esperaPropia = espera[0] - esperaExterna;
+        return futuro.whenComplete((resultado, error) ->
+                metrica.registrar(System.nanoTime() - inicio, esperaPropia, filas(resultado), error != null));
+    }
+
+    /**
+     * Registra el tiempo que tardó en obtenerse una conexión. Lo invoca el
+     * {@code ConnectionProvider} instrumentado en el hilo que pidió la
+     * conexión.
+     *
+     * @param nanos espera en nanosegundos
+     */
+    public void registrarEsperaConexion(long nanos) {
+        esperaEnCurso.get()[0] += nanos;
+        operacion(ESPERA_CONEXION).registrar(nanos, nanos, 0, false);
+    }
+
+    /**
+     * @return métricas de todas las operaciones llamadas al menos una vez,
+     * ordenadas por nombre
+     */
+    public List<MetricaOperacion> getOperaciones() {
+        List<MetricaOperacion> lista = new ArrayList<>(operaciones.values());
+        lista.sort(Comparator.comparing(MetricaOperacion::getNombre));
+        return lista;
+    }
+
+    private MetricaOperacion operacion(String nombre) {
+        MetricaOperacion metrica = operaciones.get(nombre);
+        return metrica != null ? metrica : operaciones.computeIfAbsent(nombre, this::crear);
+    }
+
+    private MetricaOperacion crear(String nombre) {
+        MetricaOperacion metrica = new MetricaOperacion(nombre);
+        if (servidorJmx != null) {
+            try {
+                servidorJmx.registerMBean(metrica,
+                        new ObjectName(DOMINIO_JMX + ":type=Operacion,name=" + ObjectName.quote(nombre)));
+            } catch (JMException e) {
+                System.err.println("No se pudo publicar por JMX la métrica " + nombre + ": " + e.getMessage());
+            }
+        }
+        return metrica;
+    }
+
+    private static long filas(Object resultado) {
+        if (resultado instanceof Collection<?> coleccion) {
+            return coleccion.size();
+        }
+        if (resultado instanceof Page<?> pagina) {
+            return pagina.getItems().size();
+        }
+        return resultado instanceof Base<?> ? 1 : 0;
+    }
+}
@@ -0,0 +1,76 @@
+package migraciones;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Una migración del esquema: un archivo {@code V<version>__<descripcion>.sql}
+ * con una o más sentencias separadas por {@code ;}.
+ *
+ * @param version número de versión (define el orden de aplicación)
+ * @param descripcion descripción tomada del nombre del archivo
+ * @param sql contenido del archivo, con fines de línea normalizados a {@code \n}
+ * @param checksum SHA-256 en hexadecimal de {@code sql}
+ */
+public record Migracion(int version, String descripcion, String sql, String checksum) {
+
+    /** Marca de cabecera que restringe la migración a un motor: {@code -- motor: MySQL}. */
+    private static final String MARCA_MOTOR = "-- motor:";
+
+    /**
+     * Separa el contenido en sentencias individuales, descartando las líneas
+     * de comentario ({@code --}) y las sentencias vacías. Como el cliente
+     * {@code mysql}, admite la directiva {@code DELIMITER} para poder
+     * escribir procedimientos cuyo cuerpo contiene {@code ;}. No contempla
+     * delimitadores dentro de literales, que las migraciones no deben usar.
+     *
+     * @return sentencias en el orden del archivo
+     */
+    public List<String> sentencias() {
+        List<String> sentencias = new ArrayList<>();
+        String delimitador = ";";
+        StringBuilder actual = new StringBuilder();
+        for (String linea : sql.split("\n")) {
+            String recortada = linea.trim();
+            if (recortada.startsWith("--")) {
+                continue;
+            }
+            if (recortada.toUpperCase().startsWith("DELIMITER ")) {
+                delimitador = recortada.substring("DELIMITER ".length()).trim();
+                continue;
+            }
+            actual.append(linea).append('\n');
+            // Una línea puede cerrar más de una sentencia (por ejemplo "a; b;")
+            int fin;
+            while ((fin = actual.indexOf(delimitador)) >= 0) {
+                agregar(sentencias, actual.substring(0, fin));
+                actual.delete(0, fin + delimitador.length());
+            }
+        }
+        agregar(sentencias, actual.toString());
+        return sentencias;
+    }
+
+    /**
+     * Motor de base de datos al que está restringida la migración, indicado
+     * con una línea {@code -- motor: <nombre>} (por ejemplo, procedimientos
+     * almacenados que sólo existen en MySQL).
+     *
+     * @return nombre del motor, o {@code null} si aplica a cualquiera
+     */
+    public String motor() {
+        for (String linea : sql.split("\n")) {
+            String recortada = linea.trim();
+            if (recortada.toLowerCase().startsWith(MARCA_MOTOR)) {
+                return recortada.substring(MARCA_MOTOR.length()).trim();
+            }
+        }
+        return null;
+    }
+
+    private static void agregar(List<String> sentencias, String sentencia) {
+        if (!sentencia.isBlank()) {
+            sentencias.add(sentencia.trim());
+        }
+    }
+}
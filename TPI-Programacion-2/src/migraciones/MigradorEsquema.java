@@ -0,0 +1,272 @@
+package migraciones;
+
+import config.ConnectionProvider;
+import config.TransactionManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Aplica al iniciar la aplicación las migraciones versionadas del esquema. <br>
+ *
+ * Las migraciones son archivos SQL del classpath listados, en orden, en
+ * {@code migraciones/indice.txt}. Cada migración aplicada se registra en la
+ * tabla {@code schema_migraciones} con su versión y el SHA-256 de su
+ * contenido; en cada arranque se aplican sólo las pendientes y se verifica
+ * que las ya aplicadas no hayan sido modificadas (un checksum distinto
+ * detiene el arranque, igual que una versión registrada en la base que la
+ * aplicación no conoce). Una migración marcada con {@code -- motor: <nombre>}
+ * sólo se aplica si la base es de ese motor; en otro caso se omite sin
+ * registrarla (por ejemplo, los procedimientos de MySQL sobre una base
+ * embebida). <br>
+ *
+ * Cada migración se ejecuta en su propia transacción junto con su registro.
+ * MySQL confirma implícitamente cada sentencia DDL, así que si una migración
+ * falla a mitad de camino lo ya aplicado queda en la base. Por eso cada
+ * sentencia debe poder repetirse: las tablas se crean con
+ * {@code IF NOT EXISTS}, los procedimientos con un {@code DROP ... IF EXISTS}
+ * previo, y un {@code CREATE INDEX} cuyo índice ya existe en la tabla se
+ * omite. Así, corregida la causa del error, basta con volver a arrancar. <br>
+ *
+ * Sólo depende de un {@link ConnectionProvider}, por lo que puede aplicarse
+ * igual sobre una base embebida para pruebas, por ejemplo
+ * {@code new MigradorEsquema(() -> DriverManager.getConnection("jdbc:h2:mem:test;MODE=MySQL")).migrar()}.
+ */
+public class MigradorEsquema {
+
+    /** Directorio de las migraciones dentro del classpath. */
+    public static final String DIRECTORIO_POR_DEFECTO = "migraciones";
+
+    private static final String CREATE_TABLA_SQL
+            = "CREATE TABLE IF NOT EXISTS schema_migraciones ("
+            + "version INT PRIMARY KEY, "
+            + "descripcion VARCHAR(200) NOT NULL, "
+            + "checksum CHAR(64) NOT NULL, "
+            + "aplicada_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL, "
+            + "duracion_ms BIGINT NOT NULL)";
+
+    private static final String SELECT_APLICADAS_SQL
+            = "SELECT version, checksum FROM schema_migraciones";
+
+    private static final String INSERT_APLICADA_SQL
+            = "INSERT INTO schema_migraciones (version, descripcion, checksum, duracion_ms) VALUES (?,?,?,?)";
+
+    private static final Pattern NOMBRE_ARCHIVO = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final Pattern CREATE_INDEX
+            = Pattern.compile("CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+`?(\\w+)`?\\s+ON\\s+`?(\\w+)`?.*",
+                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final ConnectionProvider connectionProvider;
+    private final String directorio;
+
+    /**
+     * Crea el migrador con las migraciones de {@value #DIRECTORIO_POR_DEFECTO}.
+     *
+     * @param connectionProvider proveedor de conexiones de la base a migrar
+     */
+    public MigradorEsquema(ConnectionProvider connectionProvider) {
+        this(connectionProvider, DIRECTORIO_POR_DEFECTO);
+    }
+
+    /**
+     * @param connectionProvider proveedor de conexiones de la base a migrar
+     * @param directorio directorio del classpath que contiene {@code indice.txt} y los archivos SQL
+     */
+    public MigradorEsquema(ConnectionProvider connectionProvider, String directorio) {
+        if (connectionProvider == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        this.connectionProvider = connectionProvider;
+        this.directorio = directorio;
+    }
+
+    /**
+     * Aplica las migraciones pendientes, en orden de versión.
+     *
+     * @return migraciones aplicadas en esta ejecución (vacía si el esquema ya estaba al día)
+     * @throws SQLException si falla alguna migración o el acceso a {@code schema_migraciones}
+     * @throws IllegalStateException si una migración aplicada fue modificada, la base
+     *                               tiene versiones desconocidas o falta un archivo
+     */
+    public List<Migracion> migrar() throws SQLException {
+        List<Migracion> migraciones = cargarMigraciones();
+        Map<Integer, String> aplicadas = leerAplicadas();
+        validar(migraciones, aplicadas);
+
+        String motorActual = leerMotor();
+        List<Migracion> nuevas = new ArrayList<>();
+        for (Migracion migracion : migraciones) {
+            if (migracion.motor() != null && !migracion.motor().equalsIgnoreCase(motorActual)) {
+                continue;
+            }
+            if (!aplicadas.containsKey(migracion.version())) {
+                aplicar(migracion);
+                nuevas.add(migracion);
+            }
+        }
+        return nuevas;
+    }
+
+    /**
+     * Lee el índice y los archivos de migración del classpath.
+     *
+     * @return migraciones en orden estrictamente creciente de versión
+     * @throws IllegalStateException si el índice o algún archivo es inválido
+     */
+    public List<Migracion> cargarMigraciones() {
+        List<Migracion> migraciones = new ArrayList<>();
+        for (String nombre : leerRecurso("indice.txt").split("\n")) {
+            nombre = nombre.trim();
+            if (nombre.isEmpty() || nombre.startsWith("#")) {
+                continue;
+            }
+            Matcher m = NOMBRE_ARCHIVO.matcher(nombre);
+            if (!m.matches()) {
+                throw new IllegalStateException("Nombre de migración inválido: " + nombre);
+            }
+            int version = Integer.parseInt(m.group(1));
+            if (!migraciones.isEmpty() && version <= migraciones.get(migraciones.size() - 1).version()) {
+                throw new IllegalStateException("Las migraciones del índice deben tener versiones crecientes: " + nombre);
+            }
+            String sql = leerRecurso(nombre);
+            migraciones.add(new Migracion(version, m.group(2).replace('_', ' '), sql, sha256(sql)));
+        }
+        return migraciones;
+    }
+
+    private Map<Integer, String> leerAplicadas() throws SQLException {
+        Map<Integer, String> aplicadas = new HashMap<>();
+        try (Connection conn = connectionProvider.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute(CREATE_TABLA_SQL);
+            try (ResultSet rs = stmt.executeQuery(SELECT_APLICADAS_SQL)) {
+                while (rs.next()) {
+                    aplicadas.put(rs.getInt("version"), rs.getString("checksum"));
+                }
+            }
+        }
+        return aplicadas;
+    }
+
+    private String leerMotor() throws SQLException {
+        try (Connection conn = connectionProvider.getConnection()) {
+            return conn.getMetaData().getDatabaseProductName();
+        }
+    }
+
+    private static void validar(List<Migracion> migraciones, Map<Integer, String> aplicadas) {
+        Map<Integer, String> desconocidas = new HashMap<>(aplicadas);
+        for (Migracion migracion : migraciones) {
+            String checksum = desconocidas.remove(migracion.version());
+            if (checksum != null && !checksum.equals(migracion.checksum())) {
+                throw new IllegalStateException("La migración V" + migracion.version()
+                        + " fue modificada después de aplicarse (checksum distinto)");
+            }
+        }
+        if (!desconocidas.isEmpty()) {
+            throw new IllegalStateException("La base tiene migraciones que esta versión de la aplicación no conoce: "
+                    + desconocidas.keySet());
+        }
+    }
+
+    private void aplicar(Migracion migracion) throws SQLException {
+        long inicio = System.nanoTime();
+        try (TransactionManager tx = new TransactionManager(connectionProvider.getConnection())) {
+            tx.startTransaction();
+
+            try (Statement stmt = tx.getConnection().createStatement()) {
+                for (String sentencia : migracion.sentencias()) {
+                    if (!indiceExistente(tx.getConnection(), sentencia)) {
+                        stmt.execute(sentencia);
+                    }
+                }
+                try (PreparedStatement registro = tx.getConnection().prepareStatement(INSERT_APLICADA_SQL)) {
+                    registro.setInt(1, migracion.version());
+                    registro.setString(2, migracion.descripcion());
+                    registro.setString(3, migracion.checksum());
+                    registro.setLong(4, (System.nanoTime() - inicio) / 1_000_000);
+                    registro.executeUpdate();
+                }
+                tx.commit();
+
+            } catch (SQLException e) {
+                tx.rollback();
+                throw new SQLException("Falló la migración V" + migracion.version()
+                        + " (" + migracion.descripcion() + "): " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Indica si la sentencia es un {@code CREATE INDEX} de un índice que ya
+     * existe en la tabla (quedó de una ejecución anterior que falló después
+     * de crearlo). MySQL no admite {@code CREATE INDEX IF NOT EXISTS}.
+     */
+    private static boolean indiceExistente(Connection conn, String sentencia) throws SQLException {
+        Matcher m = CREATE_INDEX.matcher(sentencia);
+        if (!m.matches()) {
+            return false;
+        }
+        String indice = m.group(1);
+        String tabla = m.group(2);
+        // Algunos motores (H2) guardan los nombres en mayúsculas
+        return tieneIndice(conn, tabla, indice) || tieneIndice(conn, tabla.toUpperCase(), indice);
+    }
+
+    private static boolean tieneIndice(Connection conn, String tabla, String indice) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, tabla, false, true)) {
+            while (rs.next()) {
+                if (indice.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Lee un recurso de texto del directorio de migraciones, normalizando los fines de línea. */
+    private String leerRecurso(String nombre) {
+        String ruta = directorio + "/" + nombre;
+        InputStream in = MigradorEsquema.class.getClassLoader().getResourceAsStream(ruta);
+        if (in == null) {
+            throw new IllegalStateException("No se encontró el recurso de migración: " + ruta);
+        }
+        StringBuilder contenido = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                contenido.append(linea).append('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer el recurso de migración: " + ruta, e);
+        }
+        return contenido.toString();
+    }
+
+    private static String sha256(String contenido) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(contenido.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Esquema base de pedidos y envíos.
+-- Usa IF NOT EXISTS para poder aplicarse sobre una base creada a mano con el
+-- script del README: en ese caso sólo queda registrada como línea base.
+
+CREATE TABLE IF NOT EXISTS envios (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    eliminado BOOLEAN DEFAULT FALSE NOT NULL,
+    tracking VARCHAR(100) NOT NULL UNIQUE,
+    empresa ENUM('ANDREANI', 'OCA', 'CORREO_ARG') NOT NULL,
+    tipo ENUM('ESTANDAR', 'EXPRESS') NOT NULL,
+    costo DECIMAL(10, 2) NOT NULL CHECK (costo > 0),
+    fecha_despacho DATE NULL,
+    fecha_estimada DATE NULL,
+    estado ENUM('EN_PREPARACION', 'EN_TRANSITO', 'ENTREGADO') NOT NULL DEFAULT 'EN_PREPARACION'
+);
+
+CREATE TABLE IF NOT EXISTS pedidos (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    eliminado BOOLEAN DEFAULT FALSE NOT NULL,
+    numero VARCHAR(50) NOT NULL,
+    fecha DATE NOT NULL,
+    clienteNombre VARCHAR(100) NOT NULL,
+    total DECIMAL(10, 2) NOT NULL CHECK (total > 0),
+    estado ENUM('NUEVO', 'FACTURADO', 'ENVIADO') NOT NULL,
+    envio INT NOT NULL,
+    FOREIGN KEY (envio) REFERENCES envios (id)
+);
@@ -0,0 +1,24 @@
+-- Índices compuestos alineados con las consultas de los DAOs.
+-- Todas las lecturas filtran eliminado = FALSE, por eso es la primera
+-- columna de cada índice. InnoDB agrega la clave primaria (id) al final de
+-- todo índice secundario; se la declara explícitamente donde se usa como
+-- desempate del orden (paginación por clave y criterios ordenados).
+
+-- PedidoDAO.findByNumber: WHERE numero = ? AND eliminado = FALSE
+CREATE INDEX idx_pedidos_eliminado_numero ON pedidos (eliminado, numero);
+
+-- PedidoDAO.findByClient y criterios por cliente (+ rango de fechas):
+-- WHERE clienteNombre = ? AND eliminado = FALSE [AND fecha BETWEEN ...]
+CREATE INDEX idx_pedidos_eliminado_cliente_fecha ON pedidos (eliminado, clienteNombre, fecha);
+
+-- PedidoDAO.findPage por fecha y criterios por rango de fechas:
+-- WHERE eliminado = FALSE AND (fecha, id) > (?, ?) ORDER BY fecha, id
+CREATE INDEX idx_pedidos_eliminado_fecha_id ON pedidos (eliminado, fecha, id);
+
+-- listarEnviosPorEmpresa / EnvioDAO.findByCriteria por empresa:
+-- WHERE eliminado = FALSE AND empresa = ? ORDER BY id
+CREATE INDEX idx_envios_eliminado_empresa_id ON envios (eliminado, empresa, id);
+
+-- EnvioDAO.findPage por fecha de despacho:
+-- WHERE eliminado = FALSE AND (fecha_despacho, id) > (?, ?) ORDER BY fecha_despacho, id
+CREATE INDEX idx_envios_eliminado_despacho_id ON envios (eliminado, fecha_despacho, id);
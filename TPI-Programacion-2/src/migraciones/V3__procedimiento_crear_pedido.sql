@@ -0,0 +1,42 @@
+-- motor: MySQL
+-- Procedimiento que crea un envío y su pedido en un solo viaje a la base.
+-- Maneja su propia transacción: ante cualquier error hace ROLLBACK y
+-- relanza el error original (por ejemplo, tracking duplicado).
+-- Devuelve una fila con los IDs generados (envio_id, pedido_id).
+
+DROP PROCEDURE IF EXISTS crear_pedido_con_envio;
+
+DELIMITER $$
+CREATE PROCEDURE crear_pedido_con_envio(
+    IN p_tracking VARCHAR(100),
+    IN p_empresa VARCHAR(20),
+    IN p_tipo VARCHAR(20),
+    IN p_costo DECIMAL(10, 2),
+    IN p_fecha_despacho DATE,
+    IN p_fecha_estimada DATE,
+    IN p_estado_envio VARCHAR(20),
+    IN p_numero VARCHAR(50),
+    IN p_fecha DATE,
+    IN p_cliente VARCHAR(100),
+    IN p_total DECIMAL(10, 2),
+    IN p_estado VARCHAR(20)
+)
+BEGIN
+    DECLARE v_envio_id INT;
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+
+    START TRANSACTION;
+    INSERT INTO envios (tracking, empresa, tipo, costo, fecha_despacho, fecha_estimada, estado)
+    VALUES (p_tracking, p_empresa, p_tipo, p_costo, p_fecha_despacho, p_fecha_estimada, p_estado_envio);
+    SET v_envio_id = LAST_INSERT_ID();
+    INSERT INTO pedidos (numero, fecha, clienteNombre, total, estado, envio)
+    VALUES (p_numero, p_fecha, p_cliente, p_total, p_estado, v_envio_id);
+    COMMIT;
+
+    SELECT v_envio_id AS envio_id, LAST_INSERT_ID() AS pedido_id;
+END $$
+DELIMITER ;
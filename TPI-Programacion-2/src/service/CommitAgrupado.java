@@ -0,0 +1,213 @@
+package service;
+
+import entities.Pedido;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commit agrupado ("group commit") de altas de pedidos con su envío. <br>
+ *
+ * Los pedidos se encolan y uno o más hilos escritores los toman en lotes: el
+ * primero que llega abre una ventana de hasta {@code maxEspera} y el lote se
+ * cierra al vencer la ventana o al juntar {@code maxLote} pedidos. Cada lote
+ * se escribe con un solo escritor de lote (inserciones por lotes JDBC en una
+ * transacción), por lo que N altas concurrentes pagan un único commit en
+ * lugar de N. Cada pedido se completa por separado a través de su
+ * {@link CompletableFuture}. <br>
+ *
+ * Si el lote falla, cada pedido se reintenta solo con el escritor
+ * individual: un pedido inválido (por ejemplo, un tracking duplicado) falla
+ * únicamente su propio future y no el de sus vecinos. Un lote de un solo
+ * pedido va directo al escritor individual. <br>
+ *
+ * Con baja concurrencia cada alta espera como mucho {@code maxEspera} de
+ * más; con alta concurrencia los lotes se llenan antes de vencer la ventana.
+ */
+final class CommitAgrupado {
+
+    /**
+     * Escribe un elemento (un pedido o un lote) en la base.
+     */
+    @FunctionalInterface
+    interface Escritor<T> {
+
+        /**
+         * @param valor pedido o lote de pedidos a escribir
+         * @throws Exception si falla la escritura (nada queda confirmado)
+         */
+        void escribir(T valor) throws Exception;
+    }
+
+    /** Alta pendiente: el pedido y el future que se completa al escribirlo. */
+    private record Solicitud(Pedido pedido, CompletableFuture<Pedido> resultado) {
+    }
+
+    /** Cada cuánto revisa un escritor inactivo si el agrupador se detuvo. */
+    private static final long ESPERA_INACTIVO_MS = 100;
+
+    /** Tiempo máximo para terminar de escribir lo encolado al detenerse. */
+    private static final long ESPERA_CIERRE_SEGUNDOS = 10;
+
+    private final BlockingQueue<Solicitud> cola = new LinkedBlockingQueue<>();
+    private final Escritor<List<Pedido>> escritorLote;
+    private final Escritor<Pedido> escritorIndividual;
+    private final int maxLote;
+    private final long maxEsperaNanos;
+    private final ExecutorService escritores;
+    /** Hace atómicos el control de {@code activo} y el encolado frente a {@link #detener()}. */
+    private final Object cerrojo = new Object();
+    private volatile boolean activo = true;
+
+    /**
+     * Crea el agrupador y arranca sus hilos escritores.
+     *
+     * @param escritorLote escribe un lote completo en una transacción
+     * @param escritorIndividual escribe un pedido solo (reintentos)
+     * @param maxLote cantidad máxima de pedidos por lote
+     * @param maxEsperaMillis ventana máxima de espera para juntar un lote
+     * @param cantidadEscritores hilos que escriben lotes en paralelo
+     */
+    CommitAgrupado(Escritor<List<Pedido>> escritorLote, Escritor<Pedido> escritorIndividual,
+            int maxLote, long maxEsperaMillis, int cantidadEscritores) {
+        if (maxLote <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de lote debe ser mayor a 0");
+        }
+        if (maxEsperaMillis < 0) {
+            throw new IllegalArgumentException("La espera máxima no puede ser negativa");
+        }
+        if (cantidadEscritores <= 0) {
+            throw new IllegalArgumentException("La cantidad de escritores debe ser mayor a 0");
+        }
+        this.escritorLote = escritorLote;
+        this.escritorIndividual = escritorIndividual;
+        this.maxLote = maxLote;
+        this.maxEsperaNanos = TimeUnit.MILLISECONDS.toNanos(maxEsperaMillis);
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.escritores = Executors.newFixedThreadPool(cantidadEscritores, r -> {
+            Thread t = new Thread(r, "commit-agrupado-" + numeroHilo.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < cantidadEscritores; i++) {
+            escritores.execute(this::escribirMientrasActivo);
+        }
+    }
+
+    /**
+     * Encola el alta de un pedido (con su envío ya asignado y validado).
+     *
+     * @param pedido pedido a crear
+     * @return future que se completa con el pedido (con sus IDs asignados) o
+     * con el error de su escritura
+     * @throws IllegalStateException si el agrupador ya se detuvo
+     */
+    CompletableFuture<Pedido> encolar(Pedido pedido) {
+        CompletableFuture<Pedido> resultado = new CompletableFuture<>();
+        // Si no, un alta que pasó el control mientras se detenía podría
+        // encolarse después del vaciado final y su future no se completaría
+        synchronized (cerrojo) {
+            if (!activo) {
+                throw new IllegalStateException("El commit agrupado está detenido");
+            }
+            cola.add(new Solicitud(pedido, resultado));
+        }
+        return resultado;
+    }
+
+    /**
+     * Deja de aceptar altas, espera a que se escriba lo ya encolado y
+     * detiene los escritores. Lo que no llegue a escribirse falla su future.
+     */
+    void detener() {
+        synchronized (cerrojo) {
+            activo = false;
+        }
+        escritores.shutdown();
+        try {
+            if (!escritores.awaitTermination(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS)) {
+                escritores.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            escritores.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        Solicitud pendiente;
+        while ((pendiente = cola.poll()) != null) {
+            pendiente.resultado().completeExceptionally(
+                    new IllegalStateException("El commit agrupado se detuvo antes de escribir el pedido"));
+        }
+    }
+
+    private void escribirMientrasActivo() {
+        List<Solicitud> lote = new ArrayList<>(maxLote);
+        try {
+            while (activo || !cola.isEmpty()) {
+                Solicitud primera = cola.poll(ESPERA_INACTIVO_MS, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                juntarLote(lote);
+                escribir(lote);
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            // Detención forzada: lo que ya se tomó de la cola no se escribió
+            for (Solicitud solicitud : lote) {
+                solicitud.resultado().completeExceptionally(
+                        new IllegalStateException("El commit agrupado se detuvo antes de escribir el pedido"));
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Completa el lote con lo que haya en la cola, esperando como mucho
+     * {@code maxEspera} desde que se tomó el primer pedido.
+     */
+    private void juntarLote(List<Solicitud> lote) throws InterruptedException {
+        long limite = System.nanoTime() + maxEsperaNanos;
+        while (lote.size() < maxLote) {
+            cola.drainTo(lote, maxLote - lote.size());
+            long restante = limite - System.nanoTime();
+            if (lote.size() >= maxLote || restante <= 0) {
+                return;
+            }
+            Solicitud siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                return;
+            }
+            lote.add(siguiente);
+        }
+    }
+
+    private void escribir(List<Solicitud> lote) {
+        if (lote.size() > 1) {
+            try {
+                escritorLote.escribir(lote.stream().map(Solicitud::pedido).toList());
+                for (Solicitud solicitud : lote) {
+                    solicitud.resultado().complete(solicitud.pedido());
+                }
+                return;
+            } catch (Exception e) {
+                // El lote volvió atrás completo: se reintenta cada pedido por separado
+            }
+        }
+        for (Solicitud solicitud : lote) {
+            try {
+                escritorIndividual.escribir(solicitud.pedido());
+                solicitud.resultado().complete(solicitud.pedido());
+            } catch (Exception e) {
+                solicitud.resultado().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package service;
+
+import dao.EstadisticasPedidos;
+import entities.EmpresaDeEnvio;
+import entities.Envio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import entities.Pedido;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Estadísticas de pedidos mantenidas en memoria de forma incremental. <br>
+ *
+ * Los valores se componen de una base (la última foto tomada de la base de
+ * datos con {@link dao.PedidoDAO#aggregateStats()}) más los deltas
+ * registrados por {@link PedidoService} después de cada commit exitoso.
+ * Los deltas son {@link LongAdder}/{@link DoubleAdder}, así que registrar un
+ * cambio no toma locks ni compite entre hilos, y leer el resumen es sumar
+ * unas pocas celdas. <br>
+ *
+ * La conciliación periódica reemplaza la base por una foto nueva. Antes de
+ * consultar la base se abre un juego de deltas nuevo, de modo que los
+ * cambios registrados mientras corre la consulta no se pierden; un cambio
+ * confirmado justo en esa ventana puede quedar contado dos veces (en la
+ * foto y en los deltas nuevos), desvío que la conciliación siguiente
+ * corrige. Lo mismo vale para escrituras hechas por fuera de la aplicación.
+ */
+public final class ContadoresPedidos {
+
+    /**
+     * Consulta la foto completa de la base usada como base de los contadores.
+     */
+    @FunctionalInterface
+    public interface Fuente {
+
+        /**
+         * @return estadísticas actuales de la base
+         * @throws Exception si falla la consulta
+         */
+        EstadisticasPedidos leer() throws Exception;
+    }
+
+    /** Acumuladores de los cambios registrados desde una conciliación. */
+    private static final class Deltas {
+
+        final LongAdder activos = new LongAdder();
+        final DoubleAdder valorTotal = new DoubleAdder();
+        final LongAdder[] porEstado = adders(EstadoDePedido.values().length);
+        final LongAdder[] porEmpresa = adders(EmpresaDeEnvio.values().length);
+        final LongAdder[] porEstadoEnvio = adders(EstadoDeEnvio.values().length);
+
+        void registrar(Pedido pedido, int signo) {
+            activos.add(signo);
+            valorTotal.add(signo * pedido.getTotal());
+            porEstado[pedido.getEstado().ordinal()].add(signo);
+            Envio envio = pedido.getEnvio();
+            if (envio != null) {
+                porEmpresa[envio.getEmpresa().ordinal()].add(signo);
+                porEstadoEnvio[envio.getEstado().ordinal()].add(signo);
+            }
+        }
+
+        private static LongAdder[] adders(int n) {
+            LongAdder[] adders = new LongAdder[n];
+            for (int i = 0; i < n; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+
+    /**
+     * Estado publicado atómicamente: foto de la base más los deltas
+     * posteriores. {@code previos} sólo existe durante una conciliación.
+     */
+    private record Estado(EstadisticasPedidos base, Instant conciliadoEn, Deltas previos, Deltas actuales) {
+    }
+
+    private final AtomicReference<Estado> estado;
+
+    /**
+     * Crea los contadores sembrándolos con una foto inicial de la base.
+     *
+     * @param fuente consulta de la foto completa
+     * @throws Exception si falla la consulta inicial
+     */
+    public ContadoresPedidos(Fuente fuente) throws Exception {
+        this.estado = new AtomicReference<>(new Estado(fuente.leer(), Instant.now(), null, new Deltas()));
+    }
+
+    /**
+     * Registra un pedido confirmado como nuevo activo.
+     */
+    void registrarAlta(Pedido pedido) {
+        estado.get().actuales.registrar(pedido, 1);
+    }
+
+    /**
+     * Registra la baja de un pedido activo (con los valores que tenía).
+     */
+    void registrarBaja(Pedido pedido) {
+        estado.get().actuales.registrar(pedido, -1);
+    }
+
+    /**
+     * Registra la modificación de un pedido activo.
+     *
+     * @param antes valores previos a la modificación
+     * @param despues valores confirmados
+     */
+    void registrarCambio(Pedido antes, Pedido despues) {
+        Deltas deltas = estado.get().actuales;
+        deltas.registrar(antes, -1);
+        deltas.registrar(despues, 1);
+    }
+
+    /**
+     * Reemplaza la base por una foto nueva. Los cambios registrados mientras
+     * se lee la foto van a un juego de deltas nuevo que se conserva.
+     *
+     * @param fuente consulta de la foto completa
+     * @throws Exception si falla la consulta; en ese caso los valores no cambian
+     */
+    public synchronized void conciliar(Fuente fuente) throws Exception {
+        Estado anterior = estado.get();
+        if (anterior.previos != null) {
+            // La conciliación anterior falló: se unifican sus dos juegos de deltas
+            volcar(anterior.previos, anterior.actuales);
+        }
+        Deltas nuevos = new Deltas();
+        estado.set(new Estado(anterior.base, anterior.conciliadoEn, anterior.actuales, nuevos));
+
+        // Si la consulta falla quedan publicados la base anterior y ambos juegos de deltas
+        EstadisticasPedidos foto = fuente.leer();
+        estado.set(new Estado(foto, Instant.now(), null, nuevos));
+    }
+
+    /**
+     * @return valores actuales (foto de la base más los cambios registrados)
+     */
+    public ResumenPedidos resumen() {
+        Estado e = estado.get();
+        EstadisticasPedidos base = e.base;
+
+        long activos = base.getGeneral().cantidad() + suma(e, d -> d.activos);
+        double valorTotal = base.getGeneral().sumaTotal() + e.actuales.valorTotal.sum()
+                + (e.previos != null ? e.previos.valorTotal.sum() : 0);
+
+        Map<EstadoDePedido, Long> porEstado = new EnumMap<>(EstadoDePedido.class);
+        for (EstadoDePedido valor : EstadoDePedido.values()) {
+            porEstado.put(valor, cantidad(base.getPorEstado().get(valor))
+                    + suma(e, d -> d.porEstado[valor.ordinal()]));
+        }
+        Map<EmpresaDeEnvio, Long> porEmpresa = new EnumMap<>(EmpresaDeEnvio.class);
+        for (EmpresaDeEnvio valor : EmpresaDeEnvio.values()) {
+            porEmpresa.put(valor, cantidad(base.getPorEmpresa().get(valor))
+                    + suma(e, d -> d.porEmpresa[valor.ordinal()]));
+        }
+        Map<EstadoDeEnvio, Long> porEstadoEnvio = new EnumMap<>(EstadoDeEnvio.class);
+        for (EstadoDeEnvio valor : EstadoDeEnvio.values()) {
+            porEstadoEnvio.put(valor, cantidad(base.getPorEstadoEnvio().get(valor))
+                    + suma(e, d -> d.porEstadoEnvio[valor.ordinal()]));
+        }
+
+        return new ResumenPedidos(activos, valorTotal,
+                Collections.unmodifiableMap(porEstado),
+                Collections.unmodifiableMap(porEmpresa),
+                Collections.unmodifiableMap(porEstadoEnvio),
+                e.conciliadoEn);
+    }
+
+    private static long suma(Estado e, Function<Deltas, LongAdder> contador) {
+        long total = contador.apply(e.actuales).sum();
+        if (e.previos != null) {
+            total += contador.apply(e.previos).sum();
+        }
+        return total;
+    }
+
+    private static long cantidad(EstadisticasPedidos.Metricas metricas) {
+        return metricas != null ? metricas.cantidad() : 0;
+    }
+
+    /** Suma los valores de {@code origen} en {@code destino}. */
+    private static void volcar(Deltas origen, Deltas destino) {
+        destino.activos.add(origen.activos.sum());
+        destino.valorTotal.add(origen.valorTotal.sum());
+        for (int i = 0; i < origen.porEstado.length; i++) {
+            destino.porEstado[i].add(origen.porEstado[i].sum());
+        }
+        for (int i = 0; i < origen.porEmpresa.length; i++) {
+            destino.porEmpresa[i].add(origen.porEmpresa[i].sum());
+        }
+        for (int i = 0; i < origen.porEstadoEnvio.length; i++) {
+            destino.porEstadoEnvio[i].add(origen.porEstadoEnvio[i].sum());
+        }
+    }
+}
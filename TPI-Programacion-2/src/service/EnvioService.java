@@ -1,6 +1,13 @@
 package service;
 
+import cache.EstadisticasCache;
+import cache.FiltroBloom;
+import config.ConnectionProvider;
+import dao.EnvioCriteria;
+import dao.DuplicateTrackingException;
 import dao.EnvioDAO;
+import dao.Page;
+import dao.PageRequest;
 import entities.Envio;
 import entities.EmpresaDeEnvio;
 import entities.TipoDeEnvio;
@@ -8,39 +15,122 @@ import entities.EstadoDeEnvio;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import tracking.GeneradorTracking;
+import tracking.GeneradorTrackingOrdenado;
 
 public class EnvioService {
 
     private EnvioDAO envioDAO;
-
-    public EnvioService() {
-        this.envioDAO = new EnvioDAO();
+    private final ConnectionProvider connectionProvider;
+    private final GeneradorTracking generadorTracking;
+    // Filtro de trackings existentes para rechazar duplicados sin insertar (null = desactivado)
+    private volatile FiltroBloom filtroTracking;
+
+    // Usa el generador de tracking ordenado por tiempo con un nodo derivado del host
+    public EnvioService(EnvioDAO envioDAO, ConnectionProvider connectionProvider) {
+        this(envioDAO, connectionProvider, new GeneradorTrackingOrdenado(GeneradorTrackingOrdenado.nodoPorDefecto()));
     }
 
-    public EnvioService(EnvioDAO envioDAO) {
+    public EnvioService(EnvioDAO envioDAO, ConnectionProvider connectionProvider, GeneradorTracking generadorTracking) {
         if (envioDAO == null) {
             throw new IllegalArgumentException("EnvioDAO no puede ser null");
         }
+        if (connectionProvider == null) {
+            throw new IllegalArgumentException("ConnectionProvider no puede ser null");
+        }
+        if (generadorTracking == null) {
+            throw new IllegalArgumentException("GeneradorTracking no puede ser null");
+        }
         this.envioDAO = envioDAO;
+        this.connectionProvider = connectionProvider;
+        this.generadorTracking = generadorTracking;
+    }
+
+    // Genera un código de tracking nuevo para un envío
+    public String generarTracking() {
+        return generadorTracking.siguiente();
     }
 
-    // Método para crear envío dentro de una transacción
+    // Método para crear envío dentro de una transacción.
+    // Inserta directamente: la unicidad del tracking la garantiza el UNIQUE de la tabla y un
+    // duplicado llega como DuplicateTrackingException. Si el filtro de Bloom está activo y el
+    // tracking "puede existir", se confirma con un SELECT para rechazarlo sin intentar el INSERT.
     public void crearEnvio(Envio envio, Connection connection) throws SQLException, IllegalArgumentException {
         // Validaciones
         validarEnvio(envio);
 
-        // Verificar que el tracking sea único
-        Envio envioExistente = envioDAO.findByTracking(envio.getTracking(), connection);
-        if (envioExistente != null) {
-            throw new IllegalArgumentException("Ya existe un envío con el tracking: " + envio.getTracking());
+        FiltroBloom filtro = filtroTracking;
+        if (filtro != null && filtro.puedeContener(envio.getTracking())) {
+            rechazarSiExiste(envio.getTracking(), connection);
         }
 
         // Crear el envío
         try {
             envioDAO.saveTx(envio, connection);
+        } catch (DuplicateTrackingException e) {
+            throw e;
         } catch (Exception e) {
             throw new SQLException("Error al crear el envío: " + e.getMessage(), e);
         }
+        if (filtro != null) {
+            filtro.agregar(envio.getTracking());
+        }
+    }
+
+    // Método para crear varios envíos dentro de una transacción (inserción por lotes).
+    // No consulta el tracking fila por fila: la unicidad la garantiza el UNIQUE de la tabla.
+    public void crearEnvios(List<Envio> envios, Connection connection) throws SQLException, IllegalArgumentException {
+        for (Envio envio : envios) {
+            validarEnvio(envio);
+        }
+        envioDAO.saveAll(envios, connection);
+        FiltroBloom filtro = filtroTracking;
+        if (filtro != null) {
+            for (Envio envio : envios) {
+                filtro.agregar(envio.getTracking());
+            }
+        }
+    }
+
+    // Validaciones previas de un envío que otro componente inserta sin pasar por crearEnvio
+    // (por ejemplo, el procedimiento que crea pedido y envío en un solo viaje). Con el filtro
+    // de Bloom activo, la confirmación del duplicado usa una conexión propia sólo si hace falta.
+    void validarEnvioNuevo(Envio envio) throws SQLException, IllegalArgumentException {
+        validarEnvio(envio);
+        FiltroBloom filtro = filtroTracking;
+        if (filtro != null && filtro.puedeContener(envio.getTracking())) {
+            try (Connection connection = connectionProvider.getConnection()) {
+                rechazarSiExiste(envio.getTracking(), connection);
+            }
+        }
+    }
+
+    // Registra en el filtro de Bloom el tracking de un envío insertado por otro componente
+    void registrarTrackingCreado(String tracking) {
+        FiltroBloom filtro = filtroTracking;
+        if (filtro != null) {
+            filtro.agregar(tracking);
+        }
+    }
+
+    private void rechazarSiExiste(String tracking, Connection connection) throws SQLException {
+        if (envioDAO.findByTracking(tracking, connection) != null) {
+            throw new DuplicateTrackingException(tracking, null);
+        }
+    }
+
+    // Construye el filtro de Bloom con los trackings existentes (recorridos en streaming).
+    // Se dimensiona para el doble de los envíos actuales; más allá de eso los falsos positivos
+    // aumentan, lo que sólo cuesta un SELECT de confirmación extra.
+    public void iniciarFiltroTracking(double probabilidadFalsoPositivo) throws Exception {
+        long capacidad = Math.max(10_000, envioDAO.countAll() * 2);
+        FiltroBloom filtro = new FiltroBloom(capacidad, probabilidadFalsoPositivo);
+        try (Stream<String> trackings = envioDAO.streamAllTrackings()) {
+            trackings.forEach(filtro::agregar);
+        }
+        filtroTracking = filtro;
     }
 
     // Método para buscar envío por ID
@@ -50,14 +140,8 @@ public class EnvioService {
 
     // Método para buscar envío por tracking
     public Envio buscarEnvioPorTracking(String tracking) throws Exception {
-        Connection connection = null;
-        try {
-            connection = config.DatabaseConnection.getConnection();
+        try (Connection connection = connectionProvider.getConnection()) {
             return envioDAO.findByTracking(tracking, connection);
-        } finally {
-            if (connection != null) {
-                connection.close();
-            }
         }
     }
 
@@ -66,6 +150,21 @@ public class EnvioService {
         return envioDAO.findAll();
     }
 
+    // Método para buscar envíos filtrando, ordenando y limitando en la base (una sola consulta)
+    public List<Envio> buscarEnvios(EnvioCriteria criterio) throws Exception {
+        return envioDAO.findByCriteria(criterio);
+    }
+
+    // Método para listar envíos de a una página (paginación por clave, sin OFFSET)
+    public Page<Envio> listarEnviosPaginado(PageRequest pagina) throws Exception {
+        return envioDAO.findPage(pagina);
+    }
+
+    // Método para recorrer todos los envíos en modo streaming (memoria constante)
+    public void recorrerTodosLosEnvios(Consumer<Envio> accion) throws Exception {
+        envioDAO.forEachAll(accion);
+    }
+
     // Método para actualizar envío
     public void actualizarEnvio(Envio envio) throws Exception {
         // Validaciones
@@ -79,8 +178,8 @@ public class EnvioService {
         envioDAO.delete(id);
     }
 
-    // Método de validación
-    private void validarEnvio(Envio envio) throws IllegalArgumentException {
+    // Método de validación (público para reutilizarlo en la importación masiva)
+    public void validarEnvio(Envio envio) throws IllegalArgumentException {
         if (envio.getTracking() == null || envio.getTracking().trim().isEmpty()) {
             throw new IllegalArgumentException("El tracking es obligatorio");
         }
@@ -113,6 +212,11 @@ public class EnvioService {
         }
     }
 
+    // Contadores de la cache de envíos, o null si el DAO no tiene cache activada
+    public EstadisticasCache getEstadisticasCache() {
+        return envioDAO.getEstadisticas();
+    }
+
     // Métodos auxiliares para obtener opciones
     public EmpresaDeEnvio[] getEmpresasDeEnvio() {
         return EmpresaDeEnvio.values();
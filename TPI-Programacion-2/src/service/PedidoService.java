@@ -1,14 +1,34 @@
 package service;
 
-import config.DatabaseConnection;
+import cache.CacheConsultasPedidos;
+import cache.CacheConsultasPedidos.Consulta;
+import cache.EstadisticasCache;
+import config.ConnectionProvider;
+import config.RetryStats;
+import config.TransactionContext;
+import config.TransactionExecutor;
 import config.TransactionManager;
-import dao.EnvioDAO;
+import dao.DuplicateTrackingException;
+import dao.EnvioCriteria;
+import dao.EstadisticasPedidos;
+import dao.Page;
+import dao.PageRequest;
+import dao.PedidoCriteria;
 import dao.PedidoDAO;
 import entities.EmpresaDeEnvio;
 import entities.Envio;
 import entities.EstadoDeEnvio;
 import entities.Pedido;
+import java.sql.Connection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.sql.SQLException;
 
 /**
@@ -23,6 +43,15 @@ import java.sql.SQLException;
  */
 public class PedidoService implements GenericService<Pedido> {
 
+    /** Intentos por operación ante deadlocks y esperas de lock agotadas. */
+    public static final int INTENTOS_POR_DEFECTO = 3;
+
+    /** Espera base antes del primer reintento, en milisegundos. */
+    public static final long ESPERA_BASE_MS_POR_DEFECTO = 20;
+
+    /** Tope de espera entre reintentos, en milisegundos. */
+    public static final long ESPERA_MAXIMA_MS_POR_DEFECTO = 500;
+
     /**
      * DAO para operaciones de acceso a datos de pedidos.
      */
@@ -33,15 +62,81 @@ public class PedidoService implements GenericService<Pedido> {
      */
     private final EnvioService envioService;
 
+    /**
+     * Proveedor de conexiones para las operaciones transaccionales.
+     */
+    private final ConnectionProvider connectionProvider;
+
+    /**
+     * Unidad de trabajo ligada al hilo para las operaciones de varios pasos
+     * (lectura y escritura en una sola conexión y un solo commit).
+     */
+    private final TransactionContext transacciones;
+
+    /**
+     * Ejecuta las unidades de trabajo reintentando deadlocks y esperas de
+     * lock agotadas (ver {@link #configurarReintentos(int, long, long)}).
+     */
+    private volatile TransactionExecutor reintentos;
+
+    /**
+     * Cache de resultados de las búsquedas por cliente y por número
+     * ({@code null} si está desactivada).
+     */
+    private final CacheConsultasPedidos cacheConsultas;
+
+    /**
+     * Estadísticas mantenidas en memoria ({@code null} hasta llamar a
+     * {@link #iniciarContadores(long)}).
+     */
+    private volatile ContadoresPedidos contadores;
+
+    /**
+     * Hilo que concilia periódicamente {@link #contadores} con la base.
+     */
+    private ScheduledExecutorService conciliador;
+
+    /**
+     * Si es {@code true}, {@link #crearPedidoConEnvio(Pedido, Envio)} usa el
+     * procedimiento almacenado que inserta ambos registros en un solo viaje.
+     */
+    private volatile boolean creacionEnUnViaje;
+
+    /**
+     * Commit agrupado de las altas ({@code null} hasta llamar a
+     * {@link #iniciarCommitAgrupado(int, long, int)}).
+     */
+    private volatile CommitAgrupado commitAgrupado;
+
     /**
      * Constructor del servicio.
      *
      * @param pedidoDAO DAO para manejo de pedidos
      * @param envioService servicio para manejo de envíos
+     * @param connectionProvider proveedor de conexiones para las transacciones
      */
-    public PedidoService(PedidoDAO pedidoDAO, EnvioService envioService) {
+    public PedidoService(PedidoDAO pedidoDAO, EnvioService envioService, ConnectionProvider connectionProvider) {
+        this(pedidoDAO, envioService, connectionProvider, null);
+    }
+
+    /**
+     * Constructor del servicio con cache de resultados para
+     * {@link #buscarPorCliente(String)} y {@link #buscarPorNumero(String)}.
+     *
+     * @param pedidoDAO DAO para manejo de pedidos
+     * @param envioService servicio para manejo de envíos
+     * @param connectionProvider proveedor de conexiones para las transacciones
+     * @param cacheConsultas cache de resultados, o {@code null} para desactivarla
+     */
+    public PedidoService(PedidoDAO pedidoDAO, EnvioService envioService, ConnectionProvider connectionProvider,
+            CacheConsultasPedidos cacheConsultas) {
         this.pedidoDAO = pedidoDAO;
         this.envioService = envioService;
+        this.connectionProvider = connectionProvider;
+        this.transacciones = TransactionContext.of(connectionProvider);
+        this.reintentos = new TransactionExecutor(transacciones, INTENTOS_POR_DEFECTO,
+                ESPERA_BASE_MS_POR_DEFECTO, ESPERA_MAXIMA_MS_POR_DEFECTO);
+        this.cacheConsultas = cacheConsultas;
     }
 
     /**
@@ -52,13 +147,10 @@ public class PedidoService implements GenericService<Pedido> {
      */
     @Override
     public void save(Pedido pedido) throws Exception {
-        if (pedido.getClienteNombre() == null || pedido.getClienteNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del cliente no puede estar vacío.");
-        }
-        if (pedido.getTotal() < 0) {
-            throw new IllegalArgumentException("El total no puede ser menor a cero.");
-        }
+        validarPedido(pedido);
         pedidoDAO.save(pedido);
+        invalidarConsultas(pedido);
+        registrarAlta(pedido);
     }
 
     /**
@@ -92,7 +184,16 @@ public class PedidoService implements GenericService<Pedido> {
      */
     @Override
     public void update(Pedido pedido) throws Exception {
-        pedidoDAO.update(pedido);
+        try {
+            Pedido anterior = reintentos.inTransaction("update", () -> {
+                Pedido leido = leerParaContadores(pedido.getId());
+                pedidoDAO.update(pedido);
+                return leido;
+            });
+            registrarCambio(anterior, pedido);
+        } finally {
+            invalidarConsultas(pedido);
+        }
     }
 
     /**
@@ -103,7 +204,16 @@ public class PedidoService implements GenericService<Pedido> {
      */
     @Override
     public void delete(int id) throws Exception {
-        pedidoDAO.delete(id);
+        try {
+            Pedido anterior = reintentos.inTransaction("delete", () -> {
+                Pedido leido = leerParaContadores(id);
+                pedidoDAO.delete(id);
+                return leido;
+            });
+            registrarBaja(anterior);
+        } finally {
+            invalidarConsultas(id);
+        }
     }
 
     /**
@@ -114,25 +224,16 @@ public class PedidoService implements GenericService<Pedido> {
      */
     @Override
     public void saveTx(Pedido pedido) throws Exception {
-        if (pedido.getClienteNombre() == null || pedido.getClienteNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del cliente no puede estar vacío.");
-        }
-        if (pedido.getTotal() < 0) {
-            throw new IllegalArgumentException("El total no puede ser menor a cero.");
-        }
+        validarPedido(pedido);
 
-        /**
-         * NOTA PARA EL EQUIPO: - Actualmente usamos DatabaseConnection
-         * (DriverManager) por simplicidad - Para mejorar performance o realizar
-         * pruebas con HikariCP cambiar a DatabaseConnectionPool - Ejemplo: new
-         * TransactionManager(DatabaseConnectionPool.getConnection())
-         */
-        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection())) {
+        try (TransactionManager tx = new TransactionManager(connectionProvider.getConnection())) {
             tx.startTransaction(); 
 
             try {
                 pedidoDAO.saveTx(pedido, tx.getConnection());
                 tx.commit();
+                invalidarConsultas(pedido);
+                registrarAlta(pedido);
                 System.out.println("Pedido guardado exitosamente");
 
             } catch (SQLException e) {
@@ -149,45 +250,229 @@ public class PedidoService implements GenericService<Pedido> {
         //  El try-with-resources asegura que tx.close() se llame incluso si hay excepciones evitando fugas de conexiones
     }
 
+    /**
+     * Aplica las validaciones básicas de un pedido (las mismas que usan
+     * {@link #save(Pedido)} y {@link #saveTx(Pedido)}).
+     *
+     * @param pedido pedido a validar
+     * @throws IllegalArgumentException si algún dato es inválido
+     */
+    public void validarPedido(Pedido pedido) {
+        if (pedido.getClienteNombre() == null || pedido.getClienteNombre().trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre del cliente no puede estar vacío.");
+        }
+        if (pedido.getTotal() <= 0) {
+            throw new IllegalArgumentException("El total debe ser mayor a cero.");
+        }
+    }
+
     //  MÉTODOS ADICIONALES UTILIZADOS POR EL MENU HANDLER   
     /**
      * Crea un pedido junto con su envío asociado, dentro de una misma
-     * transacción.
+     * transacción. Con el commit agrupado activo, la transacción se comparte
+     * con otras altas concurrentes y el método espera a que se confirme;
+     * dentro de una unidad de trabajo el alta se hace siempre en ella.
      *
      * @param pedido pedido a registrar
      * @param envio envío asociado al pedido
      * @throws Exception si ocurre un error durante el proceso
      */
     public void crearPedidoConEnvio(Pedido pedido, Envio envio) throws Exception {
-        /**
-         * NOTA PARA EL EQUIPO: - Actualmente usamos DatabaseConnection
-         * (DriverManager) por simplicidad - Para mejorar performance o realizar
-         * pruebas con HikariCP cambiar a DatabaseConnectionPool - Ejemplo: new
-         * TransactionManager(DatabaseConnectionPool.getConnection())
-         */
-        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection())) {
-            tx.startTransaction();
+        if (commitAgrupado != null && !transacciones.isActive()) {
+            esperar(crearPedidoConEnvioAsync(pedido, envio));
+        } else {
+            crearPedidoConEnvioDirecto(pedido, envio);
+        }
+    }
 
-            try {
-                envioService.crearEnvio(envio, tx.getConnection());
+    /**
+     * Versión asíncrona de {@link #crearPedidoConEnvio(Pedido, Envio)}. Con
+     * el commit agrupado activo, encola el alta y devuelve enseguida; si no,
+     * la ejecuta en el hilo actual. Dentro de una unidad de trabajo de
+     * {@link TransactionContext} tampoco se encola: un hilo escritor la
+     * confirmaría en otra conexión y un rollback de la unidad no la desharía.
+     * Los datos se validan antes de encolar, para que un pedido inválido no
+     * haga fallar el lote de sus vecinos.
+     *
+     * @param pedido pedido a registrar
+     * @param envio envío asociado al pedido
+     * @return future que se completa con el pedido creado (con sus IDs) o
+     * con la misma excepción que lanzaría la versión sincrónica
+     */
+    public CompletableFuture<Pedido> crearPedidoConEnvioAsync(Pedido pedido, Envio envio) {
+        CommitAgrupado agrupador = commitAgrupado;
+        try {
+            if (agrupador == null || transacciones.isActive()) {
+                crearPedidoConEnvioDirecto(pedido, envio);
+                return CompletableFuture.completedFuture(pedido);
+            }
+            validarPedido(pedido);
+            envioService.validarEnvio(envio);
+            pedido.setEnvio(envio);
+            return agrupador.encolar(pedido);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new Exception("Datos inválidos: " + e.getMessage(), e));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Activa el commit agrupado: las altas de
+     * {@link #crearPedidoConEnvio(Pedido, Envio)} se juntan en lotes que se
+     * escriben con {@link #crearPedidosConEnvio(List)} en una sola
+     * transacción. Si un lote falla, sus pedidos se reintentan de a uno.
+     *
+     * @param maxLote cantidad máxima de pedidos por transacción
+     * @param maxEsperaMillis ventana máxima para juntar un lote
+     * @param escritores hilos (y conexiones) que escriben lotes en paralelo
+     */
+    public synchronized void iniciarCommitAgrupado(int maxLote, long maxEsperaMillis, int escritores) {
+        if (commitAgrupado != null) {
+            return;
+        }
+        commitAgrupado = new CommitAgrupado(this::crearPedidosConEnvio,
+                pedido -> crearPedidoConEnvioDirecto(pedido, pedido.getEnvio()),
+                maxLote, maxEsperaMillis, escritores);
+    }
+
+    /**
+     * Detiene el commit agrupado después de escribir las altas pendientes;
+     * las siguientes vuelven a usar una transacción cada una.
+     */
+    public synchronized void detenerCommitAgrupado() {
+        CommitAgrupado agrupador = commitAgrupado;
+        if (agrupador != null) {
+            commitAgrupado = null;
+            agrupador.detener();
+        }
+    }
+
+    /**
+     * Crea un pedido con su envío en su propia transacción (o con el
+     * procedimiento almacenado, si está activado). Dentro de una unidad de
+     * trabajo se usa siempre la transacción, que se suma a la unidad: el
+     * procedimiento hace su propio COMMIT y confirmaría también lo anterior
+     * de la unidad.
+     */
+    private void crearPedidoConEnvioDirecto(Pedido pedido, Envio envio) throws Exception {
+        if (creacionEnUnViaje && !transacciones.isActive()) {
+            crearPedidoConEnvioEnUnViaje(pedido, envio);
+            return;
+        }
+        try {
+            // Ante un deadlock o un lock wait timeout se repite la transacción completa
+            reintentos.inTransaction("crearPedidoConEnvio", () -> {
+                Connection conn = transacciones.getConnection();
+                envio.setId(null);
+                envioService.crearEnvio(envio, conn);
                 pedido.setEnvio(envio);
-                pedidoDAO.saveTx(pedido, tx.getConnection());
+                pedidoDAO.saveTx(pedido, conn);
+                return null;
+            });
+        } catch (DuplicateTrackingException e) {
+            throw new Exception("Datos inválidos: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new Exception("Error de base de datos al crear pedido: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new Exception("Datos inválidos: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new Exception("Error inesperado al procesar pedido: " + e.getMessage(), e);
+        }
+        invalidarConsultas(pedido);
+        registrarAlta(pedido);
+    }
 
-                tx.commit();
-                System.out.println("Pedido y envío creados exitosamente");
+    /**
+     * Cambia la política de reintentos ante deadlocks (MySQL 1213) y esperas
+     * de lock agotadas (1205): intentos totales y backoff exponencial con
+     * jitter entre {@code 0} y {@code min(esperaMaxima, esperaBase * 2^n)}.
+     *
+     * @param intentos intentos totales por operación (1 = sin reintentos)
+     * @param esperaBaseMs espera base antes del primer reintento
+     * @param esperaMaximaMs tope de espera entre reintentos
+     */
+    public void configurarReintentos(int intentos, long esperaBaseMs, long esperaMaximaMs) {
+        reintentos = new TransactionExecutor(transacciones, intentos, esperaBaseMs, esperaMaximaMs);
+    }
 
-            } catch (SQLException e) {
-                tx.rollback();
-                throw new Exception("Error de base de datos al crear pedido: " + e.getMessage(), e);
-            } catch (IllegalArgumentException e) {
-                tx.rollback();
-                throw new Exception("Datos inválidos: " + e.getMessage(), e);
-            } catch (Exception e) {
-                tx.rollback();
-                throw new Exception("Error inesperado al procesar pedido: " + e.getMessage(), e);
+    /**
+     * @return reintentos por operación desde la última llamada a
+     * {@link #configurarReintentos(int, long, long)}
+     */
+    public Map<String, RetryStats> estadisticasReintentos() {
+        return reintentos.getStats();
+    }
+
+    /**
+     * Activa la creación de pedido y envío en un solo viaje a la base
+     * mediante el procedimiento {@code crear_pedido_con_envio}, que crea la
+     * migración V3 (sólo en MySQL). Con la transacción manual, crear un
+     * pedido cuesta hasta cinco viajes (inicio, dos INSERT, commit y el cambio de
+     * autocommit); con el procedimiento, uno solo. Las altas hechas dentro
+     * de una unidad de trabajo siguen usando la transacción.
+     */
+    public void activarCreacionEnUnViaje() {
+        creacionEnUnViaje = true;
+    }
+
+    /**
+     * Variante de {@link #crearPedidoConEnvioDirecto(Pedido, Envio)} que delega la
+     * transacción al procedimiento almacenado: valida los datos, inserta
+     * ambos registros con una sola llamada y asigna los IDs generados.
+     */
+    private void crearPedidoConEnvioEnUnViaje(Pedido pedido, Envio envio) throws Exception {
+        try {
+            envioService.validarEnvioNuevo(envio);
+            pedido.setEnvio(envio);
+            reintentos.withRetry("crearPedidoConEnvio", () -> {
+                pedidoDAO.saveWithEnvio(pedido);
+                return null;
+            });
+        } catch (DuplicateTrackingException | IllegalArgumentException e) {
+            throw new Exception("Datos inválidos: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new Exception("Error de base de datos al crear pedido: " + e.getMessage(), e);
+        }
+        envioService.registrarTrackingCreado(envio.getTracking());
+        invalidarConsultas(pedido);
+        registrarAlta(pedido);
+    }
+
+    /**
+     * Crea varios pedidos, cada uno con su envío ya asignado, en una única
+     * transacción: primero inserta todos los envíos por lotes y luego todos
+     * los pedidos. Si algo falla se hace rollback del lote completo y se
+     * limpian los IDs asignados, para que los pedidos puedan reintentarse
+     * (por ejemplo, de a uno con {@link #crearPedidoConEnvio(Pedido, Envio)}).
+     *
+     * @param pedidos pedidos a registrar; cada uno debe tener su envío
+     * @throws Exception si los datos son inválidos o falla la transacción
+     */
+    public void crearPedidosConEnvio(List<Pedido> pedidos) throws Exception {
+        for (Pedido pedido : pedidos) {
+            validarPedido(pedido);
+            if (pedido.getEnvio() == null) {
+                throw new IllegalArgumentException("El pedido " + pedido.getNumero() + " no tiene envío asociado.");
             }
         }
-        // El try-with-resources asegura que tx.close() se llame incluso si hay excepciones evitando fugas de conexiones
+
+        try {
+            reintentos.inTransaction("crearPedidosConEnvio", () -> {
+                Connection conn = transacciones.getConnection();
+                envioService.crearEnvios(pedidos.stream().map(Pedido::getEnvio).toList(), conn);
+                pedidoDAO.saveAll(pedidos, conn);
+                return null;
+            });
+        } catch (Exception e) {
+            for (Pedido pedido : pedidos) {
+                pedido.setId(null);
+                pedido.getEnvio().setId(null);
+            }
+            throw new Exception("Error de base de datos al crear el lote de pedidos: " + e.getMessage(), e);
+        }
+        pedidos.forEach(this::invalidarConsultas);
+        pedidos.forEach(this::registrarAlta);
     }
 
     /**
@@ -200,6 +485,61 @@ public class PedidoService implements GenericService<Pedido> {
         return pedidoDAO.findAll();
     }
 
+    /**
+     * Recorre todos los pedidos activos sin cargarlos completos en memoria,
+     * aplicando {@code accion} a cada uno a medida que se leen de la base.
+     *
+     * @param accion acción a ejecutar por cada pedido
+     * @throws Exception si ocurre un error de acceso a datos
+     */
+    public void recorrerTodosLosPedidos(Consumer<Pedido> accion) throws Exception {
+        pedidoDAO.forEachAll(accion);
+    }
+
+    /**
+     * Obtiene el menor y el mayor ID de los pedidos activos, para repartir
+     * recorridos completos de la tabla en rangos.
+     *
+     * @return arreglo {@code {min, max}}, o {@code null} si no hay pedidos
+     * @throws Exception si ocurre un error de acceso a datos
+     */
+    public long[] obtenerRangoDeIds() throws Exception {
+        return pedidoDAO.findActiveIdBounds();
+    }
+
+    /**
+     * Recorre en modo streaming los pedidos activos con ID en
+     * {@code [desdeId, hastaId]}. El stream debe cerrarse al terminar.
+     *
+     * @param desdeId ID inicial (inclusive)
+     * @param hastaId ID final (inclusive)
+     * @return stream perezoso de pedidos con su envío
+     * @throws Exception si ocurre un error de acceso a datos
+     */
+    public Stream<Pedido> recorrerPedidosPorRango(long desdeId, long hastaId) throws Exception {
+        return pedidoDAO.streamByIdRange(desdeId, hastaId);
+    }
+
+    /**
+     * Obtiene una página de pedidos activos usando paginación por clave.
+     *
+     * @param pagina tamaño, orden y clave del último pedido visto
+     * @return página de pedidos con el pedido de la página siguiente
+     * @throws Exception si ocurre un error de acceso a datos
+     */
+    public Page<Pedido> listarPedidosPaginado(PageRequest pagina) throws Exception {
+        return pedidoDAO.findPage(pagina);
+    }
+
+    /**
+     * Genera un código de tracking nuevo para el envío de un pedido.
+     *
+     * @return código de tracking
+     */
+    public String generarTracking() {
+        return envioService.generarTracking();
+    }
+
     /**
      * Busca un pedido utilizando su número único.
      *
@@ -208,7 +548,17 @@ public class PedidoService implements GenericService<Pedido> {
      * @throws Exception si ocurre un error
      */
     public Pedido buscarPorNumero(String numero) throws Exception {
-        return pedidoDAO.findByNumber(numero);
+        if (cacheConsultas == null) {
+            return pedidoDAO.findByNumber(numero);
+        }
+        // Lo que se guarda en la cache se lee del primario: una réplica atrasada podría devolver
+        // el resultado anterior a una escritura ya invalidada y dejarlo cacheado hasta el TTL
+        List<Pedido> resultado = cacheConsultas.obtener(Consulta.POR_NUMERO, numero,
+                () -> transacciones.onPrimary(() -> {
+                    Pedido pedido = pedidoDAO.findByNumber(numero);
+                    return pedido == null ? List.of() : List.of(pedido);
+                }));
+        return resultado.isEmpty() ? null : resultado.get(0);
     }
 
     /**
@@ -219,7 +569,23 @@ public class PedidoService implements GenericService<Pedido> {
      * @throws Exception si ocurre un error
      */
     public List<Pedido> buscarPorCliente(String cliente) throws Exception {
-        return pedidoDAO.findByClient(cliente);
+        if (cacheConsultas == null) {
+            return pedidoDAO.findByClient(cliente);
+        }
+        return cacheConsultas.obtener(Consulta.POR_CLIENTE, cliente,
+                () -> transacciones.onPrimary(() -> pedidoDAO.findByClient(cliente)));
+    }
+
+    /**
+     * Busca pedidos activos filtrando, ordenando y limitando en la base con
+     * una sola consulta.
+     *
+     * @param criterio filtros, orden y límite
+     * @return pedidos que cumplen el criterio
+     * @throws Exception si ocurre un error
+     */
+    public List<Pedido> buscarPedidos(PedidoCriteria criterio) throws Exception {
+        return pedidoDAO.findByCriteria(criterio);
     }
 
     /**
@@ -227,18 +593,31 @@ public class PedidoService implements GenericService<Pedido> {
      *
      * @param numeroPedido número id del pedido
      * @param nuevoEstado nuevo estado del envío
+     * @throws IllegalArgumentException si el envío del pedido fue eliminado
      * @throws Exception si el pedido no existe o falla la actualización
      */
     public void actualizarEstadoEnvio(int numeroPedido, EstadoDeEnvio nuevoEstado) throws Exception {
-        Pedido pedido = pedidoDAO.findById(numeroPedido);
-
-        if (pedido == null) {
-            throw new Exception("Pedido no encontrado.");
+        Pedido[] anterior = new Pedido[1];
+        try {
+            // Lectura y actualización en una sola conexión y un solo commit
+            Pedido pedido = reintentos.inTransaction("actualizarEstadoEnvio", () -> {
+                Pedido leido = pedidoDAO.findById(numeroPedido);
+                if (leido == null) {
+                    throw new Exception("Pedido no encontrado.");
+                }
+                if (leido.getEnvio() == null) {
+                    throw new IllegalArgumentException("El pedido " + numeroPedido + " no tiene un envío activo.");
+                }
+                anterior[0] = new Pedido(leido);
+                leido.getEnvio().setEstado(nuevoEstado);
+                envioService.actualizarEnvio(leido.getEnvio());
+                return leido;
+            });
+            registrarCambio(anterior[0], pedido);
+        } finally {
+            // Los resultados cacheados incluyen el envío del pedido
+            invalidarConsultas(numeroPedido);
         }
-
-        Envio envio = pedido.getEnvio();
-        envio.setEstado(nuevoEstado);
-        envioService.actualizarEnvio(envio);
     }
 
     /**
@@ -248,13 +627,19 @@ public class PedidoService implements GenericService<Pedido> {
      * @throws Exception si el pedido no existe
      */
     public void eliminarPedido(int numero) throws Exception {
-        Pedido pedido = pedidoDAO.findById(numero);
-
-        if (pedido == null) {
-            throw new Exception("Pedido no encontrado.");
+        try {
+            Pedido pedido = reintentos.inTransaction("eliminarPedido", () -> {
+                Pedido leido = pedidoDAO.findById(numero);
+                if (leido == null) {
+                    throw new Exception("Pedido no encontrado.");
+                }
+                pedidoDAO.delete(numero);
+                return leido;
+            });
+            registrarBaja(pedido);
+        } finally {
+            invalidarConsultas(numero);
         }
-
-        pedidoDAO.delete(numero);
     }
 
     /**
@@ -265,10 +650,7 @@ public class PedidoService implements GenericService<Pedido> {
      * @throws Exception si ocurre un error de acceso
      */
     public List<Envio> listarEnviosPorEmpresa(EmpresaDeEnvio empresa) throws Exception {
-        return envioService.listarTodosLosEnvios()
-                .stream()
-                .filter(e -> e.getEmpresa() == empresa)
-                .toList();
+        return envioService.buscarEnvios(EnvioCriteria.builder().empresa(empresa).build());
     }
 
     /**
@@ -291,11 +673,192 @@ public class PedidoService implements GenericService<Pedido> {
         return pedidoDAO.totalActivesValue();
     }
     
+    /**
+     * Calcula con una sola consulta las métricas de los pedidos activos
+     * (cantidad y suma/promedio/mínimo/máximo de total y costo de envío),
+     * agrupadas por estado, empresa, tipo de envío y mes.
+     *
+     * @return estadísticas agrupadas
+     * @throws Exception si ocurre un error
+     */
+    public EstadisticasPedidos obtenerEstadisticas() throws Exception {
+        return pedidoDAO.aggregateStats();
+    }
+
+    /**
+     * Activa las estadísticas en memoria: las siembra con una consulta a la
+     * base y, a partir de ahí, cada alta, modificación o baja confirmada por
+     * este servicio las actualiza sin volver a consultar. Cada
+     * {@code intervaloConciliacionMs} se reemplazan por una foto nueva de la
+     * base para corregir desvíos (por ejemplo, escrituras hechas por fuera
+     * de la aplicación).
+     *
+     * @param intervaloConciliacionMs período de conciliación en milisegundos (0 = sin conciliación)
+     * @throws Exception si falla la consulta inicial
+     */
+    public synchronized void iniciarContadores(long intervaloConciliacionMs) throws Exception {
+        if (contadores != null) {
+            return;
+        }
+        ContadoresPedidos nuevos = new ContadoresPedidos(pedidoDAO::aggregateStats);
+        contadores = nuevos;
+
+        if (intervaloConciliacionMs > 0) {
+            conciliador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "conciliacion-estadisticas");
+                t.setDaemon(true);
+                return t;
+            });
+            conciliador.scheduleWithFixedDelay(() -> {
+                try {
+                    nuevos.conciliar(pedidoDAO::aggregateStats);
+                } catch (Exception e) {
+                    System.err.println("Error al conciliar estadísticas: " + e.getMessage());
+                }
+            }, intervaloConciliacionMs, intervaloConciliacionMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Detiene la conciliación periódica de las estadísticas en memoria.
+     */
+    public synchronized void detenerContadores() {
+        if (conciliador != null) {
+            conciliador.shutdownNow();
+            conciliador = null;
+        }
+    }
+
+    /**
+     * Estadísticas en memoria; se responden sin consultar la base.
+     *
+     * @return resumen actual, o {@code null} si no se llamó a {@link #iniciarContadores(long)}
+     */
+    public ResumenPedidos resumenEnVivo() {
+        ContadoresPedidos actuales = contadores;
+        return actuales != null ? actuales.resumen() : null;
+    }
+
+    /**
+     * Contadores de la cache de envíos (aciertos, fallos, desalojos).
+     *
+     * @return estadísticas de la cache, o {@code null} si está desactivada
+     */
+    public EstadisticasCache estadisticasCacheEnvios() {
+        return envioService.getEstadisticasCache();
+    }
+
+    /**
+     * Contadores de la cache de resultados de búsquedas por cliente y número.
+     *
+     * @return estadísticas de la cache, o {@code null} si está desactivada
+     */
+    public EstadisticasCache estadisticasCacheConsultas() {
+        return cacheConsultas != null ? cacheConsultas.estadisticas() : null;
+    }
+
     public void actualizarPedido(Pedido pedido) {
     try {
-        pedidoDAO.update(pedido);
-    } catch (SQLException e) {
+        Pedido anterior = reintentos.inTransaction("actualizarPedido", () -> {
+            Pedido leido = leerParaContadores(pedido.getId());
+            pedidoDAO.update(pedido);
+            return leido;
+        });
+        registrarCambio(anterior, pedido);
+    } catch (Exception e) {
         System.out.println("Error al actualizar pedido: " + e.getMessage());
+    } finally {
+        invalidarConsultas(pedido);
     }
 }
+
+    /**
+     * Descarta de la cache de consultas los resultados afectados por la
+     * escritura del pedido. Se invalida también si la escritura falló, ya
+     * que no se sabe si llegó a aplicarse. Como en la cache de envíos, se
+     * invalida ahora y otra vez al confirmarse la unidad de trabajo externa,
+     * si la escritura quedó anidada en una: hasta ese commit otra conexión
+     * puede volver a cachear el resultado anterior.
+     */
+    private void invalidarConsultas(Pedido pedido) {
+        if (cacheConsultas != null) {
+            cacheConsultas.invalidar(pedido);
+            transacciones.afterCommit(() -> cacheConsultas.invalidar(pedido));
+        }
+    }
+
+    private void invalidarConsultas(long pedidoId) {
+        if (cacheConsultas != null) {
+            cacheConsultas.invalidarPorId(pedidoId);
+            transacciones.afterCommit(() -> cacheConsultas.invalidarPorId(pedidoId));
+        }
+    }
+
+    /**
+     * Lee el estado previo de un pedido antes de modificarlo, para poder
+     * descontarlo de las estadísticas en memoria. Si están desactivadas no
+     * consulta la base.
+     */
+    private Pedido leerParaContadores(long pedidoId) throws SQLException {
+        return contadores != null ? pedidoDAO.findById((int) pedidoId) : null;
+    }
+
+    /**
+     * Suma el pedido a las estadísticas en memoria cuando se confirma la
+     * unidad de trabajo (enseguida si la escritura no quedó anidada en una):
+     * si la unidad externa vuelve atrás, los contadores no cambian. Se
+     * registra una copia, porque el pedido puede modificarse antes del commit.
+     */
+    private void registrarAlta(Pedido pedido) {
+        if (contadores == null) {
+            return;
+        }
+        Pedido confirmado = new Pedido(pedido);
+        transacciones.afterCommit(() -> {
+            ContadoresPedidos actuales = contadores;
+            if (actuales != null) {
+                actuales.registrarAlta(confirmado);
+            }
+        });
+    }
+
+    private void registrarBaja(Pedido pedido) {
+        if (contadores == null || pedido == null) {
+            return;
+        }
+        transacciones.afterCommit(() -> {
+            ContadoresPedidos actuales = contadores;
+            if (actuales != null) {
+                actuales.registrarBaja(pedido);
+            }
+        });
+    }
+
+    private void registrarCambio(Pedido anterior, Pedido actual) {
+        if (contadores == null || anterior == null) {
+            return;
+        }
+        Pedido confirmado = new Pedido(actual);
+        transacciones.afterCommit(() -> {
+            ContadoresPedidos actuales = contadores;
+            if (actuales != null) {
+                actuales.registrarCambio(anterior, confirmado);
+            }
+        });
+    }
+
+    /**
+     * Espera el resultado de un alta asíncrona y relanza su excepción
+     * original.
+     */
+    private static void esperar(CompletableFuture<Pedido> resultado) throws Exception {
+        try {
+            resultado.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
 }
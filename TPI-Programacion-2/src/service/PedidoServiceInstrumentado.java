@@ -0,0 +1,163 @@
+package service;
+
+import cache.CacheConsultasPedidos;
+import config.ConnectionProvider;
+import dao.EstadisticasPedidos;
+import dao.Page;
+import dao.PageRequest;
+import dao.PedidoCriteria;
+import dao.PedidoDAO;
+import entities.EmpresaDeEnvio;
+import entities.Envio;
+import entities.EstadoDeEnvio;
+import entities.Pedido;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import metricas.Metricas;
+
+/**
+ * {@link PedidoService} que registra en {@link Metricas} la latencia, los
+ * errores y las filas devueltas de sus operaciones, con el nombre
+ * {@code PedidoService.<metodo>}. La latencia de un método de servicio
+ * incluye la de los DAOs que usa (y su espera por conexiones), que se miden
+ * por separado si también están instrumentados. <br>
+ *
+ * Las llamadas entre métodos del propio servicio se miden en ambos niveles
+ * (por ejemplo, {@code crearPedidoConEnvio} con el commit agrupado activo
+ * también cuenta como {@code crearPedidoConEnvioAsync}). Se activa con
+ * {@code metrics.enabled=true} (por defecto).
+ */
+public class PedidoServiceInstrumentado extends PedidoService {
+
+    private static final String PREFIJO = "PedidoService.";
+
+    private final Metricas metricas;
+
+    /**
+     * @param pedidoDAO DAO para manejo de pedidos
+     * @param envioService servicio para manejo de envíos
+     * @param connectionProvider proveedor de conexiones para las transacciones
+     * @param cacheConsultas cache de resultados, o {@code null} para desactivarla
+     * @param metricas registro de métricas
+     */
+    public PedidoServiceInstrumentado(PedidoDAO pedidoDAO, EnvioService envioService,
+            ConnectionProvider connectionProvider, CacheConsultasPedidos cacheConsultas, Metricas metricas) {
+        super(pedidoDAO, envioService, connectionProvider, cacheConsultas);
+        if (metricas == null) {
+            throw new IllegalArgumentException("Metricas no puede ser null");
+        }
+        this.metricas = metricas;
+    }
+
+    @Override
+    public void save(Pedido pedido) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "save", () -> super.save(pedido));
+    }
+
+    @Override
+    public Pedido findById(int id) throws Exception {
+        return metricas.medir(PREFIJO + "findById", () -> super.findById(id));
+    }
+
+    @Override
+    public List<Pedido> findAll() throws Exception {
+        return metricas.medir(PREFIJO + "findAll", super::findAll);
+    }
+
+    @Override
+    public void update(Pedido pedido) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "update", () -> super.update(pedido));
+    }
+
+    @Override
+    public void delete(int id) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "delete", () -> super.delete(id));
+    }
+
+    @Override
+    public void saveTx(Pedido pedido) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "saveTx", () -> super.saveTx(pedido));
+    }
+
+    @Override
+    public void crearPedidoConEnvio(Pedido pedido, Envio envio) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "crearPedidoConEnvio", () -> super.crearPedidoConEnvio(pedido, envio));
+    }
+
+    @Override
+    public CompletableFuture<Pedido> crearPedidoConEnvioAsync(Pedido pedido, Envio envio) {
+        return metricas.medirAsincrono(PREFIJO + "crearPedidoConEnvioAsync",
+                () -> super.crearPedidoConEnvioAsync(pedido, envio));
+    }
+
+    @Override
+    public void crearPedidosConEnvio(List<Pedido> pedidos) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "crearPedidosConEnvio", () -> super.crearPedidosConEnvio(pedidos));
+    }
+
+    @Override
+    public List<Pedido> obtenerTodosLosPedidos() throws Exception {
+        return metricas.medir(PREFIJO + "obtenerTodosLosPedidos", super::obtenerTodosLosPedidos);
+    }
+
+    @Override
+    public long[] obtenerRangoDeIds() throws Exception {
+        return metricas.medir(PREFIJO + "obtenerRangoDeIds", super::obtenerRangoDeIds);
+    }
+
+    @Override
+    public Page<Pedido> listarPedidosPaginado(PageRequest pagina) throws Exception {
+        return metricas.medir(PREFIJO + "listarPedidosPaginado", () -> super.listarPedidosPaginado(pagina));
+    }
+
+    @Override
+    public Pedido buscarPorNumero(String numero) throws Exception {
+        return metricas.medir(PREFIJO + "buscarPorNumero", () -> super.buscarPorNumero(numero));
+    }
+
+    @Override
+    public List<Pedido> buscarPorCliente(String cliente) throws Exception {
+        return metricas.medir(PREFIJO + "buscarPorCliente", () -> super.buscarPorCliente(cliente));
+    }
+
+    @Override
+    public List<Pedido> buscarPedidos(PedidoCriteria criterio) throws Exception {
+        return metricas.medir(PREFIJO + "buscarPedidos", () -> super.buscarPedidos(criterio));
+    }
+
+    @Override
+    public void actualizarEstadoEnvio(int numeroPedido, EstadoDeEnvio nuevoEstado) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "actualizarEstadoEnvio",
+                () -> super.actualizarEstadoEnvio(numeroPedido, nuevoEstado));
+    }
+
+    @Override
+    public void eliminarPedido(int numero) throws Exception {
+        metricas.medirSinResultado(PREFIJO + "eliminarPedido", () -> super.eliminarPedido(numero));
+    }
+
+    @Override
+    public List<Envio> listarEnviosPorEmpresa(EmpresaDeEnvio empresa) throws Exception {
+        return metricas.medir(PREFIJO + "listarEnviosPorEmpresa", () -> super.listarEnviosPorEmpresa(empresa));
+    }
+
+    @Override
+    public long contarPedidosActivos() throws Exception {
+        return metricas.medir(PREFIJO + "contarPedidosActivos", super::contarPedidosActivos);
+    }
+
+    @Override
+    public double calcularValorTotalPedidos() throws Exception {
+        return metricas.medir(PREFIJO + "calcularValorTotalPedidos", super::calcularValorTotalPedidos);
+    }
+
+    @Override
+    public EstadisticasPedidos obtenerEstadisticas() throws Exception {
+        return metricas.medir(PREFIJO + "obtenerEstadisticas", super::obtenerEstadisticas);
+    }
+
+    @Override
+    public void actualizarPedido(Pedido pedido) {
+        metricas.medirSinResultado(PREFIJO + "actualizarPedido", () -> super.actualizarPedido(pedido));
+    }
+}
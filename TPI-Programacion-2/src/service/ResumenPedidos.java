@@ -0,0 +1,24 @@
+package service;
+
+import entities.EmpresaDeEnvio;
+import entities.EstadoDeEnvio;
+import entities.EstadoDePedido;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Foto de los contadores en memoria de {@link ContadoresPedidos}.
+ *
+ * @param activos cantidad de pedidos activos
+ * @param valorTotal suma de {@code total} de los pedidos activos
+ * @param porEstado cantidad de pedidos por estado
+ * @param porEmpresa cantidad de pedidos con envío activo por empresa
+ * @param porEstadoEnvio cantidad de pedidos con envío activo por estado del envío
+ * @param conciliadoEn momento de la última conciliación con la base
+ */
+public record ResumenPedidos(long activos, double valorTotal,
+                             Map<EstadoDePedido, Long> porEstado,
+                             Map<EmpresaDeEnvio, Long> porEmpresa,
+                             Map<EstadoDeEnvio, Long> porEstadoEnvio,
+                             Instant conciliadoEn) {
+}
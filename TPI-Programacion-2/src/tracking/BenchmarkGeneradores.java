@@ -0,0 +1,117 @@
+package tracking;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Benchmark de los generadores de tracking: mide el throughput de
+ * {@link GeneradorTrackingOrdenado} contra la línea base
+ * {@link GeneradorTrackingUuid} con 1, 2, 4, ... hilos hasta la cantidad de
+ * procesadores, y verifica que el generador ordenado no repita códigos y
+ * que cada hilo los reciba en orden creciente. <br>
+ *
+ * Uso: {@code java -cp build/classes tracking.BenchmarkGeneradores [códigosPorHilo]}
+ * <br>
+ * Es una medición simple (con calentamiento previo); los resultados sirven
+ * para comparar los generadores en una misma máquina, no como valores
+ * absolutos.
+ */
+public class BenchmarkGeneradores {
+
+    private static final int RONDAS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int porHilo = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int maxHilos = Runtime.getRuntime().availableProcessors();
+
+        GeneradorTracking uuid = new GeneradorTrackingUuid();
+        GeneradorTracking ordenado = new GeneradorTrackingOrdenado(1);
+
+        // Calentamiento para que el JIT compile ambos caminos
+        medir(uuid, maxHilos, porHilo / 4, false);
+        medir(ordenado, maxHilos, porHilo / 4, false);
+
+        System.out.printf("%-8s %18s %18s %8s%n", "Hilos", "UUID (ids/s)", "Ordenado (ids/s)", "Mejora");
+        for (int hilos = 1; hilos <= maxHilos; hilos = hilos < maxHilos ? Math.min(hilos * 2, maxHilos) : hilos + 1) {
+            double base = mejorDe(uuid, hilos, porHilo);
+            double rapido = mejorDe(ordenado, hilos, porHilo);
+            System.out.printf("%-8d %,18.0f %,18.0f %7.1fx%n", hilos, base, rapido, rapido / base);
+        }
+
+        medir(ordenado, maxHilos, porHilo, true);
+        System.out.println("Generador ordenado: sin duplicados y creciente en cada hilo ("
+                + maxHilos * (long) porHilo + " códigos)");
+    }
+
+    private static double mejorDe(GeneradorTracking generador, int hilos, int porHilo) throws Exception {
+        double mejor = 0;
+        for (int i = 0; i < RONDAS; i++) {
+            mejor = Math.max(mejor, medir(generador, hilos, porHilo, false));
+        }
+        return mejor;
+    }
+
+    /**
+     * @return códigos generados por segundo
+     */
+    private static double medir(GeneradorTracking generador, int hilos, int porHilo, boolean verificar)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> resultados = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(pool.submit(() -> {
+                    List<String> codigos = verificar ? new ArrayList<>(porHilo) : null;
+                    int sumidero = 0;
+                    largada.await();
+                    for (int i = 0; i < porHilo; i++) {
+                        String codigo = generador.siguiente();
+                        if (verificar) {
+                            codigos.add(codigo);
+                        } else {
+                            sumidero += codigo.length();
+                        }
+                    }
+                    return sumidero < 0 ? null : codigos;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            List<List<String>> generados = new ArrayList<>();
+            for (Future<List<String>> resultado : resultados) {
+                generados.add(resultado.get());
+            }
+            long nanos = System.nanoTime() - inicio;
+
+            if (verificar) {
+                verificarUnicosYCrecientes(generados);
+            }
+            return hilos * (double) porHilo / (nanos / 1e9);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void verificarUnicosYCrecientes(List<List<String>> generados) {
+        Set<String> vistos = new HashSet<>();
+        for (List<String> codigos : generados) {
+            String anterior = "";
+            for (String codigo : codigos) {
+                if (!vistos.add(codigo)) {
+                    throw new IllegalStateException("Código duplicado: " + codigo);
+                }
+                if (codigo.compareTo(anterior) <= 0) {
+                    throw new IllegalStateException("Código fuera de orden: " + anterior + " -> " + codigo);
+                }
+                anterior = codigo;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package tracking;
+
+/**
+ * Estrategia de generación de códigos de tracking para nuevos envíos. <br>
+ *
+ * Las implementaciones deben ser seguras para uso concurrente y generar
+ * códigos únicos de hasta 40 caracteres (el máximo que admite
+ * {@code EnvioService.validarEnvio}).
+ *
+ * @see GeneradorTrackingOrdenado
+ * @see GeneradorTrackingUuid
+ */
+@FunctionalInterface
+public interface GeneradorTracking {
+
+    /**
+     * @return un código de tracking nuevo
+     */
+    String siguiente();
+
+    /**
+     * Crea el generador indicado por nombre: {@code ordenado} (por defecto)
+     * o {@code uuid}.
+     *
+     * @param tipo nombre del generador
+     * @param nodo identificador de nodo para el generador ordenado (0 a {@value GeneradorTrackingOrdenado#MAX_NODO})
+     * @return generador configurado
+     * @throws IllegalStateException si el tipo no es reconocido
+     */
+    static GeneradorTracking crear(String tipo, int nodo) {
+        switch (tipo.toLowerCase()) {
+            case "ordenado":
+                return new GeneradorTrackingOrdenado(nodo);
+            case "uuid":
+                return new GeneradorTrackingUuid();
+            default:
+                throw new IllegalStateException("Generador de tracking desconocido: " + tipo);
+        }
+    }
+}
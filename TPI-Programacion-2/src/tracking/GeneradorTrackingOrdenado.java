@@ -0,0 +1,107 @@
+package tracking;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de códigos ordenados por tiempo, al estilo Snowflake. <br>
+ *
+ * Cada código es un entero de 63 bits compuesto por:
+ * <pre>
+ *  41 bits: milisegundos desde {@link #EPOCA} (alcanza hasta ~2094)
+ *  10 bits: nodo (0 a {@value #MAX_NODO}), distinto por instancia de la aplicación
+ *  12 bits: secuencia dentro del mismo milisegundo
+ * </pre>
+ * codificado en 13 caracteres Base32 de Crockford con ancho fijo, de modo
+ * que el orden alfabético de los códigos coincide con el orden de
+ * generación. Así las inserciones en el índice UNIQUE de
+ * {@code envios.tracking} caen casi siempre al final del B-tree en lugar de
+ * en páginas aleatorias. <br>
+ *
+ * Sin locks: el último (milisegundo, secuencia) se guarda empaquetado en un
+ * {@link AtomicLong} y cada código se reserva con un CAS sobre el máximo
+ * entre el reloj actual y el último valor más uno. Si en un milisegundo se
+ * agotan las 4096 secuencias, o si el reloj retrocede, se sigue avanzando
+ * sobre el último valor emitido: los códigos nunca se repiten ni
+ * retroceden dentro del proceso.
+ */
+public class GeneradorTrackingOrdenado implements GeneradorTracking {
+
+    /** Época propia (2025-01-01T00:00:00Z) para aprovechar los 41 bits de tiempo. */
+    public static final long EPOCA = 1_735_689_600_000L;
+
+    /** Mayor identificador de nodo admitido. */
+    public static final int MAX_NODO = 1023;
+
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LARGO = 13;
+
+    private final long nodo;
+
+    /** Último (milisegundo << 12 | secuencia) emitido. */
+    private final AtomicLong ultimo = new AtomicLong();
+
+    /**
+     * @param nodo identificador de esta instancia (0 a {@value #MAX_NODO}); dos
+     *             instancias que escriben en la misma base deben usar nodos distintos
+     */
+    public GeneradorTrackingOrdenado(int nodo) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO);
+        }
+        this.nodo = nodo;
+    }
+
+    @Override
+    public String siguiente() {
+        return codificar(siguienteValor());
+    }
+
+    /**
+     * @return el próximo identificador numérico (estrictamente creciente)
+     */
+    public long siguienteValor() {
+        long ahora = (System.currentTimeMillis() - EPOCA) << BITS_SECUENCIA;
+        long anterior;
+        long siguiente;
+        do {
+            anterior = ultimo.get();
+            siguiente = Math.max(ahora, anterior + 1);
+        } while (!ultimo.compareAndSet(anterior, siguiente));
+
+        long milis = siguiente >>> BITS_SECUENCIA;
+        long secuencia = siguiente & MASCARA_SECUENCIA;
+        return (milis << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuencia;
+    }
+
+    /**
+     * Deriva un identificador de nodo a partir del nombre del host y el PID,
+     * para cuando no se configura uno explícito. Dos procesos pueden
+     * coincidir (hay 1024 nodos), por lo que en despliegues con varias
+     * instancias conviene configurarlo.
+     *
+     * @return nodo entre 0 y {@value #MAX_NODO}
+     */
+    public static int nodoPorDefecto() {
+        String host;
+        try {
+            host = java.net.InetAddress.getLocalHost().getHostName();
+        } catch (java.net.UnknownHostException e) {
+            host = "";
+        }
+        return Math.floorMod(31 * host.hashCode() + Long.hashCode(ProcessHandle.current().pid()), MAX_NODO + 1);
+    }
+
+    /** Codifica 65 bits (el primero siempre 0) en Base32 de Crockford con ancho fijo. */
+    static String codificar(long valor) {
+        char[] salida = new char[LARGO];
+        for (int i = LARGO - 1; i >= 0; i--) {
+            salida[i] = CROCKFORD[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+        return new String(salida);
+    }
+}
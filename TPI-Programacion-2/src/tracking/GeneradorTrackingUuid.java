@@ -0,0 +1,18 @@
+package tracking;
+
+import java.util.UUID;
+
+/**
+ * Generador basado en {@link UUID#randomUUID()}: el comportamiento original.
+ * Cada código sale de {@code SecureRandom}, que se vuelve un punto de
+ * contención con muchos hilos, y al ser aleatorio reparte las inserciones
+ * por todo el índice UNIQUE de {@code envios.tracking}. Se conserva como
+ * alternativa y como línea base de {@link BenchmarkGeneradores}.
+ */
+public class GeneradorTrackingUuid implements GeneradorTracking {
+
+    @Override
+    public String siguiente() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,161 @@
+package config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de {@link TransactionContext} sobre una conexión falsa que
+ * registra las llamadas que recibe (commit, rollback, savepoints).
+ */
+public class TransactionContextTest {
+
+    /** Llamadas recibidas por la conexión real, en orden. */
+    private List<String> llamadas;
+    private TransactionContext contexto;
+
+    @Before
+    public void setUp() {
+        llamadas = new ArrayList<>();
+        contexto = new TransactionContext(() -> conexionFalsa(llamadas));
+    }
+
+    @Test
+    public void rollbackInNestedUnitOnlyUndoesInnermostSavepoint() throws Exception {
+        contexto.inTransaction(() -> {
+            contexto.inTransaction(() -> {
+                contexto.inTransaction(() -> {
+                    // Como lo hace un TransactionManager anidado al fallar
+                    contexto.getConnection().rollback();
+                    return null;
+                });
+                return null;
+            });
+            return null;
+        });
+
+        assertTrue(llamadas.contains("rollback(sp2)"));
+        assertFalse(llamadas.contains("rollback(sp1)"));
+        assertFalse(llamadas.contains("rollback"));
+        assertEquals("commit", ultimaTransaccional());
+    }
+
+    @Test
+    public void rollbackInOuterUnitMarksItRollbackOnly() throws Exception {
+        try {
+            contexto.inTransaction(() -> {
+                contexto.getConnection().rollback();
+                return null;
+            });
+            fail("Se esperaba SQLException por la unidad marcada para rollback");
+        } catch (SQLException e) {
+            // esperado
+        }
+
+        assertFalse(llamadas.contains("commit"));
+        assertEquals("rollback", ultimaTransaccional());
+    }
+
+    @Test
+    public void afterCommitRunsAfterCommit() throws Exception {
+        contexto.inTransaction(() -> {
+            contexto.afterCommit(() -> llamadas.add("accion"));
+            assertFalse(llamadas.contains("accion"));
+            return null;
+        });
+
+        assertTrue(llamadas.indexOf("commit") < llamadas.indexOf("accion"));
+    }
+
+    @Test
+    public void afterCommitDoesNotRunWhenUnitFails() throws Exception {
+        try {
+            contexto.inTransaction(() -> {
+                contexto.afterCommit(() -> llamadas.add("accion"));
+                throw new IllegalStateException("falla del trabajo");
+            });
+            fail("Se esperaba la excepción del trabajo");
+        } catch (IllegalStateException e) {
+            assertEquals("falla del trabajo", e.getMessage());
+        }
+
+        assertFalse(llamadas.contains("accion"));
+        assertFalse(llamadas.contains("commit"));
+    }
+
+    @Test
+    public void afterCommitDoesNotRunWhenUnitIsRolledBack() throws Exception {
+        try {
+            contexto.inTransaction(() -> {
+                contexto.inTransaction(() -> {
+                    contexto.afterCommit(() -> llamadas.add("accion"));
+                    return null;
+                });
+                contexto.getConnection().rollback();
+                return null;
+            });
+            fail("Se esperaba SQLException por la unidad marcada para rollback");
+        } catch (SQLException e) {
+            // esperado
+        }
+
+        assertFalse(llamadas.contains("accion"));
+    }
+
+    @Test
+    public void afterCommitOutsideUnitRunsImmediately() {
+        contexto.afterCommit(() -> llamadas.add("accion"));
+
+        assertEquals(List.of("accion"), llamadas);
+    }
+
+    /** Último commit o rollback completo recibido por la conexión real. */
+    private String ultimaTransaccional() {
+        for (int i = llamadas.size() - 1; i >= 0; i--) {
+            String llamada = llamadas.get(i);
+            if (llamada.equals("commit") || llamada.equals("rollback")) {
+                return llamada;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Conexión que sólo registra las llamadas de transacción. Los savepoints
+     * se numeran en orden de creación: {@code sp1}, {@code sp2}, ...
+     */
+    private static Connection conexionFalsa(List<String> llamadas) {
+        int[] savepoints = {0};
+        return (Connection) Proxy.newProxyInstance(TransactionContextTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setSavepoint":
+                            String nombre = "sp" + ++savepoints[0];
+                            return Proxy.newProxyInstance(TransactionContextTest.class.getClassLoader(),
+                                    new Class<?>[]{Savepoint.class}, (sp, m, a) -> m.getName().equals("toString")
+                                            ? nombre : null);
+                        case "rollback":
+                            llamadas.add(args == null ? "rollback" : "rollback(" + args[0] + ")");
+                            return null;
+                        case "commit":
+                        case "releaseSavepoint":
+                            llamadas.add(method.getName());
+                            return null;
+                        case "getAutoCommit":
+                            return Boolean.FALSE;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
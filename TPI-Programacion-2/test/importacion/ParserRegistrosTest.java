@@ -0,0 +1,104 @@
+package importacion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Pruebas de {@link ParserRegistros}: comillas y escapes en CSV y NDJSON.
+ */
+public class ParserRegistrosTest {
+
+    @Test
+    public void csvSeparaCamposSimples() {
+        assertEquals(List.of("A-1", "2024-05-01", "Ana"), ParserRegistros.separarCsv("A-1,2024-05-01,Ana"));
+    }
+
+    @Test
+    public void csvRecortaEspaciosYConservaCamposVacios() {
+        assertEquals(List.of("A-1", "", "Ana", ""), ParserRegistros.separarCsv(" A-1 ,, Ana ,"));
+    }
+
+    @Test
+    public void csvComaEntreComillasNoSepara() {
+        assertEquals(List.of("Pérez, Ana", "150.5"), ParserRegistros.separarCsv("\"Pérez, Ana\",150.5"));
+    }
+
+    @Test
+    public void csvComillaDobleEscapaUnaComilla() {
+        assertEquals(List.of("Bar \"El Sol\"", "1"), ParserRegistros.separarCsv("\"Bar \"\"El Sol\"\"\",1"));
+    }
+
+    @Test
+    public void csvCampoSoloConComillaEscapada() {
+        assertEquals(List.of("\"", "x"), ParserRegistros.separarCsv("\"\"\"\",x"));
+    }
+
+    @Test
+    public void csvComillasSinCerrarFallan() {
+        assertThrows(IllegalArgumentException.class, () -> ParserRegistros.separarCsv("\"Ana,150.5"));
+    }
+
+    @Test
+    public void csvOmiteValoresVaciosDelRegistro() {
+        Map<String, String> registro = ParserRegistros.parsearCsv("A-1,,Ana",
+                List.of("numero", "fecha", "clienteNombre"));
+
+        assertEquals("A-1", registro.get("numero"));
+        assertEquals("Ana", registro.get("clienteNombre"));
+        assertFalse(registro.containsKey("fecha"));
+    }
+
+    @Test
+    public void csvConOtraCantidadDeColumnasFalla() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParserRegistros.parsearCsv("A-1,Ana", List.of("numero", "fecha", "clienteNombre")));
+    }
+
+    @Test
+    public void jsonLeeStringsNumerosYNulos() {
+        Map<String, String> registro = ParserRegistros.parsearJson(
+                "{\"numero\":\"A-1\", \"total\":150.5, \"fecha_despacho\":null, \"eliminado\":false}");
+
+        assertEquals("A-1", registro.get("numero"));
+        assertEquals("150.5", registro.get("total"));
+        assertEquals("false", registro.get("eliminado"));
+        assertFalse(registro.containsKey("fecha_despacho"));
+    }
+
+    @Test
+    public void jsonResuelveEscapes() {
+        Map<String, String> registro = ParserRegistros.parsearJson(
+                "{\"clienteNombre\":\"Bar \\\"El Sol\\\"\\nSucursal \\u00c1\\\\2\"}");
+
+        assertEquals("Bar \"El Sol\"\nSucursal Á\\2", registro.get("clienteNombre"));
+    }
+
+    @Test
+    public void jsonObjetoVacio() {
+        assertTrue(ParserRegistros.parsearJson(" {} ").isEmpty());
+    }
+
+    @Test
+    public void jsonRechazaAnidados() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParserRegistros.parsearJson("{\"envio\":{\"id\":1}}"));
+    }
+
+    @Test
+    public void jsonStringSinCerrarFalla() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParserRegistros.parsearJson("{\"numero\":\"A-1}"));
+    }
+
+    @Test
+    public void jsonEscapeUnicodeIncompletoFalla() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParserRegistros.parsearJson("{\"numero\":\"\\u00\"}"));
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import entities.Pedido;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Pruebas de la detención de {@link CommitAgrupado}: todo lo encolado se
+ * escribe o falla su future, y nada queda esperando para siempre.
+ */
+public class CommitAgrupadoTest {
+
+    @Test
+    public void detenerEscribeLoYaEncolado() throws Exception {
+        AtomicInteger escritos = new AtomicInteger();
+        CommitAgrupado agrupador = new CommitAgrupado(
+                lote -> escritos.addAndGet(lote.size()), pedido -> escritos.incrementAndGet(), 16, 50, 2);
+
+        List<CompletableFuture<Pedido>> resultados = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            resultados.add(agrupador.encolar(new Pedido()));
+        }
+        agrupador.detener();
+
+        for (CompletableFuture<Pedido> resultado : resultados) {
+            assertTrue(resultado.isDone());
+            assertTrue(resultado.get() != null);
+        }
+        assertEquals(100, escritos.get());
+    }
+
+    @Test
+    public void encolarDespuesDeDetenerFalla() {
+        CommitAgrupado agrupador = new CommitAgrupado(lote -> { }, pedido -> { }, 16, 5, 1);
+        agrupador.detener();
+
+        assertThrows(IllegalStateException.class, () -> agrupador.encolar(new Pedido()));
+    }
+
+    @Test
+    public void loteFallidoSeReintentaDeAUno() throws Exception {
+        Pedido invalido = new Pedido();
+        CountDownLatch encolados = new CountDownLatch(1);
+        CommitAgrupado agrupador = new CommitAgrupado(
+                lote -> {
+                    encolados.await();
+                    throw new Exception("falla del lote");
+                },
+                pedido -> {
+                    if (pedido == invalido) {
+                        throw new Exception("pedido inválido");
+                    }
+                }, 16, 1000, 1);
+
+        CompletableFuture<Pedido> valido = agrupador.encolar(new Pedido());
+        CompletableFuture<Pedido> fallido = agrupador.encolar(invalido);
+        encolados.countDown();
+        agrupador.detener();
+
+        assertTrue(valido.get(1, TimeUnit.SECONDS) != null);
+        assertTrue(fallido.isCompletedExceptionally());
+    }
+
+    @Test
+    public void ningunAltaQuedaPendienteAlDetenerConcurrentemente() throws Exception {
+        for (int ronda = 0; ronda < 50; ronda++) {
+            CommitAgrupado agrupador = new CommitAgrupado(lote -> { }, pedido -> { }, 8, 1, 2);
+            ConcurrentLinkedQueue<CompletableFuture<Pedido>> resultados = new ConcurrentLinkedQueue<>();
+            CountDownLatch listos = new CountDownLatch(4);
+            List<Thread> productores = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread productor = new Thread(() -> {
+                    listos.countDown();
+                    try {
+                        while (true) {
+                            resultados.add(agrupador.encolar(new Pedido()));
+                        }
+                    } catch (IllegalStateException detenido) {
+                        // el agrupador ya no acepta altas
+                    }
+                });
+                productor.start();
+                productores.add(productor);
+            }
+            listos.await();
+            agrupador.detener();
+            for (Thread productor : productores) {
+                productor.join();
+            }
+
+            for (CompletableFuture<Pedido> resultado : resultados) {
+                assertTrue("Alta encolada sin completar al detener", resultado.isDone());
+            }
+        }
+    }
+
+    @Test
+    public void elFutureDevuelveElMismoPedido() throws Exception {
+        CommitAgrupado agrupador = new CommitAgrupado(lote -> { }, pedido -> { }, 16, 5, 1);
+        Pedido pedido = new Pedido();
+
+        CompletableFuture<Pedido> resultado = agrupador.encolar(pedido);
+        agrupador.detener();
+
+        assertSame(pedido, resultado.get(1, TimeUnit.SECONDS));
+    }
+}